@@ -0,0 +1,32 @@
+package com.school.project.wahr_oder_watt.config;
+
+import com.school.project.wahr_oder_watt.model.TimeOrderedIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Component;
+
+/**
+ * Setzt die Knotennummer für {@link TimeOrderedIdGenerator}, bevor JPA startet und IDs vergeben
+ * werden können. Laufen mehrere Instanzen gegen dieselbe Datenbank, braucht jede eine eigene
+ * Nummer.
+ */
+@Configuration
+public class IdConfig {
+
+  public IdConfig(@Value("${app.ids.node:0}") int node) {
+    TimeOrderedIdGenerator.useNode(node);
+  }
+
+  /**
+   * Lässt die EntityManagerFactory auf diese Konfiguration warten.
+   */
+  @Component
+  static class EntityManagerFactoryDependsOnIdConfig
+      extends EntityManagerFactoryDependsOnPostProcessor {
+
+    EntityManagerFactoryDependsOnIdConfig() {
+      super(IdConfig.class);
+    }
+  }
+}
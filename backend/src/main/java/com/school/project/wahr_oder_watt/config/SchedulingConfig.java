@@ -0,0 +1,12 @@
+package com.school.project.wahr_oder_watt.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Aktiviert @Scheduled-Methoden für Hintergrundaufgaben (z.B. Ablauf der Online-Präsenz).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,7 +1,11 @@
 package com.school.project.wahr_oder_watt.config;
 
+import com.school.project.wahr_oder_watt.security.BoundedPasswordEncoder;
 import com.school.project.wahr_oder_watt.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,8 +16,8 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
@@ -23,16 +27,25 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 public class SecurityConfig {
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${app.security.bcrypt.strength:10}") int strength,
+      @Value("${app.security.hashing.threads:2}") int threads,
+      @Value("${app.security.hashing.queue-capacity:32}") int queueCapacity,
+      @Value("${app.security.hashing.retry-after-seconds:2}") long retryAfterSeconds,
+      MeterRegistry meterRegistry) {
+    return new BoundedPasswordEncoder(strength, threads, queueCapacity, retryAfterSeconds,
+        meterRegistry);
   }
 
   @Bean
   public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+      UserDetailsPasswordService userDetailsPasswordService,
       PasswordEncoder passwordEncoder) {
     DaoAuthenticationProvider p = new DaoAuthenticationProvider();
     p.setUserDetailsService(userDetailsService);
     p.setPasswordEncoder(passwordEncoder);
+    // Hashes mit veralteten Kosten werden beim Login neu erzeugt
+    p.setUserDetailsPasswordService(userDetailsPasswordService);
     return p;
   }
 
@@ -62,6 +75,8 @@ public class SecurityConfig {
         .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
         .authorizeHttpRequests(auth -> auth
             .requestMatchers("/auth/**", "/api/auth/**").permitAll()
+            // SSE-Streams: die Anfrage wurde beim Verbindungsaufbau bereits geprüft
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             .anyRequest().authenticated()
         )
         .httpBasic(AbstractHttpConfigurer::disable)
@@ -1,11 +1,15 @@
 package com.school.project.wahr_oder_watt.controller;
 
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import com.school.project.wahr_oder_watt.dto.CursorPage;
 import com.school.project.wahr_oder_watt.model.Attribute;
 import com.school.project.wahr_oder_watt.service.AttributeService;
-import java.util.List;
+import com.school.project.wahr_oder_watt.service.CatalogSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST controller for managing attributes.
@@ -18,13 +22,24 @@ public class AttributeController {
   private final AttributeService attributeService;
 
   /**
-   * Retrieves all attributes.
+   * Retrieves a page of attributes ordered by ID.
    *
-   * @return List of all attributes.
+   * @param after ID after which the page starts, omitted for the first page.
+   * @param limit requested page size, capped by the configured maximum.
+   * @param request used to answer with 304 when the catalog version is unchanged.
+   * @return Page of attributes with the cursor for the next page.
    */
   @GetMapping
-  public ResponseEntity<List<Attribute>> getAllAttributes() {
-    return ResponseEntity.ok(attributeService.findAll());
+  public ResponseEntity<CursorPage<AttributeReadDto>> getAllAttributes(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    CatalogSnapshot catalog = attributeService.catalog();
+    if (request.checkNotModified(catalog.etag())) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.etag()).build();
+    }
+    return ResponseEntity.ok().eTag(catalog.etag())
+        .body(attributeService.findPage(catalog, after, limit));
   }
 
   /**
@@ -34,9 +49,14 @@ public class AttributeController {
    * @return The attribute with the specified ID.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Attribute> getAttribute(@PathVariable Long id) {
-    Attribute attribute = attributeService.findById(id);
-    return ResponseEntity.ok(attribute);
+  public ResponseEntity<AttributeReadDto> getAttribute(@PathVariable Long id,
+      WebRequest request) {
+    CatalogSnapshot catalog = attributeService.catalog();
+    if (request.checkNotModified(catalog.etag())) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.etag()).build();
+    }
+    return ResponseEntity.ok().eTag(catalog.etag())
+        .body(attributeService.findReadDtoById(catalog, id));
   }
 
   /**
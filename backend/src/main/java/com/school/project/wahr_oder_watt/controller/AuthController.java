@@ -3,14 +3,18 @@ package com.school.project.wahr_oder_watt.controller;
 import com.school.project.wahr_oder_watt.dto.RegisterRequest;
 import com.school.project.wahr_oder_watt.dto.LoginRequest;
 import com.school.project.wahr_oder_watt.dto.AdminLoginRequest;
+import com.school.project.wahr_oder_watt.security.AuthenticatedUser;
 import com.school.project.wahr_oder_watt.service.UserService;
 import com.school.project.wahr_oder_watt.service.JwtService;
 import lombok.RequiredArgsConstructor;
+import com.school.project.wahr_oder_watt.security.PasswordHashingBusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -42,8 +46,9 @@ public class AuthController {
     Authentication authentication = authenticationManager.authenticate(
         new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
     );
-    UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-    String token = jwtService.generateToken(userDetails.getUsername());
+    AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+    String token = jwtService.generateToken(principal.getUsername(), principal.getId(),
+        principal.isAdmin(), principal.isAccountNonLocked());
     return ResponseEntity.ok(token);
   }
   @PostMapping("/login_admin")
@@ -51,20 +56,31 @@ public class AuthController {
       Authentication authentication = authenticationManager.authenticate(
           new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
       );
-      UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-      // User anhand Username/E-Mail holen
-      User user = userService.findByUsername(userDetails.getUsername());
-      if (user == null || !user.isAdmin()) {
+      AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+      // Rolle direkt aus dem Principal, ohne erneute Abfrage
+      if (!principal.isAdmin()) {
           return ResponseEntity.status(403).body("Kein Admin-Zugang!");
       }
-      String token = jwtService.generateToken(userDetails.getUsername());
+      String token = jwtService.generateToken(principal.getUsername(), principal.getId(),
+          true, principal.isAccountNonLocked());
       return ResponseEntity.ok(token);
   }
 
   @PostMapping("/register")
   public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-    userService.registerNewUser(request);
-    String token = jwtService.generateToken(request.getUsername());
+    User user = userService.registerNewUser(request);
+    String token = jwtService.generateToken(user.getUsername(), user.getId(), user.isAdmin(),
+        user.isEnabled());
     return ResponseEntity.ok(token);
   }
+
+  /**
+   * Antwortet mit 429 und Retry-After, wenn der Hash-Pool ausgelastet ist.
+   */
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<String> handleHashingBusy(PasswordHashingBusyException e) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+        .body(e.getMessage());
+  }
 }
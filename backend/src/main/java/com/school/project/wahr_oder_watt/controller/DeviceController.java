@@ -1,12 +1,15 @@
 package com.school.project.wahr_oder_watt.controller;
 
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.DeviceReadDto;
 import com.school.project.wahr_oder_watt.model.Device;
+import com.school.project.wahr_oder_watt.service.CatalogSnapshot;
 import com.school.project.wahr_oder_watt.service.DeviceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * REST-Controller zur Verwaltung von Geräten.
@@ -19,20 +22,34 @@ public class DeviceController {
   private final DeviceService deviceService;
 
   /**
-   * Gibt alle Geräte zurück.
+   * Gibt eine Seite von Geräten zurück (Keyset-Paginierung über die ID). Antwortet mit 304, wenn
+   * der Client den aktuellen Katalogstand schon kennt.
    */
   @GetMapping
-  public List<Device> getAllDevices() {
-    return deviceService.findAll();
+  public ResponseEntity<CursorPage<DeviceReadDto>> getAllDevices(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) Boolean active,
+      WebRequest request) {
+    CatalogSnapshot catalog = deviceService.catalog();
+    if (request.checkNotModified(catalog.etag())) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.etag()).build();
+    }
+    return ResponseEntity.ok().eTag(catalog.etag())
+        .body(deviceService.findPage(catalog, after, limit, active));
   }
 
   /**
    * Gibt ein Gerät anhand der ID zurück.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Device> getDevice(@PathVariable Long id) {
-    Device device = deviceService.findById(id);
-    return ResponseEntity.ok(device);
+  public ResponseEntity<DeviceReadDto> getDevice(@PathVariable Long id, WebRequest request) {
+    CatalogSnapshot catalog = deviceService.catalog();
+    if (request.checkNotModified(catalog.etag())) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(catalog.etag()).build();
+    }
+    return ResponseEntity.ok().eTag(catalog.etag())
+        .body(deviceService.findReadDtoById(catalog, id));
   }
 
   /**
@@ -1,12 +1,33 @@
 package com.school.project.wahr_oder_watt.controller;
 
+import com.school.project.wahr_oder_watt.dto.AnswerRequest;
+import com.school.project.wahr_oder_watt.dto.AnswerResult;
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.DeckAnswerRequest;
+import com.school.project.wahr_oder_watt.dto.DeckAnswerResult;
+import com.school.project.wahr_oder_watt.dto.DuelReadDto;
+import com.school.project.wahr_oder_watt.dto.DuelReplayDto;
+import com.school.project.wahr_oder_watt.dto.DuelStateDto;
+import com.school.project.wahr_oder_watt.dto.SpeedrunDeckDto;
 import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelEvent;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.security.AuthenticatedUser;
+import com.school.project.wahr_oder_watt.service.DuelEngine;
+import com.school.project.wahr_oder_watt.service.DuelEventLog;
 import com.school.project.wahr_oder_watt.service.DuelService;
+import com.school.project.wahr_oder_watt.service.DuelSpectators;
+import com.school.project.wahr_oder_watt.service.IdempotencyCache;
+import com.school.project.wahr_oder_watt.service.StaleVersionException;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * REST-Controller zur Verwaltung von Duellen.
@@ -17,30 +38,118 @@ import java.util.List;
 public class DuelController {
 
   private final DuelService duelService;
+  private final DuelEngine duelEngine;
+  private final DuelEventLog duelEventLog;
+  private final IdempotencyCache idempotencyCache;
+  private final DuelSpectators spectators;
 
   /**
-   * Gibt alle Duelle zurück.
+   * Gibt eine Seite von Duellen zurück (Keyset-Paginierung über die ID).
    */
   @GetMapping
-  public ResponseEntity<List<Duel>> getAllDuels() {
-    return ResponseEntity.ok(duelService.findAll());
+  public ResponseEntity<CursorPage<DuelReadDto>> getAllDuels(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) DuelStatus status) {
+    return ResponseEntity.ok(duelService.findPage(after, limit, status));
   }
 
   /**
    * Gibt ein Duell anhand der ID zurück.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Duel> getDuel(@PathVariable Long id) {
-    Duel duel = duelService.findById(id);
-    return ResponseEntity.ok(duel);
+  public ResponseEntity<DuelReadDto> getDuel(@PathVariable Long id) {
+    return ResponseEntity.ok(duelService.findReadDtoById(id));
+  }
+
+  /**
+   * Gibt den aktuellen Stand eines laufenden Duells aus dem Speicher zurück.
+   */
+  @GetMapping("/{id}/state")
+  public ResponseEntity<DuelStateDto> getDuelState(@PathVariable Long id) {
+    return ResponseEntity.ok(duelEngine.state(id));
+  }
+
+  /**
+   * Öffnet einen SSE-Stream, der Zuschauern jeden neuen Stand eines laufenden Duells sendet
+   * (Ereignis {@code state}) und nach dem Ende des Duells schließt.
+   */
+  @GetMapping(value = "/{id}/spectate", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter spectate(@PathVariable Long id) {
+    return spectators.subscribe(id, duelEngine::state);
   }
 
   /**
-   * Erstellt ein neues Duell.
+   * Gibt das Ereignisprotokoll eines beendeten Duells in seiner Reihenfolge zurück. Solange das
+   * Duell läuft, gibt es keine Ereignisse: Sie enthalten die gewählten Antworten.
+   */
+  @GetMapping("/{id}/events")
+  public ResponseEntity<List<DuelEvent>> getDuelEvents(@PathVariable Long id) {
+    requireClosed(id);
+    return ResponseEntity.ok(duelEventLog.events(id));
+  }
+
+  /**
+   * Stellt den Stand eines beendeten Duells aus seinem Ereignisprotokoll wieder her.
+   */
+  @GetMapping("/{id}/replay")
+  public ResponseEntity<DuelReplayDto> replayDuel(@PathVariable Long id) {
+    requireClosed(id);
+    return ResponseEntity.ok(duelEventLog.replay(id));
+  }
+
+  /**
+   * Nimmt die Antwort des angemeldeten Spielers für eine Runde entgegen. Mit demselben
+   * {@code Idempotency-Key} wiederholte Anfragen liefern das Ergebnis der ersten.
+   */
+  @PostMapping("/{id}/rounds/{round}/answers")
+  public ResponseEntity<AnswerResult> submitAnswer(@PathVariable Long id, @PathVariable int round,
+      @RequestBody AnswerRequest answer,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    List<Long> attributeIds = answer.attributeIds() != null ? answer.attributeIds() : List.of();
+    AnswerResult result = idempotencyCache.execute(principal.getId(),
+        "answer:" + id + ":" + round, idempotencyKey,
+        () -> duelEngine.answer(id, principal.getId(), round, attributeIds));
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Teilt dem angemeldeten Spieler im Speedrun die nächsten Karten aus.
+   */
+  @GetMapping("/{id}/deck")
+  public ResponseEntity<SpeedrunDeckDto> getDeck(@PathVariable Long id,
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    return ResponseEntity.ok(duelEngine.deck(id, principal.getId()));
+  }
+
+  /**
+   * Nimmt mehrere Speedrun-Antworten des angemeldeten Spielers auf einmal entgegen. Die Antwort
+   * enthält nachgelegte Karten, sobald dem Spieler die ausgeteilten ausgehen.
+   */
+  @PostMapping("/{id}/deck/answers")
+  public ResponseEntity<DeckAnswerResult> submitDeckAnswers(@PathVariable Long id,
+      @RequestBody DeckAnswerRequest request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    List<DeckAnswerRequest.Answer> answers =
+        request.answers() != null ? request.answers() : List.of();
+    DeckAnswerResult result = idempotencyCache.execute(principal.getId(), "deck:" + id,
+        idempotencyKey, () -> duelEngine.answerDeck(id, principal.getId(), answers));
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * Erstellt ein neues Duell. Mit demselben {@code Idempotency-Key} wiederholte Anfragen legen
+   * kein zweites Duell an.
    */
   @PostMapping
-  public ResponseEntity<Duel> createDuel(@RequestBody Duel duel) {
-    Duel created = duelService.save(duel);
+  public ResponseEntity<Duel> createDuel(@RequestBody Duel duel,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    Long userId = principal != null ? principal.getId() : null;
+    Duel created = idempotencyCache.execute(userId, "create-duel", idempotencyKey,
+        () -> duelService.save(duel));
     return ResponseEntity.ok(created);
   }
 
@@ -61,4 +170,27 @@ public class DuelController {
     duelService.delete(id);
     return ResponseEntity.noContent().build();
   }
+
+  private void requireClosed(Long id) {
+    if (duelEngine.isActive(id) || !duelService.isClosed(id) || !duelEventLog.isWritten(id)) {
+      throw new IllegalStateException("Ereignisse sind erst nach dem Ende des Duells abrufbar: "
+          + id);
+    }
+  }
+
+  /**
+   * Das Duell läuft noch oder ist kein Speedrun.
+   */
+  @ExceptionHandler(IllegalStateException.class)
+  public ResponseEntity<String> handleNotAvailable(IllegalStateException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+  }
+
+  /**
+   * Das Duell wurde zwischenzeitlich geändert; der Client muss es neu laden.
+   */
+  @ExceptionHandler({StaleVersionException.class, OptimisticLockingFailureException.class})
+  public ResponseEntity<String> handleConflict(RuntimeException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+  }
 }
\ No newline at end of file
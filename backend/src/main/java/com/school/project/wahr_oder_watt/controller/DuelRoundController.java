@@ -1,13 +1,16 @@
 package com.school.project.wahr_oder_watt.controller;
 
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.DuelRoundReadDto;
 import com.school.project.wahr_oder_watt.model.DuelRound;
 import com.school.project.wahr_oder_watt.service.DuelRoundService;
+import com.school.project.wahr_oder_watt.service.StaleVersionException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * REST-Controller zur Verwaltung von Duellrunden.
  */
@@ -19,20 +22,21 @@ public class DuelRoundController {
   private final DuelRoundService duelRoundService;
 
   /**
-   * Gibt alle Duellrunden zurück.
+   * Gibt eine Seite von Duellrunden zurück (Keyset-Paginierung über die ID).
    */
   @GetMapping
-  public ResponseEntity<List<DuelRound>> getAllDuelRounds() {
-    return ResponseEntity.ok(duelRoundService.findAll());
+  public ResponseEntity<CursorPage<DuelRoundReadDto>> getAllDuelRounds(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(duelRoundService.findPage(after, limit));
   }
 
   /**
    * Gibt eine Duellrunde anhand der ID zurück.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<DuelRound> getDuelRound(@PathVariable Long id) {
-    DuelRound duelRound = duelRoundService.findById(id);
-    return ResponseEntity.ok(duelRound);
+  public ResponseEntity<DuelRoundReadDto> getDuelRound(@PathVariable Long id) {
+    return ResponseEntity.ok(duelRoundService.findReadDtoById(id));
   }
 
   /**
@@ -61,4 +65,12 @@ public class DuelRoundController {
     duelRoundService.delete(id);
     return ResponseEntity.noContent().build();
   }
+
+  /**
+   * Die Duellrunde wurde zwischenzeitlich geändert; der Client muss sie neu laden.
+   */
+  @ExceptionHandler({StaleVersionException.class, OptimisticLockingFailureException.class})
+  public ResponseEntity<String> handleConflict(RuntimeException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+  }
 }
@@ -1,17 +1,25 @@
 package com.school.project.wahr_oder_watt.controller;
 
 import com.school.project.wahr_oder_watt.model.Highscore;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
 import com.school.project.wahr_oder_watt.service.HighscoreService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.data.jpa.repository.Query;
-import com.school.project.wahr_oder_watt.dto.HighscoreDto;
+import com.school.project.wahr_oder_watt.dto.HighscorePage;
+import com.school.project.wahr_oder_watt.dto.RankedHighscoreDto;
 
 import java.util.List;
 
 /**
  * REST-Controller zur Verwaltung von Highscores.
+ *
+ * <p>Alle lesenden Endpunkte bedienen sich aus der Rangliste im Speicher und fragen die Datenbank
+ * nicht ab.
  */
 @RestController
 @RequestMapping("/api/highscores")
@@ -21,20 +29,62 @@ public class HighscoreController {
   private final HighscoreService highscoreService;
 
   /**
-   * Gibt alle Highscores zurück.
+   * Gibt eine Seite der Highscores mit Rang zurück, bester zuerst, wahlweise nur für die laufende
+   * Woche oder den laufenden Tag. Der ETag ist die Version der Rangliste; kennt der Client sie
+   * schon, gibt es 304 ohne Abfrage und ohne Antwortkörper.
    */
   @GetMapping
-  public List<HighscoreDto> all() {
-    return highscoreService.findAllDtosSortedByScoreDesc();
+  public ResponseEntity<HighscorePage> all(
+      @RequestParam(defaultValue = "ALL_TIME") ScoreWindow window,
+      @RequestParam(required = false) Integer offset,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
+    String etag = highscoreService.etag(window);
+    if (request.checkNotModified(etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+    HighscorePage page = highscoreService.findPage(window, offset, limit);
+    // die Seite kann schon aus einem neueren Stand stammen als der eben geprüfte ETag
+    return ResponseEntity.ok().eTag(highscoreService.etagOf(window, page))
+        .cacheControl(CacheControl.noCache())
+        .body(page);
+  }
+
+  /**
+   * Gibt die besten Highscores zurück.
+   */
+  @GetMapping("/top")
+  public ResponseEntity<List<RankedHighscoreDto>> top(
+      @RequestParam(defaultValue = "ALL_TIME") ScoreWindow window,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(highscoreService.findTop(window, limit));
+  }
+
+  /**
+   * Gibt den Highscore eines Benutzers mit seinem Rang zurück.
+   */
+  @GetMapping("/players/{userId}")
+  public ResponseEntity<RankedHighscoreDto> getRankOfPlayer(@PathVariable Long userId,
+      @RequestParam(defaultValue = "ALL_TIME") ScoreWindow window) {
+    return ResponseEntity.ok(highscoreService.findRankedByPlayer(window, userId));
+  }
+
+  /**
+   * Gibt den Highscore eines Benutzers samt den Einträgen direkt vor und hinter ihm zurück.
+   */
+  @GetMapping("/players/{userId}/around")
+  public ResponseEntity<List<RankedHighscoreDto>> around(@PathVariable Long userId,
+      @RequestParam(defaultValue = "ALL_TIME") ScoreWindow window,
+      @RequestParam(defaultValue = "5") int radius) {
+    return ResponseEntity.ok(highscoreService.findAround(window, userId, radius));
   }
 
   /**
    * Gibt einen Highscore anhand der ID zurück.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<Highscore> getHighscore(@PathVariable Long id) {
-    Highscore highscore = highscoreService.findById(id);
-    return ResponseEntity.ok(highscore);
+  public ResponseEntity<RankedHighscoreDto> getHighscore(@PathVariable Long id) {
+    return ResponseEntity.ok(highscoreService.findRankedById(id));
   }
 
   /**
@@ -63,4 +113,12 @@ public class HighscoreController {
     highscoreService.delete(id);
     return ResponseEntity.noContent().build();
   }
-}
\ No newline at end of file
+
+  /**
+   * Highscore oder Benutzer ohne Highscore nicht gefunden.
+   */
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> handleNotFound(IllegalArgumentException e) {
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+  }
+}
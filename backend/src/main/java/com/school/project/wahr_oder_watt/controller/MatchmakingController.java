@@ -0,0 +1,60 @@
+package com.school.project.wahr_oder_watt.controller;
+
+import com.school.project.wahr_oder_watt.dto.MatchmakingStatus;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.security.AuthenticatedUser;
+import com.school.project.wahr_oder_watt.service.MatchmakingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST-Controller für die Gegnersuche des angemeldeten Spielers.
+ */
+@RestController
+@RequestMapping("/api/matchmaking")
+@RequiredArgsConstructor
+public class MatchmakingController {
+
+  private final MatchmakingService matchmakingService;
+
+  /**
+   * Reiht den angemeldeten Spieler für einen Modus ein.
+   */
+  @PostMapping
+  public ResponseEntity<MatchmakingStatus> enqueue(@RequestParam DuelMode mode,
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    MatchmakingStatus status = matchmakingService.enqueue(principal.getId(), mode);
+    return status.state() == MatchmakingStatus.State.WAITING
+        ? ResponseEntity.accepted().body(status)
+        : ResponseEntity.ok(status);
+  }
+
+  /**
+   * Gibt den Stand der Gegnersuche zurück. Wird vom Client abgefragt, bis ein Duell feststeht.
+   */
+  @GetMapping
+  public ResponseEntity<MatchmakingStatus> status(
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    return ResponseEntity.ok(matchmakingService.status(principal.getId()));
+  }
+
+  /**
+   * Bricht die Gegnersuche ab.
+   */
+  @DeleteMapping
+  public ResponseEntity<Void> cancel(@AuthenticationPrincipal AuthenticatedUser principal) {
+    matchmakingService.cancel(principal.getId());
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Der Spieler wartet bereits.
+   */
+  @ExceptionHandler(IllegalStateException.class)
+  public ResponseEntity<String> handleConflict(IllegalStateException e) {
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+  }
+}
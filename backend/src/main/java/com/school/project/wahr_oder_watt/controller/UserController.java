@@ -1,20 +1,29 @@
 package com.school.project.wahr_oder_watt.controller;
 
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.PlayerDuelDto;
+import com.school.project.wahr_oder_watt.dto.UserDto;
+import com.school.project.wahr_oder_watt.dto.UserReadDto;
 import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.security.AuthenticatedUser;
+import com.school.project.wahr_oder_watt.service.DuelService;
+import com.school.project.wahr_oder_watt.service.LobbyEventBroadcaster;
 import com.school.project.wahr_oder_watt.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.Logger;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -28,22 +37,58 @@ import java.util.List;
 public class UserController {
 
   private final UserService userService;
+  private final DuelService duelService;
+  private final LobbyEventBroadcaster lobbyEvents;
 
   /**
-   * Gibt alle Benutzer zurück.
+   * Gibt eine Seite von Benutzern zurück (Keyset-Paginierung über die ID).
    */
   @GetMapping
-  public ResponseEntity<List<User>> getAllUsers() {
-    return ResponseEntity.ok(userService.findAll());
+  public ResponseEntity<CursorPage<UserReadDto>> getAllUsers(
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit,
+      @RequestParam(required = false) Boolean enabled) {
+    return ResponseEntity.ok(userService.findPage(after, limit, enabled));
   }
 
+  /**
+   * Gibt Benutzer zurück, die online, aktiviert und in keinem Duell sind (ohne den Anfragenden).
+   */
   @GetMapping("/available")
-  public ResponseEntity<List<User>> getAvailableUsers() {
-    return ResponseEntity.ok(
-        userService.findAll().stream()
-            .filter(User::isEnabled) // Voraussetzung: Methode/Flag existiert
-            .toList()
-    );
+  public ResponseEntity<List<UserDto>> getAvailableUsers(
+      @RequestParam(required = false) String prefix,
+      @RequestParam(required = false) Integer limit,
+      @AuthenticationPrincipal AuthenticatedUser principal) {
+    Long excludeId = principal != null ? principal.getId() : null;
+    return ResponseEntity.ok(userService.findAvailable(prefix, limit, excludeId));
+  }
+
+  /**
+   * Meldet den angemeldeten Benutzer als online. Wird von der Lobby regelmäßig aufgerufen.
+   */
+  @PostMapping("/heartbeat")
+  public ResponseEntity<Void> heartbeat(@AuthenticationPrincipal AuthenticatedUser principal) {
+    userService.heartbeat(principal.getId());
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Öffnet einen SSE-Stream mit den Änderungen der Lobby (Spieler kommt, geht, beginnt ein Duell,
+   * ist wieder frei). Der Client lädt die Lobby einmal per {@code /available} und wendet danach nur
+   * noch die Ereignisse an.
+   */
+  @GetMapping(value = "/lobby/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter lobbyEvents() {
+    return lobbyEvents.subscribe();
+  }
+
+  /**
+   * Meldet den angemeldeten Benutzer als offline.
+   */
+  @DeleteMapping("/heartbeat")
+  public ResponseEntity<Void> leave(@AuthenticationPrincipal AuthenticatedUser principal) {
+    userService.leave(principal.getId());
+    return ResponseEntity.noContent().build();
   }
 /**
    * Gibt den aktuell angemeldeten Benutzer zurück.
@@ -51,22 +96,24 @@ public class UserController {
 @GetMapping("/me")
 @ResponseStatus(HttpStatus.OK)
 public Map<String, Object> me(Authentication authentication) {
-  Logger log1 = log;
-  log1.info(authentication.toString());
   Map<String, Object> dto = new HashMap<>();
   if (authentication == null) {
     dto.put("id", 0);
     dto.put("username", "unknown");
     return dto;
   }
-  User user = userService.findByEmail(authentication.getName());
+  log.info(authentication.toString());
+  // Nur ID und Benutzername laden, die ID kommt bei Token-Logins direkt aus dem Principal
+  UserDto user = authentication.getPrincipal() instanceof AuthenticatedUser principal
+      ? userService.findSummaryById(principal.getId())
+      : userService.findSummaryByEmail(authentication.getName());
   if (user == null) {
     dto.put("id", 0);
     dto.put("username", "unknown");
     return dto;
   }
   dto.put("id", user.getId());
-  dto.put("username", user.getUsername());
+  dto.put("username", user.getName());
   return dto;
 }
 
@@ -74,9 +121,19 @@ public Map<String, Object> me(Authentication authentication) {
    * Gibt einen Benutzer anhand der ID zurück.
    */
   @GetMapping("/{id}")
-  public ResponseEntity<User> getUser(@PathVariable Long id) {
-    User user = userService.findById(id);
-    return ResponseEntity.ok(user);
+  public ResponseEntity<UserReadDto> getUser(@PathVariable Long id) {
+    return ResponseEntity.ok(userService.findReadDtoById(id));
+  }
+
+  /**
+   * Gibt die abgeschlossenen Duelle eines Benutzers zurück, das zuletzt beendete zuerst
+   * (Keyset-Paginierung über Endzeitpunkt und Eintrags-ID).
+   */
+  @GetMapping("/{id}/duels")
+  public ResponseEntity<CursorPage<PlayerDuelDto>> getDuels(@PathVariable Long id,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Integer limit) {
+    return ResponseEntity.ok(duelService.findDuelsOfPlayer(id, after, limit));
   }
 
   /**
@@ -0,0 +1,11 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+
+/**
+ * Antwort eines Spielers auf eine Runde.
+ *
+ * @param attributeIds IDs der Attribute, die der Spieler gewählt hat
+ */
+public record AnswerRequest(List<Long> attributeIds) {
+}
@@ -0,0 +1,23 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+
+/**
+ * Ergebnis einer abgegebenen Antwort.
+ *
+ * @param round Runde, auf die sich die Antwort bezieht
+ * @param accepted false, wenn die Runde schon vorbei war oder bereits geantwortet wurde
+ * @param points Punkte für diese Antwort
+ * @param totalScore Gesamtpunkte des Spielers im Duell
+ * @param currentRound Runde, die jetzt läuft
+ * @param status Status des Duells nach der Antwort
+ */
+public record AnswerResult(
+    int round,
+    boolean accepted,
+    int points,
+    int totalScore,
+    int currentRound,
+    DuelStatus status
+) {
+}
@@ -0,0 +1,17 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Lesemodell eines Attributs für REST-Antworten. Der sperrende Benutzer wird nur als ID geliefert.
+ *
+ * @param id ID des Attributs
+ * @param imageUrl URL des Bildes
+ * @param description Beschreibung
+ * @param lockedById ID des sperrenden Benutzers oder null
+ */
+public record AttributeReadDto(
+    Long id,
+    String imageUrl,
+    String description,
+    Long lockedById
+) {
+}
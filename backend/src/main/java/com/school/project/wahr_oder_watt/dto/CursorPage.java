@@ -0,0 +1,32 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Eine Seite einer Liste mit Keyset-Paginierung über die ID.
+ *
+ * @param items die Einträge dieser Seite, aufsteigend nach ID
+ * @param next Cursor für die nächste Seite (als {@code after} übergeben) oder null, wenn dies die
+ *     letzte Seite ist
+ * @param <T> Typ der Einträge
+ */
+public record CursorPage<T>(List<T> items, Long next) {
+
+  /**
+   * Baut eine Seite aus einem Abfrageergebnis, das mit {@code limit + 1} Einträgen geladen wurde.
+   * Der zusätzliche Eintrag zeigt nur an, dass es eine weitere Seite gibt.
+   *
+   * @param fetched die geladenen Einträge (höchstens limit + 1)
+   * @param limit die Seitengröße
+   * @param idOf liefert die ID eines Eintrags
+   * @return die Seite
+   */
+  public static <T> CursorPage<T> of(List<T> fetched, int limit, Function<T, Long> idOf) {
+    if (fetched.size() <= limit) {
+      return new CursorPage<>(fetched, null);
+    }
+    List<T> items = fetched.subList(0, limit);
+    return new CursorPage<>(items, idOf.apply(items.get(limit - 1)));
+  }
+}
@@ -0,0 +1,20 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+
+/**
+ * Mehrere Speedrun-Antworten eines Spielers, gesammelt abgeschickt.
+ *
+ * @param answers die Antworten in Spielreihenfolge
+ */
+public record DeckAnswerRequest(List<Answer> answers) {
+
+  /**
+   * Antwort auf eine Karte.
+   *
+   * @param round Nummer der Karte, siehe {@link SpeedrunCard#round()}
+   * @param attributeIds IDs der Attribute, die der Spieler gewählt hat
+   */
+  public record Answer(int round, List<Long> attributeIds) {
+  }
+}
@@ -0,0 +1,20 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import java.util.List;
+
+/**
+ * Ergebnis einer gesammelt abgeschickten Speedrun-Antwort.
+ *
+ * @param results Ergebnis je Antwort in der Reihenfolge der Anfrage
+ * @param totalScore Gesamtpunkte des Spielers im Duell
+ * @param status Status des Duells nach den Antworten
+ * @param refill weitere Karten, falls dem Spieler die ausgeteilten ausgehen, sonst leer
+ */
+public record DeckAnswerResult(
+    List<AnswerResult> results,
+    int totalScore,
+    DuelStatus status,
+    List<SpeedrunCard> refill
+) {
+}
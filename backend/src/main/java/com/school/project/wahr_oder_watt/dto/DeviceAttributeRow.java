@@ -0,0 +1,16 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Zeile aus der Tabelle device_attributes mit den Attributdaten, zum Zusammenbauen von
+ * {@link DeviceReadDto}.
+ *
+ * @param deviceId ID des Geräts
+ * @param attribute das zugeordnete Attribut
+ */
+public record DeviceAttributeRow(Long deviceId, AttributeReadDto attribute) {
+
+  public DeviceAttributeRow(Long deviceId, Long id, String imageUrl, String description,
+      Long lockedById) {
+    this(deviceId, new AttributeReadDto(id, imageUrl, description, lockedById));
+  }
+}
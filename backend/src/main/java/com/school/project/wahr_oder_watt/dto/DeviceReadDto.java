@@ -0,0 +1,32 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+
+/**
+ * Lesemodell eines Geräts mit seinen Attributen für REST-Antworten.
+ *
+ * @param id ID des Geräts
+ * @param imageUrl URL des Bildes
+ * @param active ob das Gerät für Duelle ausgewählt werden kann
+ * @param description Beschreibung
+ * @param attributes die zugeordneten Attribute
+ */
+public record DeviceReadDto(
+    Long id,
+    String imageUrl,
+    boolean active,
+    String description,
+    List<AttributeReadDto> attributes
+) {
+
+  /**
+   * Konstruktor für JPQL-Konstruktorausdrücke, die Attribute werden separat geladen.
+   */
+  public DeviceReadDto(Long id, String imageUrl, boolean active, String description) {
+    this(id, imageUrl, active, description, List.of());
+  }
+
+  public DeviceReadDto withAttributes(List<AttributeReadDto> attributes) {
+    return new DeviceReadDto(id, imageUrl, active, description, attributes);
+  }
+}
@@ -0,0 +1,14 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Spieler eines Duells, zum Zusammenbauen von {@link DuelReadDto}.
+ *
+ * @param duelId ID des Duells
+ * @param player ID und Name des Spielers
+ */
+public record DuelPlayerRow(Long duelId, UserDto player) {
+
+  public DuelPlayerRow(Long duelId, Long userId, String username) {
+    this(duelId, new UserDto(userId, username));
+  }
+}
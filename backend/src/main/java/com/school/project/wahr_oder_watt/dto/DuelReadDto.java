@@ -0,0 +1,38 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Lesemodell eines Duells für REST-Antworten. Spieler und Runden sind flache DTOs, damit keine
+ * Entity-Graphen serialisiert werden.
+ *
+ * @param id ID des Duells
+ * @param mode Spielmodus
+ * @param status Status
+ * @param playtime Spielzeit
+ * @param players die Spieler (ID und Name)
+ * @param rounds die Runden, aufsteigend nach Rundennummer
+ */
+public record DuelReadDto(
+    Long id,
+    DuelMode mode,
+    DuelStatus status,
+    Date playtime,
+    List<UserDto> players,
+    List<DuelRoundReadDto> rounds
+) {
+
+  /**
+   * Konstruktor für JPQL-Konstruktorausdrücke, Spieler und Runden werden separat geladen.
+   */
+  public DuelReadDto(Long id, DuelMode mode, DuelStatus status, Date playtime) {
+    this(id, mode, status, playtime, List.of(), List.of());
+  }
+
+  public DuelReadDto with(List<UserDto> players, List<DuelRoundReadDto> rounds) {
+    return new DuelReadDto(id, mode, status, playtime, players, rounds);
+  }
+}
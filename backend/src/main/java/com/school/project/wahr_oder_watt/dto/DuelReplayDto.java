@@ -0,0 +1,36 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import java.util.List;
+
+/**
+ * Aus dem Ereignisprotokoll wiederhergestellter Stand eines Duells.
+ *
+ * @param id ID des Duells
+ * @param mode Modus des Duells
+ * @param status Status nach dem letzten Ereignis
+ * @param roundNumber zuletzt begonnene Runde
+ * @param rounds abgeschlossene Runden in ihrer Reihenfolge
+ * @param players Punkte der Spieler
+ * @param events Anzahl der ausgewerteten Ereignisse
+ */
+public record DuelReplayDto(
+    Long id,
+    DuelMode mode,
+    DuelStatus status,
+    int roundNumber,
+    List<Round> rounds,
+    List<DuelStateDto.PlayerState> players,
+    int events
+) {
+
+  /**
+   * Eine abgeschlossene Runde.
+   *
+   * @param roundNumber Nummer der Runde
+   * @param deviceId Gerät der Runde
+   */
+  public record Round(int roundNumber, Long deviceId) {
+  }
+}
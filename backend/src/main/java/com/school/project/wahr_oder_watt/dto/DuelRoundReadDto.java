@@ -0,0 +1,15 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Lesemodell einer Duellrunde für REST-Antworten. Das Gerät wird nur als ID geliefert.
+ *
+ * @param id ID der Runde
+ * @param roundNumber Nummer der Runde im Duell
+ * @param deviceId ID des Geräts der Runde oder null
+ */
+public record DuelRoundReadDto(
+    Long id,
+    int roundNumber,
+    Long deviceId
+) {
+}
@@ -0,0 +1,14 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Runde eines Duells, zum Zusammenbauen von {@link DuelReadDto}.
+ *
+ * @param duelId ID des Duells
+ * @param round die Runde
+ */
+public record DuelRoundRow(Long duelId, DuelRoundReadDto round) {
+
+  public DuelRoundRow(Long duelId, Long roundId, int roundNumber, Long deviceId) {
+    this(duelId, new DuelRoundReadDto(roundId, roundNumber, deviceId));
+  }
+}
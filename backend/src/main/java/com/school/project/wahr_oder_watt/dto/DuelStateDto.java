@@ -0,0 +1,40 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import java.util.List;
+
+/**
+ * Aktueller Stand eines laufenden Duells aus dem Speicher des Servers.
+ *
+ * @param id ID des Duells
+ * @param mode Modus des Duells
+ * @param status Status des Duells
+ * @param roundNumber laufende Runde
+ * @param deviceId Gerät der laufenden Runde oder null, wenn das Duell beendet ist
+ * @param options Antwortmöglichkeiten der laufenden Runde
+ * @param deadline Zeitpunkt in Epoch-Millisekunden, zu dem der Server die laufende Runde (bzw. im
+ *     Speedrun das Duell) beendet, oder null, wenn das Duell beendet ist
+ * @param players Stand der Spieler
+ */
+public record DuelStateDto(
+    Long id,
+    DuelMode mode,
+    DuelStatus status,
+    int roundNumber,
+    Long deviceId,
+    List<AttributeReadDto> options,
+    Long deadline,
+    List<PlayerState> players
+) {
+
+  /**
+   * Stand eines Spielers im Duell.
+   *
+   * @param userId ID des Spielers
+   * @param score Punkte im Duell
+   * @param answered ob der Spieler die laufende Runde schon beantwortet hat
+   */
+  public record PlayerState(Long userId, int score, boolean answered) {
+  }
+}
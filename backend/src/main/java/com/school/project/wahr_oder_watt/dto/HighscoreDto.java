@@ -1,9 +0,0 @@
-package com.school.project.wahr_oder_watt.dto;
-
-import lombok.Value;
-
-@Value
-public class HighscoreDto {
-    String username;
-    int score;
-}
\ No newline at end of file
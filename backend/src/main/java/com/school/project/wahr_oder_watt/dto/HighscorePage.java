@@ -0,0 +1,21 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+
+/**
+ * Eine Seite der Rangliste.
+ *
+ * @param items die Einträge dieser Seite, bester zuerst
+ * @param offset Position des ersten Eintrags, beginnend bei 0
+ * @param total Anzahl aller Einträge der Rangliste
+ * @param next {@code offset} der nächsten Seite oder null, wenn dies die letzte Seite ist
+ * @param version Stand der Rangliste, aus dem die Seite gebaut wurde
+ */
+public record HighscorePage(
+    List<RankedHighscoreDto> items,
+    int offset,
+    int total,
+    Integer next,
+    long version
+) {
+}
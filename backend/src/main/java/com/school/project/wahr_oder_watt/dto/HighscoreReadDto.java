@@ -0,0 +1,17 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Lesemodell eines einzelnen Highscore-Eintrags für REST-Antworten.
+ *
+ * @param id ID des Eintrags
+ * @param playerId ID des Benutzers oder null
+ * @param username Benutzername oder "Unbekannt"
+ * @param score erreichte Punktzahl
+ */
+public record HighscoreReadDto(
+    Long id,
+    Long playerId,
+    String username,
+    int score
+) {
+}
@@ -0,0 +1,32 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+
+/**
+ * Stand der Gegnersuche eines Spielers.
+ *
+ * @param state IDLE (sucht nicht), WAITING (wartet auf einen Gegner) oder MATCHED (im Duell)
+ * @param mode Modus, in dem gesucht wird, oder null
+ * @param duelId ID des Duells bei MATCHED, sonst null
+ */
+public record MatchmakingStatus(State state, DuelMode mode, Long duelId) {
+
+  /**
+   * Zustand der Gegnersuche.
+   */
+  public enum State {
+    IDLE, WAITING, MATCHED
+  }
+
+  public static MatchmakingStatus idle() {
+    return new MatchmakingStatus(State.IDLE, null, null);
+  }
+
+  public static MatchmakingStatus waiting(DuelMode mode) {
+    return new MatchmakingStatus(State.WAITING, mode, null);
+  }
+
+  public static MatchmakingStatus matched(Long duelId) {
+    return new MatchmakingStatus(State.MATCHED, null, duelId);
+  }
+}
@@ -0,0 +1,27 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import java.time.Instant;
+
+/**
+ * Ein Eintrag der Duell-Historie eines Spielers.
+ *
+ * @param id ID des Eintrags, dient als Cursor für die nächste Seite
+ * @param duelId ID des Duells
+ * @param mode Spielmodus
+ * @param status Endstatus (FINISHED oder EXPIRED)
+ * @param score Punkte des Spielers in diesem Duell
+ * @param opponentId ID des Gegners oder null
+ * @param finishedAt Zeitpunkt, zu dem das Duell endete
+ */
+public record PlayerDuelDto(
+    Long id,
+    Long duelId,
+    DuelMode mode,
+    DuelStatus status,
+    int score,
+    Long opponentId,
+    Instant finishedAt
+) {
+}
@@ -0,0 +1,19 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Ein Eintrag der Rangliste mit seinem Rang. Gleich viele Punkte ergeben denselben Rang.
+ *
+ * @param rank Rang, beginnend bei 1
+ * @param id ID des Highscore-Eintrags; null in den Ranglisten für Woche und Tag
+ * @param playerId ID des Benutzers oder null
+ * @param username Benutzername oder "Unbekannt"
+ * @param score erreichte Punktzahl
+ */
+public record RankedHighscoreDto(
+    int rank,
+    Long id,
+    Long playerId,
+    String username,
+    int score
+) {
+}
@@ -0,0 +1,15 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Punkte eines Spielers in einem Zeitraum, wie sie zum Aufbau einer Rangliste geladen werden.
+ *
+ * @param userId ID des Benutzers
+ * @param username Benutzername oder null, falls der Benutzer gelöscht wurde
+ * @param score Punkte im Zeitraum
+ */
+public record ScoreBucketRow(
+    Long userId,
+    String username,
+    int score
+) {
+}
@@ -0,0 +1,21 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+
+/**
+ * Eine Karte des Speedrun-Decks: alles, was der Client zum Anzeigen einer Frage braucht.
+ *
+ * @param round Nummer der Karte im Deck, ab 1; mit ihr wird die Antwort zugeordnet
+ * @param deviceId gezeigtes Gerät
+ * @param imageUrl Bild des Geräts
+ * @param description Beschreibung des Geräts
+ * @param options Antwortmöglichkeiten in Anzeigereihenfolge, mit Bild-URLs
+ */
+public record SpeedrunCard(
+    int round,
+    Long deviceId,
+    String imageUrl,
+    String description,
+    List<AttributeReadDto> options
+) {
+}
@@ -0,0 +1,21 @@
+package com.school.project.wahr_oder_watt.dto;
+
+import java.util.List;
+
+/**
+ * Die nächsten Karten eines Spielers im Speedrun.
+ *
+ * @param duelId ID des Duells
+ * @param total Anzahl der Karten im ganzen Deck
+ * @param answered Anzahl der Karten, die der Spieler schon beantwortet hat
+ * @param deadline Zeitpunkt in Epoch-Millisekunden, zu dem der Server das Duell beendet
+ * @param cards die nächsten Karten in Spielreihenfolge
+ */
+public record SpeedrunDeckDto(
+    Long duelId,
+    int total,
+    int answered,
+    Long deadline,
+    List<SpeedrunCard> cards
+) {
+}
@@ -0,0 +1,22 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Projektion der Anmeldedaten eines Benutzers. Enthält nur die Spalten, die für die
+ * Authentifizierung gebraucht werden.
+ *
+ * @param id ID des Benutzers
+ * @param username Benutzername
+ * @param email E-Mail-Adresse
+ * @param password Passwort-Hash
+ * @param admin ob der Benutzer Administratorrechte hat
+ * @param enabled ob der Account aktiviert ist
+ */
+public record UserCredentials(
+    Long id,
+    String username,
+    String email,
+    String password,
+    boolean admin,
+    boolean enabled
+) {
+}
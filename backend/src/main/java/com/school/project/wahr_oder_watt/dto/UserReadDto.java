@@ -0,0 +1,23 @@
+package com.school.project.wahr_oder_watt.dto;
+
+/**
+ * Lesemodell eines Benutzers für REST-Antworten. Enthält statt des Duells nur dessen ID.
+ *
+ * @param id ID des Benutzers
+ * @param username Benutzername
+ * @param email E-Mail-Adresse
+ * @param admin ob der Benutzer Administratorrechte hat
+ * @param enabled ob der Account aktiviert ist
+ * @param score Punktzahl
+ * @param duelId ID des aktuellen Duells oder null
+ */
+public record UserReadDto(
+    Long id,
+    String username,
+    String email,
+    boolean admin,
+    boolean enabled,
+    int score,
+    Long duelId
+) {
+}
@@ -1,8 +1,6 @@
 package com.school.project.wahr_oder_watt.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -25,7 +23,7 @@ public class Attribute {
    * id ist der eindeutige Bezeichner für jedes Attribut.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @TimeOrderedId
   private Long id;
 
   /**
@@ -1,8 +1,6 @@
 package com.school.project.wahr_oder_watt.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
@@ -28,7 +26,7 @@ public class Device {
    * id ist der eindeutige Bezeichner für jedes Gerät.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @TimeOrderedId
   private Long id;
 
   /**
@@ -1,21 +1,23 @@
 package com.school.project.wahr_oder_watt.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.validation.constraints.Size;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Die Klasse Duel repräsentiert ein Duell zwischen zwei Spielern.
@@ -23,13 +25,14 @@ import jakarta.persistence.Table;
  */
 @Entity
 @Table(name = "duel")
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Duel {
   /**
    * id ist der eindeutige Bezeichner für jedes Duell.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @TimeOrderedId
   private Long id;
 
   /**
@@ -62,4 +65,22 @@ public class Duel {
    * playtime gibt die Zeit an, wie lange das Duell verläuft.
    */
   private Date playtime;
+
+  /**
+   * createdAt ist der Zeitpunkt, zu dem das Duell angelegt wurde.
+   */
+  @CreationTimestamp
+  private Instant createdAt;
+
+  /**
+   * finishedAt ist der Zeitpunkt, zu dem das Duell beendet oder abgebrochen wurde.
+   */
+  private Instant finishedAt;
+
+  /**
+   * version wird bei jeder Änderung erhöht. Wer mit einem veralteten Stand speichert, erhält einen
+   * Konflikt, statt eine zwischenzeitliche Änderung zu überschreiben.
+   */
+  @Version
+  private Long version;
 }
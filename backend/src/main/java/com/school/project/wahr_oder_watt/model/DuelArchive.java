@@ -0,0 +1,80 @@
+package com.school.project.wahr_oder_watt.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Die Klasse DuelArchive ist die kompakte Zusammenfassung eines abgeschlossenen Duells.
+ * Beendete Duelle werden nach einer Weile aus den Tabellen duel und duel_round hierher verschoben;
+ * der genaue Verlauf bleibt im Ereignisprotokoll (duel_event) erhalten.
+ */
+@Entity
+@Table(name = "duel_archive")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class DuelArchive implements Persistable<Long> {
+
+  /**
+   * id ist die ID des ursprünglichen Duells.
+   */
+  @Id
+  private Long id;
+
+  /**
+   * mode gibt den Modus des Duells an.
+   */
+  @Enumerated(EnumType.STRING)
+  private DuelMode mode;
+
+  /**
+   * status ist der Endstatus des Duells (FINISHED oder EXPIRED).
+   */
+  @Enumerated(EnumType.STRING)
+  private DuelStatus status;
+
+  /**
+   * createdAt ist der Zeitpunkt, zu dem das Duell angelegt wurde.
+   */
+  private Instant createdAt;
+
+  /**
+   * finishedAt ist der Zeitpunkt, zu dem das Duell beendet wurde.
+   */
+  private Instant finishedAt;
+
+  /**
+   * roundCount ist die Anzahl der gespielten Runden.
+   */
+  private int roundCount;
+
+  /**
+   * deviceIds sind die Geräte der Runden in ihrer Reihenfolge, durch Komma getrennt.
+   */
+  @Column(length = 2048)
+  private String deviceIds;
+
+  /**
+   * archivedAt ist der Zeitpunkt der Archivierung.
+   */
+  private Instant archivedAt;
+
+  /**
+   * Archiveinträge werden nur eingefügt, nie geändert; so spart {@code saveAll} die Abfrage, ob
+   * der Eintrag schon existiert.
+   */
+  @Override
+  @Transient
+  public boolean isNew() {
+    return true;
+  }
+}
@@ -0,0 +1,88 @@
+package com.school.project.wahr_oder_watt.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Die Klasse DuelEvent ist ein Eintrag im Ereignisprotokoll eines Duells.
+ * Einträge werden nur angehängt und nie geändert; aus ihnen lässt sich der Verlauf eines Duells
+ * jederzeit wiederherstellen. Geschrieben wird gesammelt per JDBC-Batch, die Entity legt nur die
+ * Tabelle an.
+ */
+@Entity
+@Table(name = "duel_event",
+    indexes = @Index(name = "ux_duel_event_duel_seq", columnList = "duel_id, seq", unique = true))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class DuelEvent {
+
+  /**
+   * id ist der eindeutige Bezeichner für jeden Eintrag.
+   */
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  /**
+   * duelId ist die ID des Duells; bewusst ohne Fremdschlüssel, damit das Protokoll das Duell
+   * überdauert.
+   */
+  @Column(name = "duel_id", nullable = false)
+  private Long duelId;
+
+  /**
+   * seq ist die fortlaufende Nummer des Eintrags innerhalb des Duells.
+   */
+  @Column(nullable = false)
+  private int seq;
+
+  /**
+   * type gibt die Art des Eintrags an.
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 32)
+  private DuelEventType type;
+
+  /**
+   * userId ist der betroffene Spieler, falls der Eintrag einen betrifft.
+   */
+  private Long userId;
+
+  /**
+   * roundNumber ist die betroffene Runde, falls der Eintrag eine betrifft.
+   */
+  private Integer roundNumber;
+
+  /**
+   * deviceId ist das Gerät der Runde bei ROUND_STARTED und ROUND_SCORED.
+   */
+  private Long deviceId;
+
+  /**
+   * points sind die vergebenen Punkte bei ANSWER_SUBMITTED.
+   */
+  private Integer points;
+
+  /**
+   * payload enthält zusätzliche Daten als Text, z.B. den Modus oder die gewählten Attribute.
+   */
+  @Column(length = 1024)
+  private String payload;
+
+  /**
+   * createdAt ist der Zeitpunkt des Ereignisses.
+   */
+  @Column(nullable = false)
+  private Instant createdAt;
+}
@@ -0,0 +1,14 @@
+package com.school.project.wahr_oder_watt.model;
+
+/**
+ * Enum repräsentiert die Art eines Eintrags im Ereignisprotokoll eines Duells.
+ * DUEL_CREATED: Das Duell wurde gestartet (Nutzdaten: Modus)
+ * PLAYER_JOINED: Ein Spieler nimmt am Duell teil
+ * ROUND_STARTED: Eine Runde mit ihrem Gerät hat begonnen
+ * ANSWER_SUBMITTED: Ein Spieler hat geantwortet (Nutzdaten: gewählte Attribut-IDs)
+ * ROUND_SCORED: Eine Runde wurde abgeschlossen
+ * DUEL_FINISHED: Das Duell ist beendet
+ */
+public enum DuelEventType {
+  DUEL_CREATED, PLAYER_JOINED, ROUND_STARTED, ANSWER_SUBMITTED, ROUND_SCORED, DUEL_FINISHED
+}
@@ -0,0 +1,73 @@
+package com.school.project.wahr_oder_watt.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Die Klasse DuelPlayer hält fest, dass ein Spieler an einem Duell teilgenommen hat.
+ * Pro Spieler und abgeschlossenem Duell gibt es einen Eintrag; er trägt alles, was die
+ * Duell-Historie eines Spielers anzeigt, damit dafür weder duel noch user gelesen werden müssen.
+ */
+@Entity
+@Table(name = "duel_player")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class DuelPlayer {
+
+  /**
+   * id ist der eindeutige Bezeichner des Eintrags und zweiter Sortierschlüssel der Historie.
+   */
+  @Id
+  @TimeOrderedId
+  private Long id;
+
+  /**
+   * duelId ist die ID des Duells, auch nachdem es archiviert wurde.
+   */
+  @Column(nullable = false)
+  private Long duelId;
+
+  /**
+   * userId ist die ID des Spielers.
+   */
+  @Column(nullable = false)
+  private Long userId;
+
+  /**
+   * opponentId ist die ID des Gegners, falls bekannt.
+   */
+  private Long opponentId;
+
+  /**
+   * mode gibt den Modus des Duells an.
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 32)
+  private DuelMode mode;
+
+  /**
+   * status ist der Endstatus des Duells (FINISHED oder EXPIRED).
+   */
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 32)
+  private DuelStatus status;
+
+  /**
+   * score sind die Punkte, die der Spieler in diesem Duell erzielt hat.
+   */
+  private int score;
+
+  /**
+   * finishedAt ist der Zeitpunkt, zu dem das Duell beendet oder abgebrochen wurde.
+   */
+  @Column(nullable = false)
+  private Instant finishedAt;
+}
@@ -1,8 +1,6 @@
 package com.school.project.wahr_oder_watt.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -11,6 +9,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 /**
  * Die Klasse DuelRound repräsentiert eine Runde in einem Duell.
@@ -26,7 +25,7 @@ public class DuelRound {
    * id ist der eindeutige Bezeichner für jede Runde.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @TimeOrderedId
   private Long id;
 
   /**
@@ -41,4 +40,13 @@ public class DuelRound {
    */
   private int roundNumber;
 
+  /**
+   * version wird bei jeder Änderung erhöht und schützt vor verlorenen Updates.
+   */
+  @Version
+  private Long version;
+
+  public DuelRound(Long id, Device device, int roundNumber) {
+    this(id, device, roundNumber, null);
+  }
 }
@@ -2,11 +2,12 @@ package com.school.project.wahr_oder_watt.model;
 
 /**
  * Enum repräsentiert den Status eines Duells.
- * Es gibt drei Stati:
+ * Es gibt vier Stati:
  * WAITING: Das Duell ist noch nicht gestartet
  * RUNNING: Das Duell läuft gerade
  * FINISHED: Das Duell ist beendet
+ * EXPIRED: Das Duell wurde abgebrochen, weil es zu lange nicht beendet wurde
  */
 public enum DuelStatus {
-  WAITING, RUNNING, FINISHED
+  WAITING, RUNNING, FINISHED, EXPIRED
 }
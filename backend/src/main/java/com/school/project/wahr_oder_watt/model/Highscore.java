@@ -1,8 +1,6 @@
 package com.school.project.wahr_oder_watt.model;
 
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
@@ -14,12 +12,14 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Die Klasse Highscore repräsentiert einen Highscore-Eintrag in der Datenbank.
  * Jeder Eintrag enthält eine eindeutige ID, einen Verweis auf den Benutzer (User) und die erreichte Punktzahl (score).
  */
 @Entity
+@DynamicUpdate
 @Table(name = "highscore")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Highscore {
@@ -27,7 +27,7 @@ public class Highscore {
    * id ist der eindeutige Bezeichner für jeden Highscore-Eintrag.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @TimeOrderedId
   private Long id;
 
   /**
@@ -38,7 +38,8 @@ public class Highscore {
   private User player;
 
   /**
-   * score ist die erreichte Punktzahl des Benutzers.
+   * score ist die erreichte Punktzahl des Benutzers. Änderungen laufen als Zuwachs, siehe
+   * ScoreAccumulator.
    */
   private int score;
 }
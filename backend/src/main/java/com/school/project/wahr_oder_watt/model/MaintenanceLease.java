@@ -0,0 +1,41 @@
+package com.school.project.wahr_oder_watt.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Die Klasse MaintenanceLease ist eine zeitlich begrenzte Sperre für Wartungsaufgaben.
+ * Nur der Knoten, der die Sperre hält, führt die Aufgabe aus; läuft sie ab, kann ein anderer
+ * Knoten übernehmen.
+ */
+@Entity
+@Table(name = "maintenance_lease")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor
+public class MaintenanceLease {
+
+  /**
+   * name ist der Name der Wartungsaufgabe.
+   */
+  @Id
+  @Column(length = 64)
+  private String name;
+
+  /**
+   * owner kennzeichnet den Knoten, der die Sperre hält.
+   */
+  @Column(length = 64, nullable = false)
+  private String owner;
+
+  /**
+   * expiresAt ist der Zeitpunkt, zu dem die Sperre abläuft.
+   */
+  @Column(nullable = false)
+  private Instant expiresAt;
+}
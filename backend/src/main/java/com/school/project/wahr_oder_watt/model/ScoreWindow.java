@@ -0,0 +1,29 @@
+package com.school.project.wahr_oder_watt.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Zeitfenster einer Rangliste.
+ * ALL_TIME: alle Punkte seit Beginn, aus den Highscores.
+ * WEEK: Punkte aus Duellen der laufenden Woche, Montag bis Sonntag.
+ * DAY: Punkte aus Duellen des laufenden Tages.
+ */
+public enum ScoreWindow {
+  ALL_TIME,
+  WEEK,
+  DAY;
+
+  /**
+   * @param day ein Kalendertag.
+   * @return erster Tag des Zeitraums, in den der Tag fällt; null für ALL_TIME.
+   */
+  public LocalDate periodStart(LocalDate day) {
+    return switch (this) {
+      case ALL_TIME -> null;
+      case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case DAY -> day;
+    };
+  }
+}
@@ -0,0 +1,19 @@
+package com.school.project.wahr_oder_watt.model;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Markiert eine ID, die beim Einfügen von {@link TimeOrderedIdGenerator} in der Anwendung vergeben
+ * wird, ohne Rückfrage bei der Datenbank.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,91 @@
+package com.school.project.wahr_oder_watt.model;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Vergibt zeitlich aufsteigende IDs in der Anwendung.
+ *
+ * <p>Eine ID besteht aus den Millisekunden seit {@link #EPOCH} (obere 41 Bit), der Knotennummer
+ * (4 Bit) und einem Zähler (untere 8 Bit). Mit 53 Bit bleibt sie bis etwa 2094 in JavaScript exakt
+ * darstellbar. Jede laufende Instanz braucht eine eigene Knotennummer ({@code app.ids.node}, siehe
+ * {@link #useNode(int)}), sonst können zwei Instanzen in derselben Millisekunde dieselbe ID
+ * vergeben. Da Hibernate die ID schon vor dem INSERT kennt, können Einfügungen per JDBC-Batch
+ * gebündelt werden; bei IDENTITY ginge das nicht. Die IDs eines Knotens steigen streng monoton,
+ * auch wenn mehr als 256 pro Millisekunde angefordert werden oder die Uhr zurückspringt, und liegen
+ * stets über den alten, von der Datenbank vergebenen IDs.
+ */
+public class TimeOrderedIdGenerator implements BeforeExecutionGenerator {
+
+  /** Bezugszeitpunkt der Zeitstempel. */
+  static final long EPOCH = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+
+  /** Anzahl der Bits für die Knotennummer. */
+  static final int NODE_BITS = 4;
+
+  /** Anzahl der Bits für den Zähler innerhalb einer Millisekunde. */
+  static final int COUNTER_BITS = 8;
+
+  /** Höchste zulässige Knotennummer. */
+  public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+  private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+
+  /** Gemeinsamer Stand für {@link #nextId()}; alle Entitäten ziehen aus derselben Folge. */
+  private static final TimeOrderedIdGenerator SHARED = new TimeOrderedIdGenerator();
+
+  private static volatile int node;
+
+  /** Zuletzt vergebener Stand aus Millisekunden und Zähler, ohne Knotennummer. */
+  private final AtomicLong last = new AtomicLong();
+
+  /**
+   * Legt die Knotennummer dieser Instanz fest. Muss vor der ersten ID gesetzt werden.
+   *
+   * @param node Nummer zwischen 0 und {@link #MAX_NODE}, je Instanz verschieden.
+   */
+  public static void useNode(int node) {
+    if (node < 0 || node > MAX_NODE) {
+      throw new IllegalArgumentException(
+          "Knotennummer muss zwischen 0 und " + MAX_NODE + " liegen: " + node);
+    }
+    TimeOrderedIdGenerator.node = node;
+  }
+
+  /**
+   * @return eine neue, eindeutige ID.
+   */
+  public static long nextId() {
+    return SHARED.next(System.currentTimeMillis(), node);
+  }
+
+  /**
+   * Vergibt eine ID aus dem Stand dieser Instanz. Nur {@link #nextId()} nutzt den gemeinsamen
+   * Stand; eigene Instanzen, etwa in Tests, verschieben ihn nicht.
+   */
+  long next(long nowMs, int node) {
+    long candidate = (nowMs - EPOCH) << COUNTER_BITS;
+    // ein übergelaufener Zähler rückt in die nächste Millisekunde, nie in die Knotennummer
+    long current = last.accumulateAndGet(candidate, (prev, now) -> Math.max(prev + 1, now));
+    return (current >>> COUNTER_BITS) << (NODE_BITS + COUNTER_BITS)
+        | (long) node << COUNTER_BITS
+        | current & COUNTER_MASK;
+  }
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object owner,
+      Object currentValue, EventType eventType) {
+    // Hibernate legt je Entität eine Instanz an; die IDs kommen trotzdem aus der gemeinsamen Folge
+    return nextId();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
@@ -3,8 +3,7 @@ package com.school.project.wahr_oder_watt.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
@@ -14,6 +13,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import jakarta.persistence.Table;
+import org.hibernate.annotations.DynamicUpdate;
 
 /**
  * Die Klasse User repräsentiert einen Benutzer in der Datenbank. Jeder Benutzer hat eine eindeutige
@@ -22,6 +22,7 @@ import jakarta.persistence.Table;
  */
 @Builder
 @Entity
+@DynamicUpdate
 @Table(name = "user")
 @Getter
 @Setter
@@ -33,7 +34,7 @@ public class User {
    * id ist der eindeutige Bezeichner für jeden Benutzer.
    */
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @TimeOrderedId
   private Long id;
 
   /**
@@ -70,14 +71,15 @@ public class User {
 
   /**
    * Das aktuelle Duell, an dem der Benutzer teilnimmt. Ein Benutzer kann nur an einem aktiven Duell
-   * teilnehmen.
+   * teilnehmen. Wird nur bei Bedarf geladen (siehe UserRepository#findWithDuelById).
    */
-  @ManyToOne
+  @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "duel_id")
   private Duel duel;
 
   /**
-   * Die Punktzahl des Benutzers.
+   * Die Punktzahl des Benutzers. Änderungen laufen als Zuwachs über den ScoreAccumulator; dank
+   * {@link DynamicUpdate} schreibt das Speichern anderer Felder die Punkte nicht zurück.
    */
   private int score;
 }
@@ -1,10 +1,25 @@
 package com.school.project.wahr_oder_watt.repository;
 
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
 import com.school.project.wahr_oder_watt.model.Attribute;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Repository interface for managing Attribute entities.
  */
 public interface AttributeRepository extends JpaRepository<Attribute, Long> {
+
+  /**
+   * Loads all attributes, used to build the catalog snapshot.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.AttributeReadDto(
+            a.id, a.imageUrl, a.description, a.lockedBy.id
+        )
+        from Attribute a
+        order by a.id
+        """)
+  List<AttributeReadDto> findAllReadDtos();
 }
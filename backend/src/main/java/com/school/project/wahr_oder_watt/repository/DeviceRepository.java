@@ -1,10 +1,39 @@
 package com.school.project.wahr_oder_watt.repository;
 
+import com.school.project.wahr_oder_watt.dto.DeviceAttributeRow;
+import com.school.project.wahr_oder_watt.dto.DeviceReadDto;
 import com.school.project.wahr_oder_watt.model.Device;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Repository interface for managing Device entities.
  */
 public interface DeviceRepository extends JpaRepository<Device, Long> {
+
+  /**
+   * Loads all devices without attributes, used to build the catalog snapshot.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DeviceReadDto(
+            d.id, d.imageUrl, d.isActive, d.description
+        )
+        from Device d
+        order by d.id
+        """)
+  List<DeviceReadDto> findAllReadDtos();
+
+  /**
+   * Loads the whole device_attributes join table with the attribute data.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DeviceAttributeRow(
+            d.id, a.id, a.imageUrl, a.description, a.lockedBy.id
+        )
+        from Device d
+        join d.attributes a
+        order by d.id, a.id
+        """)
+  List<DeviceAttributeRow> findAllAttributeRows();
 }
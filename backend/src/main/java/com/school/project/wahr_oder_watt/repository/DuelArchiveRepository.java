@@ -0,0 +1,10 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import com.school.project.wahr_oder_watt.model.DuelArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for managing DuelArchive entities.
+ */
+public interface DuelArchiveRepository extends JpaRepository<DuelArchive, Long> {
+}
@@ -0,0 +1,78 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import com.school.project.wahr_oder_watt.model.DuelEvent;
+import com.school.project.wahr_oder_watt.model.DuelEventType;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Append-only access to the duel event log. Inserts bypass the persistence context and go out
+ * as a single JDBC batch; events are never updated.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DuelEventRepository {
+
+  private static final String INSERT = """
+      insert into duel_event
+          (duel_id, seq, type, user_id, round_number, device_id, points, payload, created_at)
+      values (?, ?, ?, ?, ?, ?, ?, ?, ?)
+      on conflict do nothing
+      """;
+
+  private static final String SELECT_BY_DUEL = """
+      select id, duel_id, seq, type, user_id, round_number, device_id, points, payload, created_at
+      from duel_event
+      where duel_id = ?
+      order by seq
+      """;
+
+  private static final RowMapper<DuelEvent> ROW_MAPPER = (rs, rowNum) -> new DuelEvent(
+      rs.getLong("id"),
+      rs.getLong("duel_id"),
+      rs.getInt("seq"),
+      DuelEventType.valueOf(rs.getString("type")),
+      rs.getObject("user_id", Long.class),
+      rs.getObject("round_number", Integer.class),
+      rs.getObject("device_id", Long.class),
+      rs.getObject("points", Integer.class),
+      rs.getString("payload"),
+      rs.getTimestamp("created_at").toInstant());
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Appends the given events in one JDBC batch. An event whose sequence number is already stored
+   * for its duel is skipped, so a failed batch can safely be retried.
+   *
+   * @param events events to insert, ids are assigned by the database
+   */
+  public void insertAll(List<DuelEvent> events) {
+    jdbcTemplate.batchUpdate(INSERT, events, events.size(), (ps, e) -> {
+      ps.setLong(1, e.getDuelId());
+      ps.setInt(2, e.getSeq());
+      ps.setString(3, e.getType().name());
+      ps.setObject(4, e.getUserId(), Types.BIGINT);
+      ps.setObject(5, e.getRoundNumber(), Types.INTEGER);
+      ps.setObject(6, e.getDeviceId(), Types.BIGINT);
+      ps.setObject(7, e.getPoints(), Types.INTEGER);
+      ps.setString(8, e.getPayload());
+      ps.setTimestamp(9, Timestamp.from(e.getCreatedAt()));
+    });
+  }
+
+  /**
+   * Returns all events of a duel in the order they happened.
+   *
+   * @param duelId id of the duel
+   * @return events ordered by sequence number
+   */
+  public List<DuelEvent> findByDuelId(Long duelId) {
+    return jdbcTemplate.query(SELECT_BY_DUEL, ROW_MAPPER, duelId);
+  }
+}
@@ -0,0 +1,55 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import com.school.project.wahr_oder_watt.dto.PlayerDuelDto;
+import com.school.project.wahr_oder_watt.model.DuelPlayer;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for managing DuelPlayer entities.
+ *
+ * <p>All history queries select only columns of the index (user_id, finished_at desc, id desc,
+ * ...), so a page is a single index range scan, no matter how many duels exist.
+ */
+public interface DuelPlayerRepository extends JpaRepository<DuelPlayer, Long> {
+
+  /**
+   * Returns the most recent duels of a player, newest first.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.PlayerDuelDto(
+            p.id, p.duelId, p.mode, p.status, p.score, p.opponentId, p.finishedAt
+        )
+        from DuelPlayer p
+        where p.userId = :userId
+        order by p.finishedAt desc, p.id desc
+        """)
+  List<PlayerDuelDto> findLatest(@Param("userId") Long userId, Limit limit);
+
+  /**
+   * Returns the duels of a player that come after the given entry in history order. The row
+   * comparison lets PostgreSQL start the index scan right at the cursor.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.PlayerDuelDto(
+            p.id, p.duelId, p.mode, p.status, p.score, p.opponentId, p.finishedAt
+        )
+        from DuelPlayer p
+        where p.userId = :userId
+          and (p.finishedAt, p.id) < (:finishedAt, :id)
+        order by p.finishedAt desc, p.id desc
+        """)
+  List<PlayerDuelDto> findLatestBefore(@Param("userId") Long userId,
+      @Param("finishedAt") Instant finishedAt, @Param("id") Long id, Limit limit);
+
+  /**
+   * Resolves a history cursor to its position, restricted to the player it belongs to.
+   */
+  @Query("select p.finishedAt from DuelPlayer p where p.id = :id and p.userId = :userId")
+  Optional<Instant> findFinishedAt(@Param("id") Long id, @Param("userId") Long userId);
+}
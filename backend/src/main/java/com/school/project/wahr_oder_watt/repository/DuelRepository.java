@@ -1,10 +1,111 @@
 package com.school.project.wahr_oder_watt.repository;
 
+import com.school.project.wahr_oder_watt.dto.DuelReadDto;
+import com.school.project.wahr_oder_watt.dto.DuelRoundRow;
 import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for managing Duel entities.
  */
 public interface DuelRepository extends JpaRepository<Duel, Long> {
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelReadDto(
+            d.id, d.mode, d.status, d.playtime
+        )
+        from Duel d
+        where d.id = :id
+        """)
+  Optional<DuelReadDto> findReadDtoById(@Param("id") Long id);
+
+  @Query("select d.status from Duel d where d.id = :id")
+  Optional<DuelStatus> findStatusById(@Param("id") Long id);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelReadDto(
+            d.id, d.mode, d.status, d.playtime
+        )
+        from Duel d
+        where d.id > :after
+        order by d.id
+        """)
+  List<DuelReadDto> findPageAfter(@Param("after") long after, Limit limit);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelReadDto(
+            d.id, d.mode, d.status, d.playtime
+        )
+        from Duel d
+        where d.id > :after and d.status = :status
+        order by d.id
+        """)
+  List<DuelReadDto> findPageAfterByStatus(@Param("after") long after,
+      @Param("status") DuelStatus status, Limit limit);
+
+  /**
+   * Loads the rounds of the given duels.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelRoundRow(
+            d.id, r.id, r.roundNumber, r.device.id
+        )
+        from Duel d
+        join d.rounds r
+        where d.id in :duelIds
+        order by d.id, r.roundNumber
+        """)
+  List<DuelRoundRow> findRoundsOfDuels(@Param("duelIds") Collection<Long> duelIds);
+
+  /**
+   * Finds duels in one of the given states that were created before the cutoff. Duels from
+   * before creation timestamps existed count as old.
+   */
+  @Query("""
+        select d.id
+        from Duel d
+        where d.id > :after and d.status in :statuses
+          and (d.createdAt is null or d.createdAt < :cutoff)
+        order by d.id
+        """)
+  List<Long> findIdsCreatedBefore(@Param("after") long after,
+      @Param("statuses") Collection<DuelStatus> statuses, @Param("cutoff") Instant cutoff,
+      Limit limit);
+
+  /**
+   * Finds duels in one of the given states that ended before the cutoff. Duels from before
+   * end timestamps existed count as old.
+   */
+  @Query("""
+        select d.id
+        from Duel d
+        where d.id > :after and d.status in :statuses
+          and (d.finishedAt is null or d.finishedAt < :cutoff)
+        order by d.id
+        """)
+  List<Long> findIdsFinishedBefore(@Param("after") long after,
+      @Param("statuses") Collection<DuelStatus> statuses, @Param("cutoff") Instant cutoff,
+      Limit limit);
+
+  /**
+   * Marks the given duels as expired, unless they changed state in the meantime. Bumps the
+   * version so that concurrent entity updates of these duels fail instead of overwriting it.
+   */
+  @Modifying
+  @Query("""
+        update versioned Duel d
+        set d.status = com.school.project.wahr_oder_watt.model.DuelStatus.EXPIRED,
+            d.finishedAt = :now
+        where d.id in :ids and d.status in :statuses
+        """)
+  int expire(@Param("ids") Collection<Long> ids,
+      @Param("statuses") Collection<DuelStatus> statuses, @Param("now") Instant now);
 }
@@ -1,10 +1,34 @@
 package com.school.project.wahr_oder_watt.repository;
 
+import com.school.project.wahr_oder_watt.dto.DuelRoundReadDto;
 import com.school.project.wahr_oder_watt.model.DuelRound;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository interface for managing DuelRound entities.
  */
 public interface DuelRoundRepository extends JpaRepository<DuelRound, Long> {
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelRoundReadDto(
+            r.id, r.roundNumber, r.device.id
+        )
+        from DuelRound r
+        where r.id = :id
+        """)
+  Optional<DuelRoundReadDto> findReadDtoById(@Param("id") Long id);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelRoundReadDto(
+            r.id, r.roundNumber, r.device.id
+        )
+        from DuelRound r
+        where r.id > :after
+        order by r.id
+        """)
+  List<DuelRoundReadDto> findPageAfter(@Param("after") long after, Limit limit);
 }
@@ -1,22 +1,59 @@
 package com.school.project.wahr_oder_watt.repository;
 
-import com.school.project.wahr_oder_watt.dto.HighscoreDto;
+import com.school.project.wahr_oder_watt.dto.HighscoreReadDto;
 import com.school.project.wahr_oder_watt.model.Highscore;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface HighscoreRepository extends JpaRepository<Highscore, Long> {
 
   @Query("""
-        select new com.school.project.wahr_oder_watt.dto.HighscoreDto(
+        select new com.school.project.wahr_oder_watt.dto.HighscoreReadDto(
+            h.id,
+            p.id,
             coalesce(p.username, 'Unbekannt'),
             h.score
         )
         from Highscore h
         left join h.player p
-        order by h.score desc
         """)
-  List<HighscoreDto> findAllDtoOrderByScoreDesc();
+  List<HighscoreReadDto> findAllReadDtos();
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.HighscoreReadDto(
+            h.id,
+            p.id,
+            coalesce(p.username, 'Unbekannt'),
+            h.score
+        )
+        from Highscore h
+        left join h.player p
+        where h.id = :id
+        """)
+  Optional<HighscoreReadDto> findReadDtoById(@Param("id") Long id);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.HighscoreReadDto(
+            h.id,
+            p.id,
+            coalesce(p.username, 'Unbekannt'),
+            h.score
+        )
+        from Highscore h
+        join h.player p
+        where p.id in :playerIds
+        """)
+  List<HighscoreReadDto> findReadDtosByPlayerIds(@Param("playerIds") Collection<Long> playerIds);
+
+  @Transactional
+  @Modifying
+  @Query("update Highscore h set h.score = h.score + :delta where h.id = :id")
+  int addScore(@Param("id") Long id, @Param("delta") int delta);
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import com.school.project.wahr_oder_watt.model.MaintenanceLease;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Repository interface for managing MaintenanceLease entities.
+ */
+public interface MaintenanceLeaseRepository extends JpaRepository<MaintenanceLease, String> {
+
+  /**
+   * Takes over or renews a lease in a single conditional update, so only one node can win.
+   *
+   * @return 1 if the caller now holds the lease, 0 if another node holds an unexpired lease or
+   *     the lease row does not exist yet
+   */
+  @Modifying
+  @Query("""
+        update MaintenanceLease l
+        set l.owner = :owner, l.expiresAt = :until
+        where l.name = :name and (l.owner = :owner or l.expiresAt < :now)
+        """)
+  int tryAcquire(@Param("name") String name, @Param("owner") String owner,
+      @Param("now") Instant now, @Param("until") Instant until);
+
+  /**
+   * Creates the lease row. Fails with a constraint violation if another node created it first,
+   * unlike {@code save}, which would silently merge into the existing row.
+   */
+  @Modifying
+  @Query(value = """
+        insert into maintenance_lease (name, owner, expires_at)
+        values (:name, :owner, :until)
+        """, nativeQuery = true)
+  int insert(@Param("name") String name, @Param("owner") String owner,
+      @Param("until") Instant until);
+
+  /**
+   * Releases a lease held by the given owner so another node can take over immediately.
+   */
+  @Modifying
+  @Query("""
+        update MaintenanceLease l
+        set l.expiresAt = :now
+        where l.name = :name and l.owner = :owner
+        """)
+  int release(@Param("name") String name, @Param("owner") String owner,
+      @Param("now") Instant now);
+}
@@ -0,0 +1,107 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import com.school.project.wahr_oder_watt.dto.ScoreBucketRow;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Zugriff auf die Punkte je Spieler und Zeitraum hinter den Ranglisten für Woche und Tag. Die
+ * Datenbank rechnet Zuwächse selbst und bekommt sie als JDBC-Batch; parallele Schreiber verlieren
+ * so keine Punkte.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScoreBucketRepository {
+
+  private static final String CREATE = """
+      insert into score_bucket (period, period_start, user_id, score)
+      values (?, ?, ?, 0)
+      on conflict do nothing
+      """;
+
+  private static final String ADD = """
+      update score_bucket
+      set score = score + ?
+      where period = ? and period_start = ? and user_id = ?
+      """;
+
+  private static final String SELECT_PERIOD = """
+      select b.user_id, u.username, b.score
+      from score_bucket b
+      left join "user" u on u.id = b.user_id
+      where b.period = ? and b.period_start = ?
+      """;
+
+  private static final String DELETE_BEFORE = """
+      delete from score_bucket
+      where period = ? and period_start < ?
+      """;
+
+  private static final RowMapper<ScoreBucketRow> ROW_MAPPER = (rs, rowNum) -> new ScoreBucketRow(
+      rs.getLong("user_id"),
+      rs.getString("username"),
+      rs.getInt("score"));
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Punkteänderung für einen Eintrag.
+   *
+   * @param window Zeitfenster des Eintrags, nie ALL_TIME.
+   * @param periodStart erster Tag des Zeitraums.
+   * @param userId ID des Spielers.
+   * @param points Punkte, die hinzukommen.
+   */
+  public record Increment(ScoreWindow window, LocalDate periodStart, Long userId, int points) {
+  }
+
+  /**
+   * Schreibt die Punkte gut und legt fehlende Einträge vorher mit 0 Punkten an. Die Zuwächse
+   * sollten in fester Reihenfolge kommen, damit parallele Stapel die Zeilen in derselben
+   * Reihenfolge sperren.
+   *
+   * @param increments Zuwächse, höchstens einer je Eintrag.
+   */
+  public void addAll(List<Increment> increments) {
+    jdbcTemplate.batchUpdate(CREATE, increments, increments.size(), (ps, i) -> {
+      ps.setString(1, i.window().name());
+      ps.setDate(2, Date.valueOf(i.periodStart()));
+      ps.setLong(3, i.userId());
+    });
+    jdbcTemplate.batchUpdate(ADD, increments, increments.size(), (ps, i) -> {
+      ps.setInt(1, i.points());
+      ps.setString(2, i.window().name());
+      ps.setDate(3, Date.valueOf(i.periodStart()));
+      ps.setLong(4, i.userId());
+    });
+  }
+
+  /**
+   * Liefert alle Einträge eines Zeitraums.
+   *
+   * @param window das Zeitfenster.
+   * @param periodStart erster Tag des Zeitraums.
+   * @return eine Zeile je Spieler.
+   */
+  public List<ScoreBucketRow> findByPeriod(ScoreWindow window, LocalDate periodStart) {
+    return jdbcTemplate.query(SELECT_PERIOD, ROW_MAPPER, window.name(),
+        Date.valueOf(periodStart));
+  }
+
+  /**
+   * Löscht alle Einträge eines Zeitfensters aus Zeiträumen vor dem angegebenen.
+   *
+   * @param window das Zeitfenster.
+   * @param periodStart erster Tag des ältesten Zeitraums, der bleibt.
+   * @return Anzahl der gelöschten Einträge.
+   */
+  public int deleteBefore(ScoreWindow window, LocalDate periodStart) {
+    return jdbcTemplate.update(DELETE_BEFORE, window.name(), Date.valueOf(periodStart));
+  }
+}
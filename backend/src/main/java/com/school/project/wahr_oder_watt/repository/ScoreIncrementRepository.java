@@ -0,0 +1,79 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import com.school.project.wahr_oder_watt.model.TimeOrderedIdGenerator;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Zuwächse auf die Punkte in {@code user} und {@code highscore}. Die Datenbank rechnet selbst,
+ * parallele Schreiber verlieren also keine Punkte; jede Anweisung geht als JDBC-Batch hinaus.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ScoreIncrementRepository {
+
+  private static final String CREATE_HIGHSCORE = """
+      insert into highscore (id, user_id, score)
+      select ?, u.id, u.score from "user" u where u.id = ?
+      on conflict do nothing
+      """;
+
+  private static final String ADD_TO_USER = """
+      update "user"
+      set score = score + ?
+      where id = ?
+      """;
+
+  private static final String ADD_TO_HIGHSCORE = """
+      update highscore
+      set score = score + ?
+      where user_id = ?
+      """;
+
+  private static final String SCORE_OF_USER = """
+      select score from "user" where id = ?
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Legt für jeden der Benutzer ohne Highscore einen an, mit seinen bisherigen Punkten, damit
+   * beide Werte gleich bleiben. Unbekannte Benutzer werden übersprungen.
+   *
+   * @param userIds IDs der Benutzer.
+   */
+  public void createMissingHighscores(List<Long> userIds) {
+    jdbcTemplate.batchUpdate(CREATE_HIGHSCORE, userIds, userIds.size(), (ps, userId) -> {
+      ps.setLong(1, TimeOrderedIdGenerator.nextId());
+      ps.setLong(2, userId);
+    });
+  }
+
+  /**
+   * Schreibt den Benutzern und ihren Highscores Punkte gut. Die Einträge sollten in fester
+   * Reihenfolge kommen, damit parallele Stapel die Zeilen in derselben Reihenfolge sperren.
+   *
+   * @param deltas Punkte je Benutzer-ID.
+   */
+  public void addAll(List<Map.Entry<Long, Integer>> deltas) {
+    jdbcTemplate.batchUpdate(ADD_TO_USER, deltas, deltas.size(), (ps, delta) -> {
+      ps.setInt(1, delta.getValue());
+      ps.setLong(2, delta.getKey());
+    });
+    jdbcTemplate.batchUpdate(ADD_TO_HIGHSCORE, deltas, deltas.size(), (ps, delta) -> {
+      ps.setInt(1, delta.getValue());
+      ps.setLong(2, delta.getKey());
+    });
+  }
+
+  /**
+   * @param userId ID des Benutzers.
+   * @return Punkte des Benutzers, wie sie gerade gespeichert sind.
+   */
+  public int scoreOf(Long userId) {
+    return jdbcTemplate.queryForObject(SCORE_OF_USER, Integer.class, userId);
+  }
+}
@@ -1,8 +1,20 @@
 package com.school.project.wahr_oder_watt.repository;
 
+import com.school.project.wahr_oder_watt.dto.DuelPlayerRow;
+import com.school.project.wahr_oder_watt.dto.UserCredentials;
+import com.school.project.wahr_oder_watt.dto.UserDto;
+import com.school.project.wahr_oder_watt.dto.UserReadDto;
 import com.school.project.wahr_oder_watt.model.User;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository interface for User entity, providing CRUD operations and custom queries.
@@ -11,4 +23,114 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
   Optional<User> findByUsername(String username);
   Optional<User> findById(Long id);
+
+  /**
+   * Loads a user together with the current duel in a single query.
+   */
+  @EntityGraph(attributePaths = "duel")
+  Optional<User> findWithDuelById(Long id);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserCredentials(
+            u.id, u.username, u.email, u.password, u.isAdmin, u.isEnabled
+        )
+        from User u
+        where u.email = :email
+        """)
+  Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserCredentials(
+            u.id, u.username, u.email, u.password, u.isAdmin, u.isEnabled
+        )
+        from User u
+        where u.username = :username
+        """)
+  Optional<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserDto(u.id, u.username)
+        from User u
+        where u.id = :id
+        """)
+  Optional<UserDto> findSummaryById(@Param("id") Long id);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserDto(u.id, u.username)
+        from User u
+        where u.email = :email
+        """)
+  Optional<UserDto> findSummaryByEmail(@Param("email") String email);
+
+  /**
+   * Updates only the password hash of a user.
+   */
+  @Transactional
+  @Modifying
+  @Query("update User u set u.password = :password where u.id = :id")
+  int updatePassword(@Param("id") Long id, @Param("password") String password);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserReadDto(
+            u.id, u.username, u.email, u.isAdmin, u.isEnabled, u.score, u.duel.id
+        )
+        from User u
+        where u.id = :id
+        """)
+  Optional<UserReadDto> findReadDtoById(@Param("id") Long id);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserReadDto(
+            u.id, u.username, u.email, u.isAdmin, u.isEnabled, u.score, u.duel.id
+        )
+        from User u
+        where u.id > :after
+        order by u.id
+        """)
+  List<UserReadDto> findPageAfter(@Param("after") long after, Limit limit);
+
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserReadDto(
+            u.id, u.username, u.email, u.isAdmin, u.isEnabled, u.score, u.duel.id
+        )
+        from User u
+        where u.id > :after and u.isEnabled = :enabled
+        order by u.id
+        """)
+  List<UserReadDto> findPageAfterByEnabled(@Param("after") long after,
+      @Param("enabled") boolean enabled, Limit limit);
+
+  /**
+   * Filters the given users down to those who are enabled and not in a duel.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.UserDto(u.id, u.username)
+        from User u
+        where u.id in :ids and u.isEnabled = true and u.duel is null
+        """)
+  List<UserDto> findAvailableAmong(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Loads id and name of all players of the given duels.
+   */
+  @Query("""
+        select new com.school.project.wahr_oder_watt.dto.DuelPlayerRow(u.duel.id, u.id, u.username)
+        from User u
+        where u.duel.id in :duelIds
+        order by u.id
+        """)
+  List<DuelPlayerRow> findPlayersOfDuels(@Param("duelIds") Collection<Long> duelIds);
+
+  /**
+   * Returns the ids of all users still assigned to one of the given duels.
+   */
+  @Query("select u.id from User u where u.duel.id in :duelIds")
+  List<Long> findIdsInDuels(@Param("duelIds") Collection<Long> duelIds);
+
+  /**
+   * Detaches all users from the given duels.
+   */
+  @Modifying
+  @Query("update User u set u.duel = null where u.duel.id in :duelIds")
+  int clearDuels(@Param("duelIds") Collection<Long> duelIds);
 }
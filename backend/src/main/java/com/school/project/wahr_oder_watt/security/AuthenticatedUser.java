@@ -0,0 +1,50 @@
+package com.school.project.wahr_oder_watt.security;
+
+import java.util.Collection;
+import java.util.List;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * AuthenticatedUser extends Spring's User with the database id of the account.
+ * It is used both for DB backed logins and for principals restored from JWT claims.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+  /**
+   * The database id of the user.
+   */
+  private final Long id;
+
+  public AuthenticatedUser(Long id, String username, String password,
+      Collection<? extends GrantedAuthority> authorities, boolean enabled) {
+    super(username, password == null ? "" : password, true, true, true, enabled, authorities);
+    this.id = id;
+  }
+
+  /**
+   * Creates a principal with a single role authority ("ADMIN" or "USER").
+   *
+   * @param id the database id of the user.
+   * @param username the login identifier (username or email).
+   * @param password the password hash, may be null for token based principals.
+   * @param admin whether the user has admin rights.
+   * @param enabled whether the account is enabled.
+   * @return the principal.
+   */
+  public static AuthenticatedUser of(Long id, String username, String password, boolean admin,
+      boolean enabled) {
+    return new AuthenticatedUser(id, username, password,
+        List.of(new SimpleGrantedAuthority(admin ? "ADMIN" : "USER")), enabled);
+  }
+
+  /**
+   * @return true if the principal carries the ADMIN authority.
+   */
+  public boolean isAdmin() {
+    return getAuthorities().stream().anyMatch(a -> "ADMIN".equals(a.getAuthority()));
+  }
+}
@@ -0,0 +1,123 @@
+package com.school.project.wahr_oder_watt.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BoundedPasswordEncoder runs BCrypt on a dedicated, size-capped thread pool instead of the
+ * request threads. If all hashing threads are busy and the queue is full, the call fails fast with
+ * a {@link PasswordHashingBusyException}, so a login storm cannot starve the other endpoints.
+ *
+ * <p>Hashes created with a different cost than the configured one are reported by
+ * {@link #upgradeEncoding(String)}, so they are rehashed on the next successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+  private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+  private final BCryptPasswordEncoder delegate;
+  private final int strength;
+  private final ThreadPoolExecutor executor;
+  private final long retryAfterSeconds;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejected;
+
+  public BoundedPasswordEncoder(int strength, int threads, int queueCapacity,
+      long retryAfterSeconds, MeterRegistry registry) {
+    this.delegate = new BCryptPasswordEncoder(strength);
+    this.strength = strength;
+    this.retryAfterSeconds = retryAfterSeconds;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), r -> {
+          Thread t = new Thread(r, "password-hashing-" + threadCount.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    this.encodeTimer = Timer.builder("auth.password.hashing")
+        .description("Dauer einer BCrypt-Operation inklusive Wartezeit")
+        .tag("operation", "encode")
+        .register(registry);
+    this.matchesTimer = Timer.builder("auth.password.hashing")
+        .description("Dauer einer BCrypt-Operation inklusive Wartezeit")
+        .tag("operation", "matches")
+        .register(registry);
+    this.rejected = Counter.builder("auth.password.hashing.rejected")
+        .description("Abgewiesene Hash-Anfragen wegen voller Warteschlange")
+        .register(registry);
+    Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+        .description("Wartende Hash-Anfragen")
+        .register(registry);
+    Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Aktive Hash-Threads")
+        .register(registry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(encodeTimer, () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Returns true if the hash was created with a different cost than the configured one.
+   */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+    Matcher m = BCRYPT_COST.matcher(encodedPassword);
+    return m.find() && Integer.parseInt(m.group(1)) != strength;
+  }
+
+  private <T> T run(Timer timer, Callable<T> task) {
+    long start = System.nanoTime();
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingBusyException(retryAfterSeconds);
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Passwort-Hashing unterbrochen", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
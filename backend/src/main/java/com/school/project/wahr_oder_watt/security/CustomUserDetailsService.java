@@ -1,9 +1,10 @@
 package com.school.project.wahr_oder_watt.security;
 
-import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.dto.UserCredentials;
 import com.school.project.wahr_oder_watt.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,10 +12,11 @@ import org.springframework.stereotype.Service;
 /**
  * CustomUserDetailsService implements UserDetailsService to load user-specific data.
  * It retrieves user information from the UserRepository and constructs a UserDetails object.
+ * As UserDetailsPasswordService it stores rehashed passwords after a successful login.
  */
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
   private final UserRepository userRepository;
 
   /**
@@ -31,15 +33,11 @@ public class CustomUserDetailsService implements UserDetailsService {
       return loadUserByEmail(identifier);
     } else {
       // Standard: Suche nach Username
-      User user = userRepository.findByUsername(identifier)
+      UserCredentials user = userRepository.findCredentialsByUsername(identifier)
           .orElseThrow(
               () -> new UsernameNotFoundException("User not found with username: " + identifier));
-      return org.springframework.security.core.userdetails.User
-          .withUsername(user.getUsername())
-          .password(user.getPassword())
-          .authorities(user.isAdmin() ? "ADMIN" : "USER")
-          .accountLocked(!user.isEnabled())
-          .build();
+      return AuthenticatedUser.of(user.id(), user.username(), user.password(),
+          user.admin(), user.enabled());
     }
   }
   /**
@@ -50,14 +48,25 @@ public class CustomUserDetailsService implements UserDetailsService {
    * @throws UsernameNotFoundException if the user could not be found or the user has no GrantedAuthority
    */
   public UserDetails loadUserByEmail(String email) throws UsernameNotFoundException {
-    User user = userRepository.findByEmail(email)
+    UserCredentials user = userRepository.findCredentialsByEmail(email)
         .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
-    return org.springframework.security.core.userdetails.User
-        .withUsername(user.getEmail())
-        .password(user.getPassword())
-        .authorities(user.isAdmin() ? "ADMIN" : "USER") // You can set roles/authorities as needed
-        .accountLocked(!user.isEnabled())
-        .build();
+    return AuthenticatedUser.of(user.id(), user.email(), user.password(),
+        user.admin(), user.enabled());
   }
 
+  /**
+   * Stores a rehashed password, called by the authentication provider when the stored hash uses an
+   * outdated BCrypt cost.
+   *
+   * @param user the authenticated user.
+   * @param newPassword the new password hash.
+   * @return the user with the updated password.
+   */
+  @Override
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    AuthenticatedUser principal = (AuthenticatedUser) user;
+    userRepository.updatePassword(principal.getId(), newPassword);
+    return new AuthenticatedUser(principal.getId(), principal.getUsername(), newPassword,
+        principal.getAuthorities(), principal.isAccountNonLocked());
+  }
 }
@@ -1,16 +1,19 @@
 package com.school.project.wahr_oder_watt.security;
 
 import com.school.project.wahr_oder_watt.service.JwtService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -21,6 +24,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
   private final UserDetailsService userDetailsService; // nur einmal
+  private final PrincipalCache principalCache;
+
+  /**
+   * Wenn aktiv, wird der Principal aus den Claims des Tokens gebaut statt aus der Datenbank.
+   */
+  @Value("${app.jwt.stateless:true}")
+  private boolean stateless;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request,
@@ -33,11 +43,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       return;
     }
     String token = authHeader.substring(7);
-    String username = jwtService.extractUsername(token);
 
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-      if (jwtService.isTokenValid(token, userDetails)) {
+    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+      UserDetails userDetails = resolvePrincipal(token);
+      if (userDetails != null) {
         UsernamePasswordAuthenticationToken authToken =
             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -46,4 +55,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
     filterChain.doFilter(request, response);
   }
-}
\ No newline at end of file
+
+  /**
+   * Verifies the token and resolves its principal. Tokens carrying a user id claim are served from
+   * the claims and the principal cache; older tokens fall back to a database lookup.
+   */
+  private UserDetails resolvePrincipal(String token) {
+    Claims claims = jwtService.parseValidClaims(token);
+    if (claims == null || claims.getSubject() == null) {
+      return null;
+    }
+    String subject = claims.getSubject();
+    Number userId = claims.get(JwtService.CLAIM_USER_ID, Number.class);
+    if (!stateless || userId == null) {
+      return loadFromDatabase(subject);
+    }
+    return principalCache.resolve(userId.longValue(), claims.getIssuedAt(),
+        () -> AuthenticatedUser.of(userId.longValue(), subject, null,
+            "ADMIN".equals(claims.get(JwtService.CLAIM_ROLE, String.class)),
+            Boolean.TRUE.equals(claims.get(JwtService.CLAIM_ENABLED, Boolean.class))),
+        () -> loadFromDatabase(subject));
+  }
+
+  private AuthenticatedUser loadFromDatabase(String subject) {
+    try {
+      AuthenticatedUser user = (AuthenticatedUser) userDetailsService.loadUserByUsername(subject);
+      user.eraseCredentials();
+      return user;
+    } catch (UsernameNotFoundException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.school.project.wahr_oder_watt.security;
+
+import lombok.Getter;
+
+/**
+ * Thrown when the password hashing pool is saturated and a login or registration has to be retried
+ * later.
+ */
+@Getter
+public class PasswordHashingBusyException extends RuntimeException {
+
+  /**
+   * Suggested delay in seconds before the client retries.
+   */
+  private final long retryAfterSeconds;
+
+  public PasswordHashingBusyException(long retryAfterSeconds) {
+    super("Zu viele Anmeldungen gleichzeitig, bitte später erneut versuchen");
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
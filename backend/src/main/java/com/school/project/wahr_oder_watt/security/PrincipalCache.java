@@ -0,0 +1,125 @@
+package com.school.project.wahr_oder_watt.security;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * PrincipalCache keeps recently authenticated principals by user id, so the JWT filter does not
+ * have to query the database on every request.
+ *
+ * <p>Entries expire after a fixed TTL and the cache is bounded in size. When a user is changed or
+ * deleted, {@link #invalidate(Long)} leaves a marker: tokens issued before that point are no longer
+ * trusted on their claims alone and the principal is reloaded from the database once.
+ */
+@Component
+public class PrincipalCache {
+
+  private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+  private final int maxSize;
+  private final long ttlMs;
+  private final long invalidationTtlMs;
+
+  public PrincipalCache(
+      @Value("${app.jwt.principal-cache.max-size:10000}") int maxSize,
+      @Value("${app.jwt.principal-cache.ttl:300000}") long ttlMs,
+      @Value("${app.jwt.expiration}") long tokenExpirationMs) {
+    this.maxSize = maxSize;
+    this.ttlMs = ttlMs;
+    // Invalidation markers must outlive every token that was issued before them.
+    this.invalidationTtlMs = tokenExpirationMs;
+  }
+
+  /**
+   * Resolves the principal for a verified token.
+   *
+   * @param userId the user id from the token claims.
+   * @param issuedAt the issue date of the token, may be null.
+   * @param fromClaims builds the principal from the token claims.
+   * @param fromDatabase loads the principal from the database, may return null.
+   * @return the principal or null if the user no longer exists.
+   */
+  public AuthenticatedUser resolve(Long userId, Date issuedAt,
+      Supplier<AuthenticatedUser> fromClaims, Supplier<AuthenticatedUser> fromDatabase) {
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(userId);
+    if (entry != null && entry.principal != null && entry.expiresAt >= now) {
+      return entry.principal;
+    }
+    long invalidatedAt = entry != null && entry.isMarkerActive(now, invalidationTtlMs)
+        ? entry.invalidatedAt : 0L;
+    boolean stale = invalidatedAt > 0 && (issuedAt == null || issuedAt.getTime() <= invalidatedAt);
+    AuthenticatedUser principal = stale ? fromDatabase.get() : fromClaims.get();
+    if (principal != null) {
+      put(userId, new Entry(principal, now + ttlMs, invalidatedAt));
+    } else if (entry != null && invalidatedAt == 0L) {
+      entries.remove(userId, entry);
+    }
+    return principal;
+  }
+
+  /**
+   * Removes the cached principal of a user. Tokens issued before this call are re-checked against
+   * the database on their next use.
+   *
+   * @param userId the id of the changed or deleted user.
+   */
+  public void invalidate(Long userId) {
+    if (userId == null) {
+      return;
+    }
+    entries.put(userId, new Entry(null, 0L, System.currentTimeMillis()));
+  }
+
+  /**
+   * @return the number of cached entries including invalidation markers.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  private void put(Long userId, Entry entry) {
+    if (entries.size() >= maxSize && !entries.containsKey(userId)) {
+      evict(System.currentTimeMillis());
+    }
+    entries.put(userId, entry);
+  }
+
+  /**
+   * Drops expired entries first and, if the cache is still full, cached principals. Invalidation
+   * markers are kept until they expire because dropping them would make stale claims trusted again.
+   */
+  private void evict(long now) {
+    entries.replaceAll((id, e) -> e.expiresAt < now ? e.withoutPrincipal() : e);
+    entries.entrySet().removeIf(e -> e.getValue().principal == null
+        && !e.getValue().isMarkerActive(now, invalidationTtlMs));
+    int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+    var it = entries.entrySet().iterator();
+    while (it.hasNext() && toRemove > 0) {
+      var e = it.next();
+      if (e.getValue().principal == null) {
+        continue;
+      }
+      if (e.getValue().invalidatedAt > 0) {
+        e.setValue(e.getValue().withoutPrincipal());
+      } else {
+        it.remove();
+        toRemove--;
+      }
+    }
+  }
+
+  private record Entry(AuthenticatedUser principal, long expiresAt, long invalidatedAt) {
+
+    boolean isMarkerActive(long now, long invalidationTtlMs) {
+      return invalidatedAt > 0 && now < invalidatedAt + invalidationTtlMs;
+    }
+
+    Entry withoutPrincipal() {
+      return new Entry(null, 0L, invalidatedAt);
+    }
+  }
+}
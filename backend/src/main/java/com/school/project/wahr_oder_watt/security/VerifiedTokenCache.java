@@ -0,0 +1,101 @@
+package com.school.project.wahr_oder_watt.security;
+
+import io.jsonwebtoken.Claims;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * VerifiedTokenCache remembers the claims of recently verified tokens, so repeated requests with
+ * the same token skip the HMAC check and the base64/JSON decoding.
+ *
+ * <p>Entries are keyed by the signature segment of the token, which already is a digest of header
+ * and payload. A hit is only accepted if the full token matches the cached one, so a forged payload
+ * reusing a known signature never returns cached claims. Entries expire together with the token.
+ * A maximum size of 0 disables the cache.
+ */
+@Component
+public class VerifiedTokenCache {
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final int maxSize;
+
+  public VerifiedTokenCache(@Value("${app.jwt.token-cache.max-size:4096}") int maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the cached claims of a token.
+   *
+   * @param token the compact JWT.
+   * @param now the current time in milliseconds.
+   * @return the claims or null if the token is not cached or expired.
+   */
+  public Claims get(String token, long now) {
+    String key = keyOf(token);
+    if (key == null) {
+      return null;
+    }
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.expiresAt <= now) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry.token.equals(token) ? entry.claims : null;
+  }
+
+  /**
+   * Stores the claims of a verified token.
+   *
+   * @param token the compact JWT.
+   * @param claims the verified claims.
+   * @param expiresAt the expiration of the token in milliseconds.
+   * @param now the current time in milliseconds.
+   */
+  public void put(String token, Claims claims, long expiresAt, long now) {
+    String key = keyOf(token);
+    if (maxSize <= 0 || key == null || expiresAt <= now) {
+      return;
+    }
+    if (entries.size() >= maxSize) {
+      evict(now);
+    }
+    entries.put(key, new Entry(token, claims, expiresAt));
+  }
+
+  /**
+   * @return the number of cached tokens.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Empties the cache.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  private void evict(long now) {
+    entries.values().removeIf(e -> e.expiresAt <= now);
+    int toRemove = entries.size() - maxSize + Math.max(1, maxSize / 10);
+    var it = entries.keySet().iterator();
+    while (it.hasNext() && toRemove-- > 0) {
+      it.next();
+      it.remove();
+    }
+  }
+
+  private static String keyOf(String token) {
+    int dot = token.lastIndexOf('.');
+    return dot < 0 || dot == token.length() - 1 ? null : token.substring(dot + 1);
+  }
+
+  private record Entry(String token, Claims claims, long expiresAt) {
+  }
+}
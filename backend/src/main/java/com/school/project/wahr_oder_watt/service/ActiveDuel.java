@@ -0,0 +1,380 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.AnswerResult;
+import com.school.project.wahr_oder_watt.dto.DuelStateDto;
+import com.school.project.wahr_oder_watt.dto.SpeedrunCard;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.service.QuestionGenerator.Question;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import org.springframework.security.access.AccessDeniedException;
+
+/**
+ * Zustand eines laufenden Duells im Speicher.
+ *
+ * <p>Alle Änderungen laufen über {@link #submit(Supplier)}: Befehle landen in einer Mailbox und
+ * werden immer nur von einem Thread gleichzeitig abgearbeitet, in der Regel direkt vom aufrufenden
+ * Thread. Die Felder brauchen daher keine Sperren; die Sichtbarkeit zwischen aufeinanderfolgenden
+ * Threads sichert das {@code running}-Flag.
+ *
+ * <p>Im Rundenduell spielen alle Spieler dieselbe Runde und sie schließt, wenn alle geantwortet
+ * haben. Im Speedrun spielt jeder Spieler das gemeinsame Deck in seinem eigenen Tempo; eine Karte
+ * gilt als Runde abgeschlossen, sobald der erste Spieler sie beantwortet hat.
+ */
+class ActiveDuel {
+
+  /**
+   * Ergebnis einer abgeschlossenen Runde, das der Schreibpuffer persistiert.
+   *
+   * @param duelId ID des Duells
+   * @param roundNumber Nummer der Runde
+   * @param deviceId Gerät der Runde
+   */
+  record RoundClosed(Long duelId, int roundNumber, Long deviceId) {
+  }
+
+  private final Long id;
+  private final DuelMode mode;
+  private final long[] playerIds;
+  private final List<Question> questions;
+  private final AttributeMasks masks;
+  private final long[] answerMask;
+  private final int[] totalScores;
+  private final boolean[] answered;
+  private final List<SpeedrunCard> deck;
+  /** Speedrun: beantwortete Karten je Spieler. */
+  private final int[] position;
+  /** Speedrun: ausgeteilte Karten je Spieler. */
+  private final int[] dealt;
+  private final ConcurrentLinkedQueue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private DuelStatus status = DuelStatus.RUNNING;
+  private int roundNumber = 1;
+  private TimingWheel.Timeout timer;
+  private long deadlineAt;
+  private int eventSeq;
+  private int closedRounds;
+
+  ActiveDuel(Long id, DuelMode mode, long[] playerIds, List<Question> questions,
+      AttributeMasks masks, List<SpeedrunCard> deck) {
+    this.id = id;
+    this.mode = mode;
+    this.playerIds = playerIds;
+    this.questions = questions;
+    this.masks = masks;
+    this.answerMask = new long[masks.words()];
+    this.totalScores = new int[playerIds.length];
+    this.answered = new boolean[playerIds.length];
+    this.deck = deck;
+    this.position = new int[playerIds.length];
+    this.dealt = new int[playerIds.length];
+  }
+
+  Long id() {
+    return id;
+  }
+
+  long[] playerIds() {
+    return playerIds;
+  }
+
+  DuelMode mode() {
+    return mode;
+  }
+
+  /**
+   * @return Ablaufzeitpunkt der laufenden Frist in Epoch-Millisekunden. Nur im Mailbox-Thread
+   *     aufrufen.
+   */
+  long deadlineAt() {
+    return deadlineAt;
+  }
+
+  /**
+   * @return laufende Runde. Nur im Mailbox-Thread aufrufen.
+   */
+  int roundNumber() {
+    return roundNumber;
+  }
+
+  /**
+   * @return nächste fortlaufende Nummer für das Ereignisprotokoll. Nur im Mailbox-Thread oder vor
+   *     der Veröffentlichung aufrufen.
+   */
+  int nextEventSeq() {
+    return ++eventSeq;
+  }
+
+  /**
+   * Ersetzt die laufende Frist. Nur im Mailbox-Thread oder vor der Veröffentlichung aufrufen.
+   *
+   * @param next neue Frist.
+   * @param deadlineAt Ablaufzeitpunkt in Epoch-Millisekunden, wird an Clients gemeldet.
+   */
+  void arm(TimingWheel.Timeout next, long deadlineAt) {
+    disarm();
+    this.timer = next;
+    this.deadlineAt = deadlineAt;
+  }
+
+  /**
+   * Bricht die laufende Frist ab. Nur im Mailbox-Thread aufrufen.
+   */
+  void disarm() {
+    if (timer != null) {
+      timer.cancel();
+      timer = null;
+    }
+  }
+
+  /**
+   * Reiht einen Befehl in die Mailbox ein und arbeitet sie ab, falls gerade kein anderer Thread
+   * daran arbeitet.
+   *
+   * @param command Befehl, der exklusiv auf dem Zustand läuft.
+   * @return Ergebnis des Befehls.
+   */
+  <T> CompletableFuture<T> submit(Supplier<T> command) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    mailbox.offer(() -> {
+      try {
+        result.complete(command.get());
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    drain();
+    return result;
+  }
+
+  private void drain() {
+    while (!mailbox.isEmpty() && running.compareAndSet(false, true)) {
+      try {
+        Runnable command;
+        while ((command = mailbox.poll()) != null) {
+          command.run();
+        }
+      } finally {
+        running.set(false);
+      }
+    }
+  }
+
+  /**
+   * Nimmt die Antwort eines Spielers für die aktuelle Runde an. Nur im Mailbox-Thread aufrufen.
+   *
+   * @param userId ID des Spielers.
+   * @param round Runde, für die der Spieler antwortet.
+   * @param attributeIds gewählte Attribute.
+   * @param onAccepted erhält die Punkte einer angenommenen Antwort, noch bevor die Runde schließt.
+   * @param onRoundClosed erhält die Runde, sobald alle Spieler geantwortet haben.
+   * @return Ergebnis der Antwort.
+   * @throws AccessDeniedException falls der Benutzer nicht mitspielt.
+   */
+  AnswerResult answer(Long userId, int round, Collection<Long> attributeIds,
+      IntConsumer onAccepted, Consumer<RoundClosed> onRoundClosed) {
+    int player = indexOf(userId);
+    if (mode == DuelMode.SPEEDRUN) {
+      return answerCard(player, round, attributeIds, onAccepted, onRoundClosed);
+    }
+    if (status != DuelStatus.RUNNING || round != roundNumber || answered[player]) {
+      return new AnswerResult(round, false, 0, totalScores[player], roundNumber, status);
+    }
+    int points = score(roundNumber, attributeIds);
+    totalScores[player] += points;
+    answered[player] = true;
+    onAccepted.accept(points);
+    if (allAnswered()) {
+      closeRound(onRoundClosed);
+    }
+    return new AnswerResult(round, true, points, totalScores[player], roundNumber, status);
+  }
+
+  /**
+   * Speedrun: nimmt die Antwort auf die nächste Karte des Spielers an. Karten müssen in
+   * Reihenfolge beantwortet werden.
+   */
+  private AnswerResult answerCard(int player, int card, Collection<Long> attributeIds,
+      IntConsumer onAccepted, Consumer<RoundClosed> onRoundClosed) {
+    if (status != DuelStatus.RUNNING || card != position[player] + 1 || card > questions.size()) {
+      return new AnswerResult(card, false, 0, totalScores[player], position[player] + 1, status);
+    }
+    int points = score(card, attributeIds);
+    totalScores[player] += points;
+    position[player] = card;
+    onAccepted.accept(points);
+    if (card > closedRounds) {
+      closedRounds = card;
+      onRoundClosed.accept(new RoundClosed(id, card, questions.get(card - 1).deviceId()));
+      roundNumber = Math.min(card + 1, questions.size());
+    }
+    if (deckFinished()) {
+      status = DuelStatus.FINISHED;
+    }
+    return new AnswerResult(card, true, points, totalScores[player], position[player] + 1, status);
+  }
+
+  /**
+   * Speedrun: teilt einem Spieler Karten aus, sodass er bis zu {@code ahead} unbeantwortete
+   * Karten in der Hand hat. Nur im Mailbox-Thread aufrufen.
+   *
+   * @param userId ID des Spielers.
+   * @param ahead gewünschte Anzahl unbeantworteter Karten.
+   * @param again true, um bereits ausgeteilte, noch unbeantwortete Karten erneut zu liefern.
+   * @return die neu (bzw. erneut) ausgeteilten Karten.
+   * @throws AccessDeniedException falls der Benutzer nicht mitspielt.
+   */
+  List<SpeedrunCard> deal(Long userId, int ahead, boolean again) {
+    int player = indexOf(userId);
+    int from = again ? position[player] : Math.max(dealt[player], position[player]);
+    int to = Math.min(deck.size(), position[player] + ahead);
+    if (status != DuelStatus.RUNNING || to <= from) {
+      return List.of();
+    }
+    dealt[player] = Math.max(dealt[player], to);
+    return deck.subList(from, to);
+  }
+
+  /**
+   * @param userId ID des Spielers.
+   * @return Anzahl der Karten, die der Spieler schon beantwortet hat.
+   */
+  int position(Long userId) {
+    return position[indexOf(userId)];
+  }
+
+  /**
+   * @param userId ID des Spielers.
+   * @return Anzahl der ausgeteilten, noch unbeantworteten Karten des Spielers.
+   */
+  int inHand(Long userId) {
+    int player = indexOf(userId);
+    return Math.max(0, dealt[player] - position[player]);
+  }
+
+  /**
+   * @return Anzahl der Karten im Speedrun-Deck.
+   */
+  int deckSize() {
+    return deck.size();
+  }
+
+  /**
+   * @param userId ID des Spielers.
+   * @return Gesamtpunkte des Spielers.
+   */
+  int totalScore(Long userId) {
+    return totalScores[indexOf(userId)];
+  }
+
+  private boolean deckFinished() {
+    for (int p : position) {
+      if (p < questions.size()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int score(int round, Collection<Long> attributeIds) {
+    if (questions.isEmpty()) {
+      return 0;
+    }
+    int unknown = masks.fill(attributeIds, answerMask);
+    return AnswerScoring.points(mode, masks.correct(round), answerMask, unknown);
+  }
+
+  /**
+   * Schließt die aktuelle Runde, auch wenn noch nicht alle geantwortet haben, und beginnt die
+   * nächste oder beendet das Duell. Nur im Mailbox-Thread aufrufen.
+   */
+  void closeRound(Consumer<RoundClosed> onRoundClosed) {
+    if (status != DuelStatus.RUNNING) {
+      return;
+    }
+    onRoundClosed.accept(new RoundClosed(id, roundNumber, currentDeviceId()));
+    boolean lastRound = roundNumber >= questions.size()
+        || (mode.maxRounds > 0 && roundNumber >= mode.maxRounds);
+    if (lastRound) {
+      status = DuelStatus.FINISHED;
+      return;
+    }
+    roundNumber++;
+    Arrays.fill(answered, false);
+  }
+
+  /**
+   * Beendet das Duell sofort, z.B. wenn im Speedrun die Gesamtzeit abgelaufen ist. Nur im
+   * Mailbox-Thread aufrufen.
+   */
+  void finish() {
+    status = DuelStatus.FINISHED;
+  }
+
+  boolean isFinished() {
+    return status == DuelStatus.FINISHED;
+  }
+
+  /**
+   * @return Punkte je Spieler in der Reihenfolge von {@link #playerIds()}.
+   */
+  int[] totalScores() {
+    return totalScores.clone();
+  }
+
+  /**
+   * Erstellt eine unveränderliche Momentaufnahme. Nur im Mailbox-Thread aufrufen.
+   */
+  DuelStateDto snapshot() {
+    List<DuelStateDto.PlayerState> players = new ArrayList<>(playerIds.length);
+    for (int i = 0; i < playerIds.length; i++) {
+      players.add(new DuelStateDto.PlayerState(playerIds[i], totalScores[i], answered[i]));
+    }
+    Question question = status == DuelStatus.RUNNING ? currentQuestion() : null;
+    return new DuelStateDto(id, mode, status, roundNumber,
+        question != null ? question.deviceId() : null,
+        question != null ? question.options() : List.of(),
+        status == DuelStatus.RUNNING ? deadlineAt : null,
+        players);
+  }
+
+  private Question currentQuestion() {
+    return questions.isEmpty() ? null : questions.get(roundNumber - 1);
+  }
+
+  /**
+   * @return Gerät der laufenden Runde. Nur im Mailbox-Thread aufrufen.
+   */
+  Long currentDeviceId() {
+    Question question = currentQuestion();
+    return question != null ? question.deviceId() : null;
+  }
+
+  private boolean allAnswered() {
+    for (boolean a : answered) {
+      if (!a) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int indexOf(Long userId) {
+    for (int i = 0; i < playerIds.length; i++) {
+      if (playerIds[i] == userId) {
+        return i;
+      }
+    }
+    throw new AccessDeniedException("Benutzer spielt nicht in Duell " + id + ": " + userId);
+  }
+}
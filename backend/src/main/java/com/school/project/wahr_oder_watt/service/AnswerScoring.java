@@ -0,0 +1,42 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+
+/**
+ * Punkteregeln für eine Antwort, berechnet auf Bitmasken aus {@link AttributeMasks}.
+ *
+ * <ul>
+ *   <li>RUNDENDUELL: ein Punkt je richtigem Attribut, ein Punkt Abzug je falschem, nie unter 0.
+ *   Wer einfach alles anklickt, gewinnt dadurch nichts.</li>
+ *   <li>SPEEDRUN: ein Punkt, wenn genau die richtigen Attribute gewählt wurden, sonst keiner.</li>
+ * </ul>
+ */
+public final class AnswerScoring {
+
+  private AnswerScoring() {
+  }
+
+  /**
+   * Berechnet die Punkte einer Antwort ohne Allokationen.
+   *
+   * @param mode Modus des Duells.
+   * @param correct Maske der richtigen Attribute.
+   * @param answer Maske der gewählten Attribute.
+   * @param unknown Anzahl gewählter Attribute ohne Bit, zählen als falsch.
+   * @return Punkte für die Antwort.
+   */
+  public static int points(DuelMode mode, long[] correct, long[] answer, int unknown) {
+    int hits = 0;
+    int wrong = unknown;
+    int missed = 0;
+    for (int i = 0; i < correct.length; i++) {
+      hits += Long.bitCount(answer[i] & correct[i]);
+      wrong += Long.bitCount(answer[i] & ~correct[i]);
+      missed += Long.bitCount(correct[i] & ~answer[i]);
+    }
+    return switch (mode) {
+      case RUNDENDUELL -> Math.max(0, hits - wrong);
+      case SPEEDRUN -> wrong == 0 && missed == 0 && hits > 0 ? 1 : 0;
+    };
+  }
+}
@@ -0,0 +1,95 @@
+package com.school.project.wahr_oder_watt.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Bitmasken der richtigen Attribute je Runde eines Duells.
+ *
+ * <p>Alle Attribute, die in den Geräten des Duells vorkommen, bekommen aufsteigend nach ID ein Bit.
+ * Pro Runde gibt es eine Maske mit den Bits der richtigen Attribute des Geräts. Eine Antwort wird
+ * in eine wiederverwendbare Maske übersetzt; die Auswertung ist dann reine Bitarithmetik, siehe
+ * {@link AnswerScoring}.
+ */
+public final class AttributeMasks {
+
+  private static final AttributeMasks EMPTY = new AttributeMasks(new long[0], new long[0][]);
+
+  private final long[] attributeIds;
+  private final long[][] correctByRound;
+
+  private AttributeMasks(long[] attributeIds, long[][] correctByRound) {
+    this.attributeIds = attributeIds;
+    this.correctByRound = correctByRound;
+  }
+
+  /**
+   * Baut die Masken für die geplanten Runden eines Duells.
+   *
+   * @param deviceIds Geräte der Runden in Rundenreihenfolge.
+   * @param correctByDevice richtige Attribute je Gerät.
+   * @return die Masken.
+   */
+  public static AttributeMasks of(List<Long> deviceIds, Map<Long, Set<Long>> correctByDevice) {
+    if (deviceIds.isEmpty()) {
+      return EMPTY;
+    }
+    TreeSet<Long> all = new TreeSet<>();
+    for (Long deviceId : deviceIds) {
+      all.addAll(correctByDevice.getOrDefault(deviceId, Set.of()));
+    }
+    long[] ids = all.stream().mapToLong(Long::longValue).toArray();
+    int words = Math.max(1, (ids.length + 63) >>> 6);
+    long[][] masks = new long[deviceIds.size()][];
+    for (int round = 0; round < masks.length; round++) {
+      long[] mask = new long[words];
+      for (Long attributeId : correctByDevice.getOrDefault(deviceIds.get(round), Set.of())) {
+        int bit = Arrays.binarySearch(ids, attributeId);
+        mask[bit >>> 6] |= 1L << bit;
+      }
+      masks[round] = mask;
+    }
+    return new AttributeMasks(ids, masks);
+  }
+
+  /**
+   * @return Anzahl der 64-Bit-Wörter einer Maske.
+   */
+  public int words() {
+    return correctByRound.length == 0 ? 1 : correctByRound[0].length;
+  }
+
+  /**
+   * @param round Rundennummer ab 1.
+   * @return Maske der richtigen Attribute dieser Runde; nicht verändern.
+   */
+  public long[] correct(int round) {
+    return correctByRound[round - 1];
+  }
+
+  /**
+   * Übersetzt eine Antwort in eine Maske. Attribute, die in keinem Gerät des Duells vorkommen
+   * (Ablenker), bekommen kein Bit und werden nur gezählt.
+   *
+   * @param attributeIds gewählte Attribute.
+   * @param target Maske mit {@link #words()} Wörtern, wird überschrieben.
+   * @return Anzahl der gewählten Attribute ohne Bit.
+   */
+  public int fill(Collection<Long> attributeIds, long[] target) {
+    Arrays.fill(target, 0L);
+    int unknown = 0;
+    for (Long attributeId : attributeIds) {
+      int bit = attributeId == null ? -1 : Arrays.binarySearch(this.attributeIds, attributeId);
+      if (bit < 0) {
+        unknown++;
+      } else {
+        target[bit >>> 6] |= 1L << bit;
+      }
+    }
+    return unknown;
+  }
+}
@@ -1,5 +1,7 @@
 package com.school.project.wahr_oder_watt.service;
 
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import com.school.project.wahr_oder_watt.dto.CursorPage;
 import com.school.project.wahr_oder_watt.model.Attribute;
 import com.school.project.wahr_oder_watt.repository.AttributeRepository;
 import java.util.List;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 public class AttributeService {
 
   private final AttributeRepository attributeRepository;
+  private final CursorPagination pagination;
+  private final CatalogStore catalogStore;
 
   /**
    * Gibt alle Attribute zurück.
@@ -24,6 +28,39 @@ public class AttributeService {
     return attributeRepository.findAll();
   }
 
+  /**
+   * Gibt eine Seite von Attributen zurück, aufsteigend nach ID.
+   *
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<AttributeReadDto> findPage(Long after, Integer limit) {
+    return findPage(catalogStore.snapshot(), after, limit);
+  }
+
+  /**
+   * Gibt eine Seite von Attributen aus einem bestimmten Katalogstand zurück.
+   *
+   * @param catalog Katalogstand, aus dem gelesen wird.
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<AttributeReadDto> findPage(CatalogSnapshot catalog, Long after,
+      Integer limit) {
+    int size = pagination.pageSize(limit);
+    List<AttributeReadDto> rows = catalog.attributesAfter(pagination.after(after), size + 1);
+    return CursorPage.of(rows, size, AttributeReadDto::id);
+  }
+
+  /**
+   * @return der aktuelle Katalogstand, dessen Version als ETag dient.
+   */
+  public CatalogSnapshot catalog() {
+    return catalogStore.snapshot();
+  }
+
   /**
    * Sucht ein Attribut anhand der ID.
    *
@@ -36,6 +73,30 @@ public class AttributeService {
         .orElseThrow(() -> new RuntimeException("Attibute nicht gefunden mit ID: " + id));
   }
 
+  /**
+   * Sucht ein Attribut anhand der ID und liefert das Lesemodell.
+   *
+   * @param id ID des gesuchten Attributs.
+   * @return Lesemodell des Attributs.
+   * @throws RuntimeException falls das Attribut nicht gefunden wird.
+   */
+  public AttributeReadDto findReadDtoById(Long id) {
+    return findReadDtoById(catalogStore.snapshot(), id);
+  }
+
+  /**
+   * Sucht ein Attribut in einem bestimmten Katalogstand.
+   *
+   * @param catalog Katalogstand, aus dem gelesen wird.
+   * @param id ID des gesuchten Attributs.
+   * @return Lesemodell des Attributs.
+   * @throws RuntimeException falls das Attribut nicht gefunden wird.
+   */
+  public AttributeReadDto findReadDtoById(CatalogSnapshot catalog, Long id) {
+    return catalog.attribute(id)
+        .orElseThrow(() -> new RuntimeException("Attibute nicht gefunden mit ID: " + id));
+  }
+
   /**
    * Speichert ein neues Attribut.
    *
@@ -43,7 +104,9 @@ public class AttributeService {
    * @return Das gespeicherte Attribut.
    */
   public Attribute save(Attribute attribute) {
-    return attributeRepository.save(attribute);
+    Attribute saved = attributeRepository.save(attribute);
+    catalogStore.reloadAfterCommit();
+    return saved;
   }
 
   /**
@@ -59,7 +122,9 @@ public class AttributeService {
     existingAttribute.setImageUrl(attribute.getImageUrl());
     existingAttribute.setDescription(attribute.getDescription());
     existingAttribute.setLockedBy(attribute.getLockedBy());
-    return attributeRepository.save(existingAttribute);
+    Attribute saved = attributeRepository.save(existingAttribute);
+    catalogStore.reloadAfterCommit();
+    return saved;
   }
 
   /**
@@ -69,5 +134,6 @@ public class AttributeService {
    */
   public void delete(Long id) {
     attributeRepository.deleteById(id);
+    catalogStore.reloadAfterCommit();
   }
 }
@@ -0,0 +1,124 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import com.school.project.wahr_oder_watt.dto.DeviceAttributeRow;
+import com.school.project.wahr_oder_watt.dto.DeviceReadDto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unveränderlicher Stand des Katalogs aus Geräten und Attributen.
+ *
+ * <p>Geräte und Attribute liegen aufsteigend nach ID vor; Suchen nach ID und Keyset-Seiten laufen
+ * per Binärsuche ohne Sperren. Jeder Stand hat eine Versionsnummer, die als ETag nach außen geht.
+ */
+public final class CatalogSnapshot {
+
+  private final long version;
+  private final List<DeviceReadDto> devices;
+  private final long[] deviceIds;
+  private final List<AttributeReadDto> attributes;
+  private final long[] attributeIds;
+  private final QuestionCatalog questionCatalog;
+
+  CatalogSnapshot(long version, List<DeviceReadDto> devices, List<AttributeReadDto> attributes) {
+    this.version = version;
+    this.devices = List.copyOf(devices);
+    this.deviceIds = devices.stream().mapToLong(DeviceReadDto::id).toArray();
+    this.attributes = List.copyOf(attributes);
+    this.attributeIds = attributes.stream().mapToLong(AttributeReadDto::id).toArray();
+    List<Long> activeIds = new ArrayList<>();
+    List<DeviceAttributeRow> rows = new ArrayList<>();
+    for (DeviceReadDto device : devices) {
+      if (device.active()) {
+        activeIds.add(device.id());
+        device.attributes().forEach(a -> rows.add(new DeviceAttributeRow(device.id(), a)));
+      }
+    }
+    this.questionCatalog = QuestionCatalog.of(activeIds, rows, this.attributes);
+  }
+
+  /**
+   * @return Versionsnummer dieses Stands.
+   */
+  public long version() {
+    return version;
+  }
+
+  /**
+   * @return ETag-Wert für HTTP-Antworten, die aus diesem Stand gebaut werden.
+   */
+  public String etag() {
+    return "\"catalog-" + version + "\"";
+  }
+
+  /**
+   * @param id ID des Geräts.
+   * @return das Gerät mit seinen Attributen.
+   */
+  public Optional<DeviceReadDto> device(long id) {
+    int index = Arrays.binarySearch(deviceIds, id);
+    return index < 0 ? Optional.empty() : Optional.of(devices.get(index));
+  }
+
+  /**
+   * @param id ID des Attributs.
+   * @return das Attribut.
+   */
+  public Optional<AttributeReadDto> attribute(long id) {
+    int index = Arrays.binarySearch(attributeIds, id);
+    return index < 0 ? Optional.empty() : Optional.of(attributes.get(index));
+  }
+
+  /**
+   * Keyset-Seite über die Geräte.
+   *
+   * @param after ID, nach der die Seite beginnt.
+   * @param active optionaler Filter auf den Aktivitätsstatus.
+   * @param max maximale Anzahl an Einträgen.
+   * @return die Geräte aufsteigend nach ID.
+   */
+  public List<DeviceReadDto> devicesAfter(long after, Boolean active, int max) {
+    List<DeviceReadDto> page = new ArrayList<>(Math.min(max, devices.size()));
+    for (int i = firstAfter(deviceIds, after); i < devices.size() && page.size() < max; i++) {
+      DeviceReadDto device = devices.get(i);
+      if (active == null || device.active() == active) {
+        page.add(device);
+      }
+    }
+    return page;
+  }
+
+  /**
+   * Keyset-Seite über die Attribute.
+   *
+   * @param after ID, nach der die Seite beginnt.
+   * @param max maximale Anzahl an Einträgen.
+   * @return die Attribute aufsteigend nach ID.
+   */
+  public List<AttributeReadDto> attributesAfter(long after, int max) {
+    int from = firstAfter(attributeIds, after);
+    return attributes.subList(from, Math.min(attributes.size(), from + max));
+  }
+
+  /**
+   * @return Geräte, Attribute und richtige Zuordnungen für die Fragenerzeugung.
+   */
+  public QuestionCatalog questionCatalog() {
+    return questionCatalog;
+  }
+
+  /**
+   * @return true, wenn beide Stände dieselben Daten enthalten.
+   */
+  boolean sameContent(List<DeviceReadDto> otherDevices, List<AttributeReadDto> otherAttributes) {
+    return devices.equals(otherDevices) && attributes.equals(otherAttributes);
+  }
+
+  private static int firstAfter(long[] ids, long after) {
+    int index = Arrays.binarySearch(ids, after);
+    return index < 0 ? -index - 1 : index + 1;
+  }
+}
@@ -0,0 +1,97 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import com.school.project.wahr_oder_watt.dto.DeviceAttributeRow;
+import com.school.project.wahr_oder_watt.dto.DeviceReadDto;
+import com.school.project.wahr_oder_watt.repository.AttributeRepository;
+import com.school.project.wahr_oder_watt.repository.DeviceRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hält den aktuellen {@link CatalogSnapshot}.
+ *
+ * <p>Leser holen den Stand ohne Sperre über {@link #snapshot()}. Nach jeder Änderung an Geräten
+ * oder Attributen wird ein neuer Stand gebaut und atomar ausgetauscht (Copy-on-Write); laufende
+ * Leser behalten ihren alten Stand. Die Version steigt nur, wenn sich der Inhalt geändert hat.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogStore {
+
+  private final DeviceRepository deviceRepository;
+  private final AttributeRepository attributeRepository;
+  private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+
+  /**
+   * @return der aktuelle Stand des Katalogs.
+   */
+  public CatalogSnapshot snapshot() {
+    CatalogSnapshot snapshot = current.get();
+    return snapshot != null ? snapshot : reload();
+  }
+
+  /**
+   * Baut den Stand neu, sobald die laufende Transaktion committet ist, oder sofort, wenn keine
+   * Transaktion läuft.
+   */
+  public void reloadAfterCommit() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          reload();
+        }
+      });
+    } else {
+      reload();
+    }
+  }
+
+  /**
+   * Gleicht den Stand regelmäßig mit der Datenbank ab, falls sie an der Anwendung vorbei geändert
+   * wurde.
+   */
+  @Scheduled(initialDelay = 0, fixedDelayString = "${app.catalog.refresh-interval:60000}")
+  public void refresh() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      log.warn("Katalog konnte nicht geladen werden: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Lädt Geräte, Attribute und ihre Zuordnungen und tauscht den Stand aus.
+   *
+   * @return der neue Stand.
+   */
+  synchronized CatalogSnapshot reload() {
+    Map<Long, List<AttributeReadDto>> byDevice = deviceRepository.findAllAttributeRows().stream()
+        .collect(Collectors.groupingBy(DeviceAttributeRow::deviceId,
+            Collectors.mapping(DeviceAttributeRow::attribute, Collectors.toList())));
+    List<DeviceReadDto> devices = deviceRepository.findAllReadDtos().stream()
+        .map(d -> d.withAttributes(List.copyOf(byDevice.getOrDefault(d.id(), List.of()))))
+        .toList();
+    List<AttributeReadDto> attributes = attributeRepository.findAllReadDtos();
+
+    CatalogSnapshot previous = current.get();
+    if (previous != null && previous.sameContent(devices, attributes)) {
+      return previous;
+    }
+    // Startzeit als erste Version, damit ETags einen Neustart nicht überleben
+    long version = previous == null ? System.currentTimeMillis() : previous.version() + 1;
+    CatalogSnapshot next = new CatalogSnapshot(version, devices, attributes);
+    current.set(next);
+    return next;
+  }
+}
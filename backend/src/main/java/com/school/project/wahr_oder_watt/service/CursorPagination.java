@@ -0,0 +1,47 @@
+package com.school.project.wahr_oder_watt.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gemeinsame Grenzen für Keyset-paginierte Listen.
+ */
+@Component
+public class CursorPagination {
+
+  @Value("${app.pagination.default-page-size:50}")
+  private int defaultPageSize;
+
+  @Value("${app.pagination.max-page-size:100}")
+  private int maxPageSize;
+
+  /**
+   * Begrenzt die angefragte Seitengröße auf das konfigurierte Maximum.
+   *
+   * @param requested angefragte Seitengröße, darf null sein.
+   * @return die tatsächliche Seitengröße.
+   */
+  public int pageSize(Integer requested) {
+    if (requested == null || requested <= 0) {
+      return defaultPageSize;
+    }
+    return Math.min(requested, maxPageSize);
+  }
+
+  /**
+   * @param pageSize die Seitengröße.
+   * @return Limit für die Abfrage, ein Eintrag mehr als die Seite, um eine Folgeseite zu erkennen.
+   */
+  public Limit fetchLimit(int pageSize) {
+    return Limit.of(pageSize + 1);
+  }
+
+  /**
+   * @param after der Cursor aus der vorherigen Seite, darf null sein.
+   * @return die ID, nach der die Seite beginnt.
+   */
+  public long after(Long after) {
+    return after == null ? 0L : after;
+  }
+}
@@ -1,5 +1,7 @@
 package com.school.project.wahr_oder_watt.service;
 
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.DeviceReadDto;
 import com.school.project.wahr_oder_watt.model.Device;
 import com.school.project.wahr_oder_watt.repository.DeviceRepository;
 import java.util.List;
@@ -11,6 +13,8 @@ import org.springframework.stereotype.Service;
 public class DeviceService {
 
   private final DeviceRepository deviceRepository;
+  private final CursorPagination pagination;
+  private final CatalogStore catalogStore;
 
   /**
    * Gibt alle Geräte zurück.
@@ -21,6 +25,41 @@ public class DeviceService {
     return deviceRepository.findAll();
   }
 
+  /**
+   * Gibt eine Seite von Geräten zurück, aufsteigend nach ID.
+   *
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @param active optionaler Filter auf den Aktivitätsstatus.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<DeviceReadDto> findPage(Long after, Integer limit, Boolean active) {
+    return findPage(catalogStore.snapshot(), after, limit, active);
+  }
+
+  /**
+   * Gibt eine Seite von Geräten aus einem bestimmten Katalogstand zurück.
+   *
+   * @param catalog Katalogstand, aus dem gelesen wird.
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @param active optionaler Filter auf den Aktivitätsstatus.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<DeviceReadDto> findPage(CatalogSnapshot catalog, Long after, Integer limit,
+      Boolean active) {
+    int size = pagination.pageSize(limit);
+    List<DeviceReadDto> rows = catalog.devicesAfter(pagination.after(after), active, size + 1);
+    return CursorPage.of(rows, size, DeviceReadDto::id);
+  }
+
+  /**
+   * @return der aktuelle Katalogstand, dessen Version als ETag dient.
+   */
+  public CatalogSnapshot catalog() {
+    return catalogStore.snapshot();
+  }
+
   /**
    * Sucht ein Gerät anhand der ID.
    *
@@ -33,6 +72,30 @@ public class DeviceService {
         .orElseThrow(() -> new RuntimeException("Gerät nicht gefunden mit ID: " + id));
   }
 
+  /**
+   * Sucht ein Gerät anhand der ID und liefert das Lesemodell inklusive Attributen.
+   *
+   * @param id ID des gesuchten Geräts.
+   * @return Lesemodell des Geräts.
+   * @throws RuntimeException falls das Gerät nicht gefunden wird.
+   */
+  public DeviceReadDto findReadDtoById(Long id) {
+    return findReadDtoById(catalogStore.snapshot(), id);
+  }
+
+  /**
+   * Sucht ein Gerät in einem bestimmten Katalogstand.
+   *
+   * @param catalog Katalogstand, aus dem gelesen wird.
+   * @param id ID des gesuchten Geräts.
+   * @return Lesemodell des Geräts.
+   * @throws RuntimeException falls das Gerät nicht gefunden wird.
+   */
+  public DeviceReadDto findReadDtoById(CatalogSnapshot catalog, Long id) {
+    return catalog.device(id)
+        .orElseThrow(() -> new RuntimeException("Gerät nicht gefunden mit ID: " + id));
+  }
+
   /**
    * Speichert ein neues Gerät.
    *
@@ -40,7 +103,9 @@ public class DeviceService {
    * @return Das gespeicherte Gerät.
    */
   public Device save(Device device) {
-    return deviceRepository.save(device);
+    Device saved = deviceRepository.save(device);
+    catalogStore.reloadAfterCommit();
+    return saved;
   }
 
   /**
@@ -57,7 +122,9 @@ public class DeviceService {
     existingDevice.setDescription(device.getDescription());
     existingDevice.setActive(device.isActive());
     existingDevice.setAttributes(device.getAttributes());
-    return deviceRepository.save(existingDevice);
+    Device saved = deviceRepository.save(existingDevice);
+    catalogStore.reloadAfterCommit();
+    return saved;
   }
 
   /**
@@ -67,5 +134,6 @@ public class DeviceService {
    */
   public void delete(Long id) {
     deviceRepository.deleteById(id);
+    catalogStore.reloadAfterCommit();
   }
 }
@@ -0,0 +1,399 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.AnswerResult;
+import com.school.project.wahr_oder_watt.dto.DeckAnswerRequest;
+import com.school.project.wahr_oder_watt.dto.DeckAnswerResult;
+import com.school.project.wahr_oder_watt.dto.DuelStateDto;
+import com.school.project.wahr_oder_watt.dto.SpeedrunCard;
+import com.school.project.wahr_oder_watt.dto.SpeedrunDeckDto;
+import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelEvent;
+import com.school.project.wahr_oder_watt.model.DuelEventType;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.service.QuestionGenerator.Question;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Führt laufende Duelle im Speicher.
+ *
+ * <p>Jedes Duell ist ein {@link ActiveDuel} mit eigener Mailbox; Befehle eines Duells laufen
+ * nacheinander, verschiedene Duelle parallel und ohne gemeinsame Sperre. Antworten werden im
+ * Speicher gegen vorberechnete Bitmasken ({@link AttributeMasks}) ausgewertet. Abgeschlossene
+ * Runden und das Ende des Duells gehen an den {@link DuelWriteBehind}, der sie gesammelt in die
+ * Datenbank schreibt.
+ *
+ * <p>Die Zeitlimits setzt der Server durch: Im Rundenduell hat jede Runde eine eigene Frist, im
+ * Speedrun das ganze Duell. Läuft eine Frist im {@link TimingWheel} ab, wird die Runde ohne die
+ * fehlenden Antworten geschlossen bzw. das Duell beendet. Der Ticker reicht den Ablauf nur an einen
+ * eigenen Thread-Pool weiter, damit ein langsames Duell keine anderen Fristen verzögert.
+ *
+ * <p>Im Speedrun bekommt jeder Spieler die Fragen als Deck: {@link #deck} teilt die nächsten Karten
+ * mit allen Bild-URLs auf einmal aus, {@link #answerDeck} nimmt mehrere Antworten gesammelt an und
+ * legt Karten nach, sobald weniger als {@code refillBelow} übrig sind. Zwischen zwei Fragen wartet
+ * der Client damit nie auf das Netz; ausgewertet wird trotzdem auf dem Server.
+ */
+@Service
+public class DuelEngine {
+
+  /** Obergrenze für protokollierte Attribut-IDs pro Antwort, passend zur Spaltenlänge. */
+  private static final int MAX_LOGGED_ATTRIBUTES = 64;
+
+  private final Map<Long, ActiveDuel> active = new ConcurrentHashMap<>();
+  private final QuestionPool questionPool;
+  private final DuelWriteBehind writeBehind;
+  private final DuelEventLog eventLog;
+  private final DuelSpectators spectators;
+  private final int speedrunRounds;
+  private final long roundTimeoutMs;
+  private final long speedrunDurationMs;
+  private final int deckSize;
+  private final int refillBelow;
+  private final TimingWheel timers;
+  private final ExecutorService expiries;
+
+  public DuelEngine(QuestionPool questionPool, DuelWriteBehind writeBehind,
+      DuelEventLog eventLog, DuelSpectators spectators,
+      @Value("${app.duel.speedrun-rounds:30}") int speedrunRounds,
+      @Value("${app.duel.round-timeout:10000}") long roundTimeoutMs,
+      @Value("${app.duel.speedrun-duration:60000}") long speedrunDurationMs,
+      @Value("${app.duel.timer-tick:10}") long timerTickMs,
+      @Value("${app.duel.timeout-threads:2}") int timeoutThreads,
+      @Value("${app.duel.speedrun.deck-size:10}") int deckSize,
+      @Value("${app.duel.speedrun.refill-below:4}") int refillBelow) {
+    this.questionPool = questionPool;
+    this.writeBehind = writeBehind;
+    this.eventLog = eventLog;
+    this.spectators = spectators;
+    this.speedrunRounds = speedrunRounds;
+    this.roundTimeoutMs = roundTimeoutMs;
+    this.speedrunDurationMs = speedrunDurationMs;
+    this.deckSize = deckSize;
+    this.refillBelow = refillBelow;
+    this.timers = new TimingWheel(timerTickMs, () -> System.nanoTime() / 1_000_000);
+    this.expiries = Executors.newFixedThreadPool(timeoutThreads, r -> {
+      Thread t = new Thread(r, "duel-timeouts");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  @PostConstruct
+  void startTimers() {
+    timers.start();
+  }
+
+  @PreDestroy
+  void stopTimers() {
+    timers.stop();
+    expiries.shutdown();
+  }
+
+  /**
+   * Übernimmt ein frisch gestartetes Duell. Die Fragen kommen aus dem {@link QuestionPool} im
+   * Speicher; das Duell braucht die Datenbank erst wieder beim Schreiben der Ergebnisse.
+   *
+   * @param duel das laufende Duell mit seinen Spielern.
+   */
+  public void start(Duel duel) {
+    start(duel, ThreadLocalRandom.current().nextLong());
+  }
+
+  /**
+   * Übernimmt ein Duell mit festem Seed für die Fragen, z.B. für reproduzierbare Tests.
+   *
+   * @param duel das laufende Duell mit seinen Spielern.
+   * @param seed Seed für die Auswahl der Fragen.
+   */
+  public void start(Duel duel, long seed) {
+    long[] playerIds = duel.getPlayers().stream().mapToLong(User::getId).toArray();
+    int rounds = duel.getMode().maxRounds > 0 ? duel.getMode().maxRounds : speedrunRounds;
+    List<Question> questions = questionPool.draw(rounds, seed);
+    List<Long> deviceIds = questions.stream().map(Question::deviceId).toList();
+    Map<Long, Set<Long>> correct = questions.stream()
+        .collect(Collectors.toMap(Question::deviceId, Question::correct));
+    List<SpeedrunCard> deck = duel.getMode() == DuelMode.SPEEDRUN
+        ? questionPool.cards(questions) : List.of();
+    ActiveDuel activeDuel = new ActiveDuel(duel.getId(), duel.getMode(), playerIds, questions,
+        AttributeMasks.of(deviceIds, correct), deck);
+    record(activeDuel, DuelEventType.DUEL_CREATED, null, null, null, null, duel.getMode().name());
+    for (long playerId : playerIds) {
+      record(activeDuel, DuelEventType.PLAYER_JOINED, playerId, null, null, null, null);
+    }
+    record(activeDuel, DuelEventType.ROUND_STARTED, null, 1, activeDuel.currentDeviceId(), null,
+        null);
+    arm(activeDuel);
+    active.put(duel.getId(), activeDuel);
+  }
+
+  /**
+   * Wertet die Antwort eines Spielers aus. Läuft komplett im Speicher.
+   *
+   * @param duelId ID des Duells.
+   * @param userId ID des Spielers.
+   * @param round Runde, auf die sich die Antwort bezieht.
+   * @param attributeIds gewählte Attribute.
+   * @return Ergebnis der Antwort.
+   * @throws RuntimeException falls das Duell nicht läuft.
+   */
+  public AnswerResult answer(Long duelId, Long userId, int round, Collection<Long> attributeIds) {
+    ActiveDuel duel = require(duelId);
+    return await(duel.submit(() -> {
+      int before = duel.roundNumber();
+      AnswerResult result = duel.answer(userId, round, attributeIds,
+          points -> record(duel, DuelEventType.ANSWER_SUBMITTED, userId, round, null, points,
+              payload(attributeIds)),
+          closed -> roundClosed(duel, closed));
+      afterCommand(duel, before);
+      return result;
+    }));
+  }
+
+  /**
+   * Teilt einem Spieler im Speedrun die nächsten Karten aus. Bereits ausgeteilte, noch nicht
+   * beantwortete Karten kommen erneut mit, damit ein Client nach einem Neuladen weiterspielen kann.
+   *
+   * @param duelId ID des Duells.
+   * @param userId ID des Spielers.
+   * @return die nächsten Karten des Spielers.
+   * @throws RuntimeException falls das Duell nicht läuft.
+   * @throws IllegalStateException falls das Duell kein Speedrun ist.
+   */
+  public SpeedrunDeckDto deck(Long duelId, Long userId) {
+    ActiveDuel duel = requireSpeedrun(duelId);
+    return await(duel.submit(() -> {
+      List<SpeedrunCard> cards = duel.deal(userId, deckSize, true);
+      return new SpeedrunDeckDto(duel.id(), duel.deckSize(), duel.position(userId),
+          duel.isFinished() ? null : duel.deadlineAt(), cards);
+    }));
+  }
+
+  /**
+   * Wertet mehrere Speedrun-Antworten eines Spielers in einem Befehl aus. Jede Antwort wird wie
+   * eine einzelne geprüft; Antworten außer der Reihe oder auf schon beantwortete Karten werden
+   * abgelehnt.
+   *
+   * @param duelId ID des Duells.
+   * @param userId ID des Spielers.
+   * @param answers die Antworten in Spielreihenfolge.
+   * @return Ergebnis je Antwort und gegebenenfalls nachgelegte Karten.
+   * @throws RuntimeException falls das Duell nicht läuft.
+   * @throws IllegalStateException falls das Duell kein Speedrun ist.
+   */
+  public DeckAnswerResult answerDeck(Long duelId, Long userId,
+      List<DeckAnswerRequest.Answer> answers) {
+    ActiveDuel duel = requireSpeedrun(duelId);
+    return await(duel.submit(() -> {
+      List<AnswerResult> results = new ArrayList<>(answers.size());
+      for (DeckAnswerRequest.Answer answer : answers) {
+        int before = duel.roundNumber();
+        int card = answer.round();
+        List<Long> attributeIds = answer.attributeIds() != null ? answer.attributeIds() : List.of();
+        results.add(duel.answer(userId, card, attributeIds,
+            points -> record(duel, DuelEventType.ANSWER_SUBMITTED, userId, card, null, points,
+                payload(attributeIds)),
+            closed -> roundClosed(duel, closed)));
+        afterCommand(duel, before);
+      }
+      List<SpeedrunCard> refill = duel.inHand(userId) < refillBelow
+          ? duel.deal(userId, deckSize, false) : List.of();
+      return new DeckAnswerResult(results, duel.totalScore(userId),
+          duel.isFinished() ? DuelStatus.FINISHED : DuelStatus.RUNNING, refill);
+    }));
+  }
+
+  /**
+   * Schließt die laufende Runde eines Duells, z.B. wenn ihre Zeit abgelaufen ist.
+   *
+   * @param duelId ID des Duells.
+   */
+  public void closeRound(Long duelId) {
+    ActiveDuel duel = active.get(duelId);
+    if (duel != null) {
+      await(duel.submit(() -> {
+        int before = duel.roundNumber();
+        duel.closeRound(closed -> roundClosed(duel, closed));
+        afterCommand(duel, before);
+        return null;
+      }));
+    }
+  }
+
+  /**
+   * Beendet ein Duell sofort.
+   *
+   * @param duelId ID des Duells.
+   */
+  public void finish(Long duelId) {
+    ActiveDuel duel = active.get(duelId);
+    if (duel != null) {
+      await(duel.submit(() -> {
+        duel.finish();
+        afterCommand(duel, duel.roundNumber());
+        return null;
+      }));
+    }
+  }
+
+  /**
+   * Gibt den aktuellen Stand eines laufenden Duells zurück.
+   *
+   * @param duelId ID des Duells.
+   * @return Momentaufnahme des Duells.
+   * @throws RuntimeException falls das Duell nicht läuft.
+   */
+  public DuelStateDto state(Long duelId) {
+    ActiveDuel duel = require(duelId);
+    return await(duel.submit(duel::snapshot));
+  }
+
+  /**
+   * @param duelId ID des Duells.
+   * @return true, wenn das Duell im Speicher läuft.
+   */
+  public boolean isActive(Long duelId) {
+    return active.containsKey(duelId);
+  }
+
+  /**
+   * @return Anzahl der laufenden Duelle.
+   */
+  public int activeCount() {
+    return active.size();
+  }
+
+  /**
+   * @return Anzahl der laufenden Fristen.
+   */
+  public int pendingTimers() {
+    return timers.pendingCount();
+  }
+
+  /**
+   * Setzt die Frist für die laufende Runde bzw. im Speedrun für das ganze Duell. Nur im
+   * Mailbox-Thread oder vor der Veröffentlichung aufrufen.
+   */
+  private void arm(ActiveDuel duel) {
+    long delay = duel.mode() == DuelMode.SPEEDRUN ? speedrunDurationMs : roundTimeoutMs;
+    int round = duel.roundNumber();
+    TimingWheel.Timeout timeout = timers.schedule(delay, () -> expire(duel, round));
+    duel.arm(timeout, System.currentTimeMillis() + delay);
+  }
+
+  /**
+   * Läuft im Ticker-Thread und gibt den Ablauf nur an den Pool weiter. Dort landet er in der
+   * Mailbox, die der Pool-Thread dann gegebenenfalls selbst abarbeitet, samt Schreibpuffer,
+   * Ereignisprotokoll und Zuschauern.
+   */
+  private void expire(ActiveDuel duel, int round) {
+    expiries.execute(() -> duel.submit(() -> {
+      if (duel.isFinished() || duel.roundNumber() != round) {
+        // die Runde wurde inzwischen regulär geschlossen
+        return null;
+      }
+      if (duel.mode() == DuelMode.SPEEDRUN) {
+        duel.finish();
+      } else {
+        duel.closeRound(closed -> roundClosed(duel, closed));
+      }
+      afterCommand(duel, round);
+      return null;
+    }));
+  }
+
+  /**
+   * Zieht nach einem Befehl die Frist nach: neue Runde im Rundenduell neu setzen, beendetes Duell
+   * abbrechen und abgeben. Meldet den neuen Stand an Zuschauer, falls es welche gibt. Nur im
+   * Mailbox-Thread aufrufen.
+   */
+  private void afterCommand(ActiveDuel duel, int roundBefore) {
+    if (duel.isFinished()) {
+      duel.disarm();
+      finishIfDone(duel);
+    } else if (duel.roundNumber() != roundBefore) {
+      record(duel, DuelEventType.ROUND_STARTED, null, duel.roundNumber(), duel.currentDeviceId(),
+          null, null);
+      if (duel.mode() != DuelMode.SPEEDRUN) {
+        arm(duel);
+      }
+    }
+    if (spectators.isWatched(duel.id())) {
+      spectators.publish(duel.id(), duel.snapshot());
+    }
+  }
+
+  /**
+   * Hängt ein Ereignis an das Protokoll an. Nur im Mailbox-Thread oder vor der Veröffentlichung
+   * aufrufen, damit die fortlaufende Nummer stimmt.
+   */
+  private void record(ActiveDuel duel, DuelEventType type, Long userId, Integer round,
+      Long deviceId, Integer points, String payload) {
+    eventLog.append(new DuelEvent(null, duel.id(), duel.nextEventSeq(), type, userId, round,
+        deviceId, points, payload, Instant.now()));
+  }
+
+  private static String payload(Collection<Long> attributeIds) {
+    return attributeIds.stream().limit(MAX_LOGGED_ATTRIBUTES).map(String::valueOf)
+        .collect(Collectors.joining(","));
+  }
+
+  private void roundClosed(ActiveDuel duel, ActiveDuel.RoundClosed round) {
+    record(duel, DuelEventType.ROUND_SCORED, null, round.roundNumber(), round.deviceId(), null,
+        null);
+    writeBehind.roundClosed(round.duelId(), round.roundNumber(), round.deviceId());
+  }
+
+  private void finishIfDone(ActiveDuel duel) {
+    // erst an den Schreibpuffer, dann aus active: Die Wartung sieht das Duell so immer entweder
+    // als aktiv oder als ausstehend und bricht es nicht ab
+    if (duel.isFinished() && active.get(duel.id()) == duel) {
+      record(duel, DuelEventType.DUEL_FINISHED, null, null, null, null, null);
+      writeBehind.duelFinished(duel.id(), duel.playerIds(), duel.totalScores());
+      active.remove(duel.id(), duel);
+    }
+  }
+
+  private ActiveDuel requireSpeedrun(Long duelId) {
+    ActiveDuel duel = require(duelId);
+    if (duel.mode() != DuelMode.SPEEDRUN) {
+      throw new IllegalStateException("Duell ist kein Speedrun: " + duelId);
+    }
+    return duel;
+  }
+
+  private ActiveDuel require(Long duelId) {
+    ActiveDuel duel = active.get(duelId);
+    if (duel == null) {
+      throw new RuntimeException("Laufendes Duell nicht gefunden mit ID: " + duelId);
+    }
+    return duel;
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.DuelReplayDto;
+import com.school.project.wahr_oder_watt.dto.DuelStateDto;
+import com.school.project.wahr_oder_watt.model.DuelEvent;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.repository.DuelEventRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ereignisprotokoll der Duelle.
+ *
+ * <p>Die {@link DuelEngine} hängt Ereignisse nur an einen Puffer im Speicher an. Geschrieben wird
+ * per JDBC-Batch, sobald {@code batchSize} Ereignisse anstehen oder spätestens nach
+ * {@code app.duel.events.flush-interval}. Aus den Ereignissen lässt sich der Stand jedes
+ * abgeschlossenen Duells nachvollziehen ({@link #replay(Long)}).
+ *
+ * <p>Laufende Duelle werden nach einem Neustart nicht aus dem Protokoll wiederhergestellt: Es
+ * enthält weder die noch offenen Fragen noch den Stand der Speedrun-Decks. Solche Duelle räumt die
+ * {@link DuelMaintenance} nach {@code app.duel.maintenance.stale-after} als abgelaufen ab.
+ *
+ * <p>Scheitert ein Stapel, wird er Ereignis für Ereignis wiederholt; was auch einzeln scheitert,
+ * kommt beim nächsten Flush erneut dran und wird nach {@code maxAttempts} Fehlversuchen verworfen.
+ * Das Einfügen ist idempotent, ein wiederholtes Ereignis entsteht also nicht doppelt. Gelesen wird
+ * nur, was schon geschrieben ist; {@link #isWritten(Long)} sagt, ob von einem Duell noch etwas
+ * aussteht.
+ */
+@Slf4j
+@Component
+public class DuelEventLog {
+
+  /**
+   * Ein Ereignis im Puffer mit der Anzahl seiner bisherigen Fehlversuche.
+   */
+  private record Queued(DuelEvent event, int failures) {
+  }
+
+  private final BlockingQueue<Queued> buffer = new LinkedBlockingQueue<>();
+  private final Map<Long, Integer> pendingByDuel = new ConcurrentHashMap<>();
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private final DuelEventRepository eventRepository;
+  private final ExecutorService flusher;
+  private final int batchSize;
+  private final int maxAttempts;
+
+  public DuelEventLog(DuelEventRepository eventRepository,
+      @Value("${app.duel.events.batch-size:500}") int batchSize,
+      @Value("${app.duel.events.max-attempts:5}") int maxAttempts) {
+    this.eventRepository = eventRepository;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.flusher = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "duel-events");
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /**
+   * Hängt ein Ereignis an. Blockiert nie; ist der Puffer voll genug, wird im Hintergrund
+   * geschrieben.
+   *
+   * @param event das Ereignis.
+   */
+  public void append(DuelEvent event) {
+    pendingByDuel.merge(event.getDuelId(), 1, Integer::sum);
+    buffer.add(new Queued(event, 0));
+    if (buffer.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+      flusher.execute(() -> {
+        flushRequested.set(false);
+        flush();
+      });
+    }
+  }
+
+  /**
+   * @return Anzahl der noch nicht geschriebenen Ereignisse.
+   */
+  public int pendingCount() {
+    return buffer.size();
+  }
+
+  /**
+   * @param duelId ID des Duells.
+   * @return true, wenn kein Ereignis des Duells mehr im Puffer wartet.
+   */
+  public boolean isWritten(Long duelId) {
+    return !pendingByDuel.containsKey(duelId);
+  }
+
+  /**
+   * Schreibt alle gepufferten Ereignisse stapelweise.
+   *
+   * @return Anzahl der geschriebenen Ereignisse.
+   */
+  @Scheduled(fixedDelayString = "${app.duel.events.flush-interval:100}")
+  public synchronized int flush() {
+    int written = 0;
+    List<Queued> batch = new ArrayList<>(batchSize);
+    // erst nach diesem Flush wieder einreihen, sonst würde ein Fehler sofort wiederholt
+    List<Queued> retries = new ArrayList<>();
+    while (buffer.drainTo(batch, batchSize) > 0) {
+      try {
+        eventRepository.insertAll(batch.stream().map(Queued::event).toList());
+        batch.forEach(queued -> done(queued.event()));
+        written += batch.size();
+      } catch (RuntimeException e) {
+        log.warn("{} Duell-Ereignisse fehlgeschlagen, schreibe einzeln", batch.size(), e);
+        for (Queued queued : batch) {
+          try {
+            eventRepository.insertAll(List.of(queued.event()));
+            done(queued.event());
+            written++;
+          } catch (RuntimeException single) {
+            failed(queued, single, retries);
+          }
+        }
+      }
+      batch.clear();
+    }
+    buffer.addAll(retries);
+    return written;
+  }
+
+  private void failed(Queued queued, RuntimeException e, List<Queued> retries) {
+    DuelEvent event = queued.event();
+    int failures = queued.failures() + 1;
+    if (failures < maxAttempts) {
+      log.warn("Ereignis {} von Duell {} fehlgeschlagen (Versuch {}): {}", event.getSeq(),
+          event.getDuelId(), failures, e.getMessage());
+      retries.add(new Queued(event, failures));
+    } else {
+      log.error("Ereignis {} von Duell {} nach {} Versuchen verworfen", event.getSeq(),
+          event.getDuelId(), failures, e);
+      done(event);
+    }
+  }
+
+  private void done(DuelEvent event) {
+    pendingByDuel.computeIfPresent(event.getDuelId(), (id, n) -> n > 1 ? n - 1 : null);
+  }
+
+  /**
+   * Gibt alle geschriebenen Ereignisse eines Duells in ihrer Reihenfolge zurück. Ob noch welche
+   * im Puffer warten, sagt {@link #isWritten(Long)}.
+   *
+   * @param duelId ID des Duells.
+   * @return die Ereignisse.
+   */
+  public List<DuelEvent> events(Long duelId) {
+    return eventRepository.findByDuelId(duelId);
+  }
+
+  /**
+   * Stellt den Stand eines Duells allein aus seinen Ereignissen wieder her.
+   *
+   * @param duelId ID des Duells.
+   * @return der wiederhergestellte Stand.
+   * @throws RuntimeException falls für das Duell keine Ereignisse vorliegen.
+   */
+  public DuelReplayDto replay(Long duelId) {
+    List<DuelEvent> events = events(duelId);
+    if (events.isEmpty()) {
+      throw new RuntimeException("Ereignisse nicht gefunden für Duell mit ID: " + duelId);
+    }
+    return fold(duelId, events);
+  }
+
+  static DuelReplayDto fold(Long duelId, List<DuelEvent> events) {
+    DuelMode mode = null;
+    DuelStatus status = DuelStatus.WAITING;
+    int roundNumber = 0;
+    List<DuelReplayDto.Round> rounds = new ArrayList<>();
+    Map<Long, int[]> scores = new LinkedHashMap<>();
+    Map<Long, Boolean> answered = new LinkedHashMap<>();
+    for (DuelEvent event : events) {
+      switch (event.getType()) {
+        case DUEL_CREATED -> {
+          mode = DuelMode.valueOf(event.getPayload());
+          status = DuelStatus.RUNNING;
+        }
+        case PLAYER_JOINED -> {
+          scores.put(event.getUserId(), new int[1]);
+          answered.put(event.getUserId(), false);
+        }
+        case ROUND_STARTED -> {
+          roundNumber = event.getRoundNumber();
+          answered.replaceAll((id, a) -> false);
+        }
+        case ANSWER_SUBMITTED -> {
+          scores.computeIfAbsent(event.getUserId(), id -> new int[1])[0] += event.getPoints();
+          answered.put(event.getUserId(), true);
+        }
+        case ROUND_SCORED ->
+            rounds.add(new DuelReplayDto.Round(event.getRoundNumber(), event.getDeviceId()));
+        case DUEL_FINISHED -> status = DuelStatus.FINISHED;
+      }
+    }
+    List<DuelStateDto.PlayerState> players = new ArrayList<>(scores.size());
+    scores.forEach((id, score) -> players.add(
+        new DuelStateDto.PlayerState(id, score[0], answered.getOrDefault(id, false))));
+    return new DuelReplayDto(duelId, mode, status, roundNumber, rounds, players, events.size());
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flusher.shutdown();
+    flush();
+  }
+}
@@ -0,0 +1,252 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.DuelPlayerRow;
+import com.school.project.wahr_oder_watt.dto.DuelRoundRow;
+import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelArchive;
+import com.school.project.wahr_oder_watt.model.DuelPlayer;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.repository.DuelArchiveRepository;
+import com.school.project.wahr_oder_watt.repository.DuelPlayerRepository;
+import com.school.project.wahr_oder_watt.repository.DuelRepository;
+import com.school.project.wahr_oder_watt.repository.MaintenanceLeaseRepository;
+import com.school.project.wahr_oder_watt.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hält die Duell-Tabellen klein.
+ *
+ * <p>Ein regelmäßiger Lauf bricht Duelle ab, die zu lange in WAITING oder RUNNING hängen, nicht
+ * in der {@link DuelEngine} laufen und keinen Vorgang mehr im {@link DuelWriteBehind} haben, trägt
+ * sie in die Historie der Spieler ein und gibt diese frei. Danach verschiebt er länger beendete
+ * Duelle als {@link DuelArchive} in die Archivtabelle und löscht sie samt Runden. Beides geschieht
+ * in Stapeln von {@code chunkSize} Duellen, jeweils in einer eigenen Transaktion.
+ *
+ * <p>Laufen mehrere Knoten, arbeitet nur der, der die Sperre {@value #LEASE} hält. Er verlängert
+ * sie bei jedem Lauf; fällt er aus, übernimmt ein anderer Knoten nach Ablauf der Sperre.
+ */
+@Slf4j
+@Component
+public class DuelMaintenance {
+
+  static final String LEASE = "duel-maintenance";
+
+  private static final List<DuelStatus> OPEN = List.of(DuelStatus.WAITING, DuelStatus.RUNNING);
+  private static final List<DuelStatus> CLOSED = List.of(DuelStatus.FINISHED, DuelStatus.EXPIRED);
+
+  private final String owner = UUID.randomUUID().toString();
+  private final DuelRepository duelRepository;
+  private final DuelPlayerRepository duelPlayerRepository;
+  private final UserRepository userRepository;
+  private final DuelArchiveRepository archiveRepository;
+  private final MaintenanceLeaseRepository leaseRepository;
+  private final DuelEngine duelEngine;
+  private final DuelWriteBehind writeBehind;
+  private final PresenceRegistry presenceRegistry;
+  private final TransactionTemplate transactionTemplate;
+  private final OptimisticRetry retry;
+  private final long staleAfterMs;
+  private final long archiveAfterMs;
+  private final int chunkSize;
+  private final int maxChunks;
+  private final long leaseMs;
+
+  public DuelMaintenance(DuelRepository duelRepository,
+      DuelPlayerRepository duelPlayerRepository, UserRepository userRepository,
+      DuelArchiveRepository archiveRepository, MaintenanceLeaseRepository leaseRepository,
+      DuelEngine duelEngine, DuelWriteBehind writeBehind, PresenceRegistry presenceRegistry,
+      TransactionTemplate transactionTemplate, OptimisticRetry retry,
+      @Value("${app.duel.maintenance.stale-after:600000}") long staleAfterMs,
+      @Value("${app.duel.maintenance.archive-after:86400000}") long archiveAfterMs,
+      @Value("${app.duel.maintenance.chunk-size:500}") int chunkSize,
+      @Value("${app.duel.maintenance.max-chunks:20}") int maxChunks,
+      @Value("${app.duel.maintenance.lease:300000}") long leaseMs) {
+    this.duelRepository = duelRepository;
+    this.duelPlayerRepository = duelPlayerRepository;
+    this.userRepository = userRepository;
+    this.archiveRepository = archiveRepository;
+    this.leaseRepository = leaseRepository;
+    this.duelEngine = duelEngine;
+    this.writeBehind = writeBehind;
+    this.presenceRegistry = presenceRegistry;
+    this.transactionTemplate = transactionTemplate;
+    this.retry = retry;
+    this.staleAfterMs = staleAfterMs;
+    this.archiveAfterMs = archiveAfterMs;
+    this.chunkSize = chunkSize;
+    this.maxChunks = maxChunks;
+    this.leaseMs = leaseMs;
+  }
+
+  /**
+   * Führt einen Wartungslauf aus, sofern dieser Knoten die Sperre bekommt.
+   */
+  @Scheduled(initialDelayString = "${app.duel.maintenance.interval:60000}",
+      fixedDelayString = "${app.duel.maintenance.interval:60000}")
+  public void run() {
+    try {
+      if (!acquireLease()) {
+        return;
+      }
+      int expired = expireStale();
+      int archived = archiveFinished();
+      if (expired > 0 || archived > 0) {
+        log.info("Duell-Wartung: {} abgebrochen, {} archiviert", expired, archived);
+      }
+    } catch (RuntimeException e) {
+      log.error("Duell-Wartung fehlgeschlagen", e);
+    }
+  }
+
+  /**
+   * Bricht hängengebliebene Duelle ab und gibt ihre Spieler frei.
+   *
+   * @return Anzahl der abgebrochenen Duelle.
+   */
+  public int expireStale() {
+    Instant now = Instant.now();
+    Instant cutoff = now.minusMillis(staleAfterMs);
+    int expired = 0;
+    long after = 0;
+    for (int chunk = 0; chunk < maxChunks; chunk++) {
+      List<Long> ids = duelRepository.findIdsCreatedBefore(after, OPEN, cutoff,
+          Limit.of(chunkSize));
+      if (ids.isEmpty()) {
+        break;
+      }
+      after = ids.get(ids.size() - 1);
+      // in dieser Reihenfolge: Die Engine meldet das Ende an den Schreibpuffer, bevor sie das
+      // Duell aus active entfernt; ein eben beendetes Duell wird also nicht abgebrochen
+      List<Long> stale = ids.stream()
+          .filter(id -> !duelEngine.isActive(id) && !writeBehind.isPending(id))
+          .toList();
+      if (!stale.isEmpty()) {
+        List<Long> freed = transactionTemplate.execute(tx -> {
+          List<DuelPlayerRow> players = userRepository.findPlayersOfDuels(stale);
+          duelPlayerRepository.saveAll(history(stale, players, now));
+          duelRepository.expire(stale, OPEN, now);
+          userRepository.clearDuels(stale);
+          return players.stream().map(row -> row.player().getId()).toList();
+        });
+        // erst nach dem Commit, damit /available die Spieler schon als frei sieht
+        freed.forEach(presenceRegistry::becameFree);
+        expired += stale.size();
+      }
+      if (ids.size() < chunkSize) {
+        break;
+      }
+    }
+    return expired;
+  }
+
+  /**
+   * Verschiebt lange beendete Duelle ins Archiv.
+   *
+   * @return Anzahl der archivierten Duelle.
+   */
+  public int archiveFinished() {
+    Instant now = Instant.now();
+    Instant cutoff = now.minusMillis(archiveAfterMs);
+    int archived = 0;
+    long after = 0;
+    for (int chunk = 0; chunk < maxChunks; chunk++) {
+      List<Long> ids = duelRepository.findIdsFinishedBefore(after, CLOSED, cutoff,
+          Limit.of(chunkSize));
+      if (ids.isEmpty()) {
+        break;
+      }
+      after = ids.get(ids.size() - 1);
+      archived += retry.execute(tx -> archive(ids, now));
+      if (ids.size() < chunkSize) {
+        break;
+      }
+    }
+    return archived;
+  }
+
+  private List<DuelPlayer> history(List<Long> ids, List<DuelPlayerRow> players, Instant now) {
+    Map<Long, Duel> duels = duelRepository.findAllById(ids).stream()
+        .collect(Collectors.toMap(Duel::getId, Function.identity()));
+    Map<Long, List<Long>> playersByDuel = players.stream().collect(Collectors.groupingBy(
+        DuelPlayerRow::duelId, Collectors.mapping(row -> row.player().getId(),
+            Collectors.toList())));
+    List<DuelPlayer> rows = new ArrayList<>();
+    playersByDuel.forEach((duelId, userIds) -> {
+      Duel duel = duels.get(duelId);
+      // Duelle ohne Modus stammen aus der Zeit vor der Historie und bekommen keinen Eintrag
+      if (duel == null || duel.getMode() == null || !OPEN.contains(duel.getStatus())) {
+        return;
+      }
+      for (Long userId : userIds) {
+        Long opponentId = userIds.size() == 2 ? userIds.get(userIds.get(0).equals(userId) ? 1 : 0)
+            : null;
+        rows.add(new DuelPlayer(null, duelId, userId, opponentId, duel.getMode(),
+            DuelStatus.EXPIRED, 0, now));
+      }
+    });
+    return rows;
+  }
+
+  private int archive(List<Long> ids, Instant now) {
+    // zuerst lösen: Duel.players kaskadiert das Löschen auf noch zugeordnete Benutzer
+    userRepository.clearDuels(ids);
+    Map<Long, List<DuelRoundRow>> rounds = duelRepository.findRoundsOfDuels(ids).stream()
+        .collect(Collectors.groupingBy(DuelRoundRow::duelId));
+    List<Duel> duels = duelRepository.findAllById(ids);
+    List<DuelArchive> rows = duels.stream().map(duel -> {
+      List<DuelRoundRow> played = rounds.getOrDefault(duel.getId(), List.of());
+      String deviceIds = played.stream()
+          .map(row -> String.valueOf(row.round().deviceId()))
+          .collect(Collectors.joining(","));
+      return new DuelArchive(duel.getId(), duel.getMode(), duel.getStatus(), duel.getCreatedAt(),
+          duel.getFinishedAt(), played.size(), deviceIds, now);
+    }).toList();
+    archiveRepository.saveAll(rows);
+    duelRepository.deleteAll(duels);
+    return duels.size();
+  }
+
+  private boolean acquireLease() {
+    Instant now = Instant.now();
+    Instant until = now.plusMillis(leaseMs);
+    Boolean acquired = transactionTemplate.execute(
+        tx -> leaseRepository.tryAcquire(LEASE, owner, now, until) == 1);
+    if (Boolean.TRUE.equals(acquired)) {
+      return true;
+    }
+    if (leaseRepository.existsById(LEASE)) {
+      return false;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(tx -> leaseRepository.insert(LEASE, owner, until));
+      return true;
+    } catch (DataIntegrityViolationException e) {
+      // ein anderer Knoten war schneller
+      return false;
+    }
+  }
+
+  @PreDestroy
+  void releaseLease() {
+    try {
+      transactionTemplate.executeWithoutResult(
+          tx -> leaseRepository.release(LEASE, owner, Instant.now()));
+    } catch (RuntimeException e) {
+      log.debug("Wartungssperre konnte nicht freigegeben werden: {}", e.getMessage());
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package com.school.project.wahr_oder_watt.service;
 
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.DuelRoundReadDto;
 import com.school.project.wahr_oder_watt.model.DuelRound;
 import com.school.project.wahr_oder_watt.repository.DuelRoundRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +17,8 @@ import java.util.List;
 public class DuelRoundService {
 
   private final DuelRoundRepository duelRoundRepository;
+  private final CursorPagination pagination;
+  private final OptimisticRetry retry;
 
   /**
    * Gibt alle Duellrunden zurück.
@@ -25,6 +29,20 @@ public class DuelRoundService {
     return duelRoundRepository.findAll();
   }
 
+  /**
+   * Gibt eine Seite von Duellrunden zurück, aufsteigend nach ID.
+   *
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<DuelRoundReadDto> findPage(Long after, Integer limit) {
+    int size = pagination.pageSize(limit);
+    List<DuelRoundReadDto> rows = duelRoundRepository.findPageAfter(pagination.after(after),
+        pagination.fetchLimit(size));
+    return CursorPage.of(rows, size, DuelRoundReadDto::id);
+  }
+
   /**
    * Sucht eine Duellrunde anhand der ID.
    *
@@ -37,6 +55,18 @@ public class DuelRoundService {
         .orElseThrow(() -> new RuntimeException("Duellrunde nicht gefunden mit ID: " + id));
   }
 
+  /**
+   * Sucht eine Duellrunde anhand der ID und liefert das Lesemodell.
+   *
+   * @param id ID der gesuchten Duellrunde.
+   * @return Lesemodell der Duellrunde.
+   * @throws RuntimeException falls die Duellrunde nicht gefunden wird.
+   */
+  public DuelRoundReadDto findReadDtoById(Long id) {
+    return duelRoundRepository.findReadDtoById(id)
+        .orElseThrow(() -> new RuntimeException("Duellrunde nicht gefunden mit ID: " + id));
+  }
+
   /**
    * Speichert eine neue Duellrunde.
    *
@@ -48,18 +78,25 @@ public class DuelRoundService {
   }
 
   /**
-   * Aktualisiert eine bestehende Duellrunde.
+   * Aktualisiert eine bestehende Duellrunde, mit Versionsprüfung wie {@link DuelService#update}.
    *
    * @param id ID der zu aktualisierenden Duellrunde.
    * @param duelRound Neue Duellrundendaten.
    * @return Die aktualisierte Duellrunde.
    * @throws RuntimeException falls die Duellrunde nicht gefunden wird.
+   * @throws StaleVersionException falls die mitgeschickte Version veraltet ist.
    */
   public DuelRound update(Long id, DuelRound duelRound) {
-    DuelRound existingRound = findById(id);
-    existingRound.setDevice(duelRound.getDevice());
-    existingRound.setRoundNumber(duelRound.getRoundNumber());
-    return duelRoundRepository.save(existingRound);
+    return retry.execute(tx -> {
+      DuelRound existingRound = findById(id);
+      if (duelRound.getVersion() != null
+          && !duelRound.getVersion().equals(existingRound.getVersion())) {
+        throw new StaleVersionException("Duellrunde wurde zwischenzeitlich geändert: " + id);
+      }
+      existingRound.setDevice(duelRound.getDevice());
+      existingRound.setRoundNumber(duelRound.getRoundNumber());
+      return duelRoundRepository.saveAndFlush(existingRound);
+    });
   }
 
   /**
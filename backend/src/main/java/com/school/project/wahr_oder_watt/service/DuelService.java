@@ -1,11 +1,32 @@
 package com.school.project.wahr_oder_watt.service;
 
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.DuelPlayerRow;
+import com.school.project.wahr_oder_watt.dto.DuelReadDto;
+import com.school.project.wahr_oder_watt.dto.DuelRoundReadDto;
+import com.school.project.wahr_oder_watt.dto.DuelRoundRow;
+import com.school.project.wahr_oder_watt.dto.PlayerDuelDto;
+import com.school.project.wahr_oder_watt.dto.UserDto;
 import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelArchive;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelRound;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.repository.DuelArchiveRepository;
+import com.school.project.wahr_oder_watt.repository.DuelPlayerRepository;
 import com.school.project.wahr_oder_watt.repository.DuelRepository;
+import com.school.project.wahr_oder_watt.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Service zur Verwaltung von Duellen.
@@ -15,6 +36,11 @@ import java.util.List;
 public class DuelService {
 
   private final DuelRepository duelRepository;
+  private final DuelPlayerRepository duelPlayerRepository;
+  private final DuelArchiveRepository archiveRepository;
+  private final UserRepository userRepository;
+  private final CursorPagination pagination;
+  private final OptimisticRetry retry;
 
   /**
    * Gibt alle Duelle zurück.
@@ -25,6 +51,48 @@ public class DuelService {
     return duelRepository.findAll();
   }
 
+  /**
+   * Gibt eine Seite von Duellen zurück, aufsteigend nach ID.
+   *
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @param status optionaler Filter auf den Status.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<DuelReadDto> findPage(Long after, Integer limit, DuelStatus status) {
+    int size = pagination.pageSize(limit);
+    long from = pagination.after(after);
+    List<DuelReadDto> rows = status == null
+        ? duelRepository.findPageAfter(from, pagination.fetchLimit(size))
+        : duelRepository.findPageAfterByStatus(from, status, pagination.fetchLimit(size));
+    CursorPage<DuelReadDto> page = CursorPage.of(rows, size, DuelReadDto::id);
+    return new CursorPage<>(withPlayersAndRounds(page.items()), page.next());
+  }
+
+  /**
+   * Gibt eine Seite der abgeschlossenen Duelle eines Spielers zurück, das zuletzt beendete zuerst.
+   *
+   * @param userId ID des Spielers.
+   * @param after ID des letzten Eintrags der vorherigen Seite, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @return Seite mit Cursor auf die nächste Seite.
+   * @throws RuntimeException falls der Cursor nicht zu diesem Spieler gehört.
+   */
+  public CursorPage<PlayerDuelDto> findDuelsOfPlayer(Long userId, Long after, Integer limit) {
+    int size = pagination.pageSize(limit);
+    List<PlayerDuelDto> rows;
+    if (after == null) {
+      rows = duelPlayerRepository.findLatest(userId, pagination.fetchLimit(size));
+    } else {
+      Instant finishedAt = duelPlayerRepository.findFinishedAt(after, userId)
+          .orElseThrow(() -> new RuntimeException("Historieneintrag nicht gefunden mit ID: "
+              + after));
+      rows = duelPlayerRepository.findLatestBefore(userId, finishedAt, after,
+          pagination.fetchLimit(size));
+    }
+    return CursorPage.of(rows, size, PlayerDuelDto::id);
+  }
+
   /**
    * Sucht ein Duell anhand der ID.
    *
@@ -37,6 +105,53 @@ public class DuelService {
         .orElseThrow(() -> new RuntimeException("Duell nicht gefunden mit ID: " + id));
   }
 
+  /**
+   * Prüft, ob ein Duell beendet oder abgebrochen ist, auch wenn es schon archiviert wurde.
+   *
+   * @param id ID des Duells.
+   * @return true bei FINISHED oder EXPIRED.
+   * @throws RuntimeException falls das Duell nicht gefunden wird.
+   */
+  public boolean isClosed(Long id) {
+    DuelStatus status = duelRepository.findStatusById(id)
+        .or(() -> archiveRepository.findById(id).map(DuelArchive::getStatus))
+        .orElseThrow(() -> new RuntimeException("Duell nicht gefunden mit ID: " + id));
+    return status == DuelStatus.FINISHED || status == DuelStatus.EXPIRED;
+  }
+
+  /**
+   * Sucht ein Duell anhand der ID und liefert das Lesemodell mit Spielern und Runden.
+   *
+   * @param id ID des gesuchten Duells.
+   * @return Lesemodell des Duells.
+   * @throws RuntimeException falls das Duell nicht gefunden wird.
+   */
+  public DuelReadDto findReadDtoById(Long id) {
+    DuelReadDto duel = duelRepository.findReadDtoById(id)
+        .orElseThrow(() -> new RuntimeException("Duell nicht gefunden mit ID: " + id));
+    return withPlayersAndRounds(List.of(duel)).get(0);
+  }
+
+  /**
+   * Lädt Spieler und Runden aller übergebenen Duelle mit je einer Abfrage.
+   */
+  private List<DuelReadDto> withPlayersAndRounds(List<DuelReadDto> duels) {
+    if (duels.isEmpty()) {
+      return duels;
+    }
+    List<Long> ids = duels.stream().map(DuelReadDto::id).toList();
+    Map<Long, List<UserDto>> players = userRepository.findPlayersOfDuels(ids).stream()
+        .collect(Collectors.groupingBy(DuelPlayerRow::duelId,
+            Collectors.mapping(DuelPlayerRow::player, Collectors.toList())));
+    Map<Long, List<DuelRoundReadDto>> rounds = duelRepository.findRoundsOfDuels(ids).stream()
+        .collect(Collectors.groupingBy(DuelRoundRow::duelId,
+            Collectors.mapping(DuelRoundRow::round, Collectors.toList())));
+    return duels.stream()
+        .map(d -> d.with(players.getOrDefault(d.id(), List.of()),
+            rounds.getOrDefault(d.id(), List.of())))
+        .toList();
+  }
+
   /**
    * Speichert ein neues Duell.
    *
@@ -48,21 +163,46 @@ public class DuelService {
   }
 
   /**
-   * Aktualisiert ein bestehendes Duell.
+   * Aktualisiert ein bestehendes Duell. Schickt der Client die Version mit, die er gelesen hat,
+   * wird nur gespeichert, wenn das Duell seitdem nicht geändert wurde. Ändert ein anderer Vorgang
+   * das Duell zwischen Lesen und Schreiben, wird die Aktualisierung auf dem neuen Stand wiederholt.
    *
    * @param id ID des zu aktualisierenden Duells.
    * @param duel Neue Duell-Daten.
    * @return Das aktualisierte Duell.
    * @throws RuntimeException falls das Duell nicht gefunden wird.
+   * @throws StaleVersionException falls die mitgeschickte Version veraltet ist.
    */
   public Duel update(Long id, Duel duel) {
-    Duel existingDuel = findById(id);
-    existingDuel.setStatus(duel.getStatus());
-    existingDuel.setMode(duel.getMode());
-    existingDuel.setRounds(duel.getRounds());
-    existingDuel.setPlayers(duel.getPlayers());
-    existingDuel.setPlaytime(duel.getPlaytime());
-    return duelRepository.save(existingDuel);
+    return retry.execute(tx -> {
+      Duel existingDuel = findById(id);
+      if (duel.getVersion() != null && !duel.getVersion().equals(existingDuel.getVersion())) {
+        throw new StaleVersionException("Duell wurde zwischenzeitlich geändert: " + id);
+      }
+      existingDuel.setStatus(duel.getStatus());
+      existingDuel.setMode(duel.getMode());
+      replaceRounds(existingDuel, duel.getRounds());
+      existingDuel.setPlayers(duel.getPlayers());
+      existingDuel.setPlaytime(duel.getPlaytime());
+      if (duel.getStatus() == DuelStatus.FINISHED && existingDuel.getFinishedAt() == null) {
+        existingDuel.setFinishedAt(Instant.now());
+      }
+      return duelRepository.saveAndFlush(existingDuel);
+    });
+  }
+
+  /**
+   * Ersetzt die Runden in der bestehenden Liste; eine neue Liste würde Hibernate beim Entfernen
+   * verwaister Runden zurückweisen.
+   */
+  private static void replaceRounds(Duel duel, List<DuelRound> rounds) {
+    if (duel.getRounds() == null) {
+      duel.setRounds(new ArrayList<>());
+    }
+    duel.getRounds().clear();
+    if (rounds != null) {
+      duel.getRounds().addAll(rounds);
+    }
   }
 
   /**
@@ -74,8 +214,38 @@ public class DuelService {
     duelRepository.deleteById(id);
   }
 
-  public Duel instantiateDuel(Duel duel) {
-    //TODO: Logik zur Initialisierung eines neuen Duells
-    return duel;
+  /**
+   * Legt ein Duell für zwei gepaarte Spieler an und startet es. Das Duell wird als WAITING
+   * gespeichert, beiden Spielern zugeordnet und in derselben Transaktion auf RUNNING gesetzt.
+   *
+   * @param mode Modus des Duells.
+   * @param firstPlayerId ID des ersten Spielers.
+   * @param secondPlayerId ID des zweiten Spielers.
+   * @return das laufende Duell.
+   * @throws RuntimeException falls ein Spieler nicht gefunden wird.
+   * @throws IllegalStateException falls ein Spieler bereits in einem Duell ist.
+   */
+  @Transactional
+  public Duel instantiateDuel(DuelMode mode, Long firstPlayerId, Long secondPlayerId) {
+    List<User> players = userRepository.findAllById(List.of(firstPlayerId, secondPlayerId));
+    if (players.size() != 2) {
+      throw new RuntimeException("Spieler nicht gefunden mit ID: "
+          + firstPlayerId + ", " + secondPlayerId);
+    }
+    for (User player : players) {
+      if (player.getDuel() != null) {
+        throw new IllegalStateException("Spieler ist bereits in einem Duell: " + player.getId());
+      }
+    }
+    Duel duel = new Duel();
+    duel.setMode(mode);
+    duel.setStatus(DuelStatus.WAITING);
+    duel.setPlayers(new ArrayList<>(players));
+    duel.setRounds(new ArrayList<>());
+    duel.setPlaytime(new Date());
+    Duel saved = duelRepository.save(duel);
+    players.forEach(p -> p.setDuel(saved));
+    saved.setStatus(DuelStatus.RUNNING);
+    return saved;
   }
 }
@@ -0,0 +1,331 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.school.project.wahr_oder_watt.dto.DuelStateDto;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Überträgt den Stand laufender Duelle per Server-Sent Events an Zuschauer.
+ *
+ * <p>Die {@link DuelEngine} reicht nach jeder Änderung nur eine unveränderliche Momentaufnahme
+ * weiter, und das nur, solange jemand zuschaut. Serialisiert wird auf einem eigenen Thread, einmal
+ * pro Stand und Duell; alle Zuschauer bekommen denselben Frame. Jeder Zuschauer hat genau einen
+ * Platz für den nächsten Frame: Kommt ein neuerer Stand, bevor der alte geschrieben ist, ersetzt er
+ * ihn. Langsame Zuschauer sehen dadurch weniger Zwischenstände, aber immer den neuesten.
+ *
+ * <p>Geschrieben wird blockierend, daher auf einem eigenen Pool mit bis zu {@code maxSenders}
+ * Threads, von denen jeder Zuschauer höchstens einen belegt. Ein hängender Zuschauer blockiert so
+ * nur seinen eigenen Thread. Wer einen Frame länger als {@code stallTimeout} nicht abnimmt, wird
+ * getrennt und bekommt nichts mehr; sein Thread wird frei, sobald der Socket aufgibt. Ist der Pool
+ * voll, wird der Zuschauer ebenfalls getrennt.
+ *
+ * <p>Zuschauer lesen weder aus der Datenbank noch reihen sie Befehle in die Mailbox des Duells ein;
+ * nur der erste Zuschauer eines Duells holt einmal den aktuellen Stand.
+ */
+@Slf4j
+@Component
+public class DuelSpectators {
+
+  private static final Set<DataWithMediaType> KEEP_ALIVE =
+      SseEmitter.event().comment("keep-alive").build();
+
+  private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+  private final ObjectMapper objectMapper;
+  private final ExecutorService dispatcher;
+  private final ExecutorService senders;
+  private final long emitterTimeoutMs;
+  private final long stallTimeoutMs;
+
+  public DuelSpectators(ObjectMapper objectMapper,
+      @Value("${app.duel.spectators.dispatcher-threads:2}") int dispatcherThreads,
+      @Value("${app.duel.spectators.timeout:1800000}") long emitterTimeoutMs,
+      @Value("${app.duel.spectators.stall-timeout:10000}") long stallTimeoutMs,
+      @Value("${app.duel.spectators.max-senders:256}") int maxSenders) {
+    this.objectMapper = objectMapper;
+    this.emitterTimeoutMs = emitterTimeoutMs;
+    this.stallTimeoutMs = stallTimeoutMs;
+    this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads, r -> {
+      Thread t = new Thread(r, "duel-spectators");
+      t.setDaemon(true);
+      return t;
+    });
+    // keine Warteschlange: Jeder Zuschauer, der gerade schreibt, hat seinen eigenen Thread
+    this.senders = new ThreadPoolExecutor(0, maxSenders, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), r -> {
+          Thread t = new Thread(r, "duel-spectators-send");
+          t.setDaemon(true);
+          return t;
+        });
+  }
+
+  /**
+   * Registriert einen Zuschauer für ein laufendes Duell.
+   *
+   * @param duelId ID des Duells.
+   * @param current liefert den aktuellen Stand, falls noch keiner vorliegt.
+   * @return der Emitter, den der Controller zurückgibt.
+   * @throws RuntimeException falls das Duell nicht läuft.
+   */
+  public SseEmitter subscribe(Long duelId, Function<Long, DuelStateDto> current) {
+    SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+    Spectator spectator = new Spectator(emitter);
+    Channel channel = join(duelId, spectator);
+    emitter.onCompletion(() -> leave(channel, spectator));
+    emitter.onTimeout(() -> leave(channel, spectator));
+    emitter.onError(e -> leave(channel, spectator));
+    Set<DataWithMediaType> latest = channel.latest;
+    if (latest != null) {
+      offer(channel, spectator, latest);
+    } else {
+      try {
+        publish(duelId, current.apply(duelId));
+      } catch (RuntimeException e) {
+        leave(channel, spectator);
+        throw e;
+      }
+    }
+    return emitter;
+  }
+
+  private Channel join(Long duelId, Spectator spectator) {
+    while (true) {
+      Channel channel = channels.computeIfAbsent(duelId, Channel::new);
+      channel.spectators.add(spectator);
+      // der Kanal kann gerade mit seinem letzten Zuschauer entfernt worden sein
+      if (channels.get(duelId) == channel) {
+        return channel;
+      }
+      channel.spectators.remove(spectator);
+    }
+  }
+
+  /**
+   * @param duelId ID des Duells.
+   * @return true, wenn jemand dem Duell zuschaut. Günstig genug für jeden Befehl der Engine.
+   */
+  public boolean isWatched(Long duelId) {
+    return channels.containsKey(duelId);
+  }
+
+  /**
+   * Übergibt einen neuen Stand. Kehrt sofort zurück; serialisiert und geschrieben wird auf dem
+   * Verteiler-Thread. Ein beendetes Duell schließt danach die Verbindungen seiner Zuschauer.
+   *
+   * @param duelId ID des Duells.
+   * @param state unveränderliche Momentaufnahme.
+   */
+  public void publish(Long duelId, DuelStateDto state) {
+    Channel channel = channels.get(duelId);
+    if (channel == null) {
+      return;
+    }
+    channel.pending.set(state);
+    if (channel.scheduled.compareAndSet(false, true)) {
+      dispatcher.execute(() -> serialize(channel));
+    }
+  }
+
+  /**
+   * Hält die Verbindungen offen.
+   */
+  @Scheduled(fixedDelayString = "${app.duel.spectators.keep-alive:15000}")
+  public void keepAlive() {
+    for (Channel channel : channels.values()) {
+      for (Spectator spectator : channel.spectators) {
+        if (spectator.pending.compareAndSet(null, KEEP_ALIVE)) {
+          schedule(spectator, channel);
+        }
+      }
+    }
+  }
+
+  /**
+   * Trennt Zuschauer, die seit {@code stallTimeout} an einem Frame hängen.
+   */
+  @Scheduled(fixedDelayString = "${app.duel.spectators.stall-check:1000}")
+  public void dropStalled() {
+    long now = System.currentTimeMillis();
+    for (Channel channel : channels.values()) {
+      for (Spectator spectator : channel.spectators) {
+        long since = spectator.sendingSince.get();
+        if (since > 0 && now - since > stallTimeoutMs) {
+          log.debug("Zuschauer von Duell {} hängt seit {} ms, wird getrennt", channel.duelId,
+              now - since);
+          drop(channel, spectator);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param duelId ID des Duells.
+   * @return Anzahl der Zuschauer des Duells.
+   */
+  public int spectatorCount(Long duelId) {
+    Channel channel = channels.get(duelId);
+    return channel != null ? channel.spectators.size() : 0;
+  }
+
+  private void serialize(Channel channel) {
+    try {
+      DuelStateDto state;
+      while ((state = channel.pending.getAndSet(null)) != null) {
+        Set<DataWithMediaType> frame = frame(channel, state);
+        if (frame == null) {
+          continue;
+        }
+        boolean last = state.status() == DuelStatus.FINISHED;
+        channel.closed = last;
+        channel.latest = frame;
+        for (Spectator spectator : channel.spectators) {
+          offer(channel, spectator, frame);
+        }
+      }
+    } finally {
+      channel.scheduled.set(false);
+    }
+    if (channel.pending.get() != null && channel.scheduled.compareAndSet(false, true)) {
+      dispatcher.execute(() -> serialize(channel));
+    }
+  }
+
+  private Set<DataWithMediaType> frame(Channel channel, DuelStateDto state) {
+    try {
+      String json = objectMapper.writeValueAsString(state);
+      return SseEmitter.event()
+          .id(Long.toString(channel.sequence.incrementAndGet()))
+          .name("state")
+          .data(json, MediaType.APPLICATION_JSON)
+          .build();
+    } catch (JsonProcessingException e) {
+      log.warn("Duell-Stand konnte nicht serialisiert werden", e);
+      return null;
+    }
+  }
+
+  private void offer(Channel channel, Spectator spectator, Set<DataWithMediaType> frame) {
+    // ein älterer, noch nicht geschriebener Frame wird einfach ersetzt
+    spectator.pending.set(frame);
+    schedule(spectator, channel);
+  }
+
+  private void schedule(Spectator spectator, Channel channel) {
+    if (spectator.scheduled.compareAndSet(false, true)) {
+      try {
+        senders.execute(() -> drain(spectator, channel));
+      } catch (RejectedExecutionException e) {
+        spectator.scheduled.set(false);
+        drop(channel, spectator);
+      }
+    }
+  }
+
+  private void drain(Spectator spectator, Channel channel) {
+    try {
+      Set<DataWithMediaType> frame;
+      while ((frame = spectator.pending.getAndSet(null)) != null) {
+        spectator.sendingSince.set(System.currentTimeMillis());
+        spectator.emitter.send(frame);
+        spectator.sendingSince.set(0);
+        if (frame == channel.latest && channel.closed) {
+          drop(channel, spectator);
+          return;
+        }
+      }
+    } catch (IOException | IllegalStateException e) {
+      drop(channel, spectator);
+      return;
+    } finally {
+      spectator.scheduled.set(false);
+    }
+    if (spectator.pending.get() != null) {
+      schedule(spectator, channel);
+    }
+  }
+
+  private void drop(Channel channel, Spectator spectator) {
+    if (channel.spectators.remove(spectator)) {
+      spectator.pending.set(null);
+      // complete() wartet auf ein laufendes send(); das soll nur einen Sende-Thread aufhalten
+      try {
+        senders.execute(spectator.emitter::complete);
+      } catch (RejectedExecutionException e) {
+        log.debug("Zuschauer von Duell {} wird ohne Abschluss getrennt", channel.duelId);
+      }
+    }
+    removeIfEmpty(channel);
+  }
+
+  private void leave(Channel channel, Spectator spectator) {
+    channel.spectators.remove(spectator);
+    removeIfEmpty(channel);
+  }
+
+  private void removeIfEmpty(Channel channel) {
+    channels.computeIfPresent(channel.duelId, (id, c) -> c == channel && c.spectators.isEmpty()
+        ? null : c);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    channels.values().forEach(c -> c.spectators.forEach(s -> drop(c, s)));
+    dispatcher.shutdownNow();
+    senders.shutdown();
+  }
+
+  /**
+   * Zuschauer eines Duells und der zuletzt serialisierte Stand.
+   */
+  private static final class Channel {
+
+    private final Long duelId;
+    private final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<DuelStateDto> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile Set<DataWithMediaType> latest;
+    private volatile boolean closed;
+
+    private Channel(Long duelId) {
+      this.duelId = duelId;
+    }
+  }
+
+  /**
+   * Ein Zuschauer mit Platz für genau einen ausstehenden Frame.
+   */
+  private static final class Spectator {
+
+    private final SseEmitter emitter;
+    private final AtomicReference<Set<DataWithMediaType>> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicLong sendingSince = new AtomicLong();
+
+    private Spectator(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+  }
+}
@@ -0,0 +1,286 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.model.Device;
+import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelPlayer;
+import com.school.project.wahr_oder_watt.model.DuelRound;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.repository.DeviceRepository;
+import com.school.project.wahr_oder_watt.repository.DuelPlayerRepository;
+import com.school.project.wahr_oder_watt.repository.DuelRepository;
+import com.school.project.wahr_oder_watt.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Schreibpuffer zwischen {@link DuelEngine} und Datenbank.
+ *
+ * <p>Die Engine meldet abgeschlossene Runden und beendete Duelle nur an; geschrieben wird
+ * gesammelt in einem Hintergrund-Flush, eine Transaktion pro Stapel. Antworten der Spieler
+ * erreichen die Datenbank dadurch nie direkt.
+ *
+ * <p>Scheitert ein Stapel, wird er Vorgang für Vorgang wiederholt, damit ein fehlerhafter Vorgang
+ * die anderen nicht mitreißt. Was auch einzeln scheitert, kommt beim nächsten Flush erneut dran;
+ * nach {@code maxAttempts} Fehlversuchen landet es in {@link #deadLetters()}.
+ */
+@Slf4j
+@Component
+public class DuelWriteBehind {
+
+  /**
+   * Ausstehender Schreibvorgang.
+   */
+  sealed interface PendingWrite permits RoundWrite, FinishWrite {
+    Long duelId();
+  }
+
+  /**
+   * Eine abgeschlossene Runde, die als {@link DuelRound} gespeichert wird.
+   */
+  record RoundWrite(Long duelId, int roundNumber, Long deviceId) implements PendingWrite {
+  }
+
+  /**
+   * Ein beendetes Duell: Status setzen, Punkte gutschreiben (auch in den Ranglisten für Woche
+   * und Tag), Historie schreiben, Spieler freigeben.
+   */
+  record FinishWrite(Long duelId, long[] playerIds, int[] scores) implements PendingWrite {
+  }
+
+  /**
+   * Ein Vorgang in der Warteschlange mit der Anzahl seiner bisherigen Fehlversuche.
+   */
+  private record Queued(PendingWrite write, int failures) {
+  }
+
+  private final BlockingQueue<Queued> pending = new LinkedBlockingQueue<>();
+  private final Queue<PendingWrite> deadLetters = new ConcurrentLinkedQueue<>();
+  private final Map<Long, Integer> pendingByDuel = new ConcurrentHashMap<>();
+  private final DuelRepository duelRepository;
+  private final DuelPlayerRepository duelPlayerRepository;
+  private final UserRepository userRepository;
+  private final DeviceRepository deviceRepository;
+  private final OptimisticRetry retry;
+  private final PresenceRegistry presenceRegistry;
+  private final Leaderboard leaderboard;
+  private final ScoreAccumulator scoreAccumulator;
+  private final int batchSize;
+  private final int maxAttempts;
+
+  public DuelWriteBehind(DuelRepository duelRepository,
+      DuelPlayerRepository duelPlayerRepository, UserRepository userRepository,
+      DeviceRepository deviceRepository, OptimisticRetry retry,
+      PresenceRegistry presenceRegistry, Leaderboard leaderboard,
+      ScoreAccumulator scoreAccumulator,
+      @Value("${app.duel.write-behind.batch-size:200}") int batchSize,
+      @Value("${app.duel.write-behind.max-attempts:5}") int maxAttempts) {
+    this.duelRepository = duelRepository;
+    this.duelPlayerRepository = duelPlayerRepository;
+    this.userRepository = userRepository;
+    this.deviceRepository = deviceRepository;
+    this.retry = retry;
+    this.presenceRegistry = presenceRegistry;
+    this.leaderboard = leaderboard;
+    this.scoreAccumulator = scoreAccumulator;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+  }
+
+  /**
+   * Merkt eine abgeschlossene Runde zum Speichern vor.
+   */
+  public void roundClosed(Long duelId, int roundNumber, Long deviceId) {
+    enqueue(new RoundWrite(duelId, roundNumber, deviceId));
+  }
+
+  /**
+   * Merkt ein beendetes Duell zum Speichern vor.
+   */
+  public void duelFinished(Long duelId, long[] playerIds, int[] scores) {
+    enqueue(new FinishWrite(duelId, playerIds, scores));
+  }
+
+  private void enqueue(PendingWrite write) {
+    pendingByDuel.merge(write.duelId(), 1, Integer::sum);
+    pending.add(new Queued(write, 0));
+  }
+
+  /**
+   * @return Anzahl der noch nicht geschriebenen Vorgänge.
+   */
+  public int pendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * @param duelId ID des Duells.
+   * @return true, solange ein Vorgang des Duells noch nicht geschrieben ist. Ein endgültig
+   *     verworfener Vorgang zählt nicht mehr.
+   */
+  public boolean isPending(Long duelId) {
+    return pendingByDuel.containsKey(duelId);
+  }
+
+  /**
+   * @return Vorgänge, die auch nach {@code maxAttempts} Versuchen nicht geschrieben werden
+   *     konnten.
+   */
+  public List<PendingWrite> deadLetters() {
+    return List.copyOf(deadLetters);
+  }
+
+  /**
+   * Schreibt alle ausstehenden Vorgänge stapelweise in die Datenbank.
+   *
+   * @return Anzahl der geschriebenen Vorgänge.
+   */
+  @Scheduled(fixedDelayString = "${app.duel.write-behind.flush-interval:200}")
+  public synchronized int flush() {
+    int written = 0;
+    List<Queued> batch = new ArrayList<>(batchSize);
+    // erst nach diesem Flush wieder einreihen, sonst würde ein Fehler sofort wiederholt
+    List<Queued> retries = new ArrayList<>();
+    while (pending.drainTo(batch, batchSize) > 0) {
+      try {
+        write(batch.stream().map(Queued::write).toList());
+        batch.forEach(queued -> done(queued.write()));
+        written += batch.size();
+      } catch (RuntimeException e) {
+        log.warn("Duell-Stapel mit {} Vorgängen fehlgeschlagen, schreibe einzeln", batch.size(),
+            e);
+        for (Queued queued : batch) {
+          try {
+            write(List.of(queued.write()));
+            done(queued.write());
+            written++;
+          } catch (RuntimeException single) {
+            failed(queued, single, retries);
+          }
+        }
+      }
+      batch.clear();
+    }
+    pending.addAll(retries);
+    return written;
+  }
+
+  private void failed(Queued queued, RuntimeException e, List<Queued> retries) {
+    PendingWrite write = queued.write();
+    String name = write.getClass().getSimpleName();
+    int failures = queued.failures() + 1;
+    if (failures < maxAttempts) {
+      log.warn("{} für Duell {} fehlgeschlagen (Versuch {}): {}", name, write.duelId(), failures,
+          e.getMessage());
+      retries.add(new Queued(write, failures));
+    } else {
+      log.error("{} für Duell {} nach {} Versuchen verworfen", name, write.duelId(), failures, e);
+      deadLetters.add(write);
+      done(write);
+    }
+  }
+
+  private void done(PendingWrite write) {
+    pendingByDuel.computeIfPresent(write.duelId(), (id, n) -> n > 1 ? n - 1 : null);
+  }
+
+  private void write(List<PendingWrite> batch) {
+    // ein Versionskonflikt mit einer parallelen Änderung am Duell wiederholt den ganzen Stapel
+    List<Long> freed = retry.execute(tx -> {
+      List<Long> freedPlayers = new ArrayList<>();
+      Set<Long> duelIds = batch.stream().map(PendingWrite::duelId).collect(Collectors.toSet());
+      Map<Long, Duel> duels = duelRepository.findAllById(duelIds).stream()
+          .collect(Collectors.toMap(Duel::getId, Function.identity()));
+      Set<Long> playerIds = new HashSet<>();
+      for (PendingWrite write : batch) {
+        if (write instanceof FinishWrite finish) {
+          for (long id : finish.playerIds()) {
+            playerIds.add(id);
+          }
+        }
+      }
+      Map<Long, User> players = playerIds.isEmpty() ? Map.of()
+          : userRepository.findAllById(playerIds).stream()
+              .collect(Collectors.toMap(User::getId, Function.identity()));
+
+      List<DuelPlayer> history = new ArrayList<>();
+      Map<Long, Integer> earned = new HashMap<>();
+      Map<Long, String> names = new HashMap<>();
+      Instant finishedAt = Instant.now();
+      for (PendingWrite write : batch) {
+        Duel duel = duels.get(write.duelId());
+        if (duel == null) {
+          continue;
+        }
+        switch (write) {
+          case RoundWrite round -> {
+            if (duel.getRounds() == null) {
+              duel.setRounds(new ArrayList<>());
+            }
+            Device device = round.deviceId() != null
+                ? deviceRepository.getReferenceById(round.deviceId())
+                : null;
+            duel.getRounds().add(new DuelRound(null, device, round.roundNumber()));
+          }
+          case FinishWrite finish -> {
+            if (duel.getStatus() == DuelStatus.FINISHED || duel.getStatus() == DuelStatus.EXPIRED) {
+              // schon abgeschlossen, etwa von der Wartung; dabei wurde die Historie geschrieben
+              log.warn("Duell {} ist bereits {}, Ergebnis wird verworfen", duel.getId(),
+                  duel.getStatus());
+              continue;
+            }
+            duel.setStatus(DuelStatus.FINISHED);
+            duel.setFinishedAt(finishedAt);
+            long[] ids = finish.playerIds();
+            for (int i = 0; i < ids.length; i++) {
+              if (duel.getMode() != null) {
+                Long opponentId = ids.length == 2 ? ids[1 - i] : null;
+                history.add(new DuelPlayer(null, duel.getId(), ids[i], opponentId,
+                    duel.getMode(), DuelStatus.FINISHED, finish.scores()[i], finishedAt));
+              }
+              User player = players.get(ids[i]);
+              if (player == null) {
+                continue;
+              }
+              earned.merge(player.getId(), finish.scores()[i], Integer::sum);
+              names.put(player.getId(), player.getUsername());
+              if (player.getDuel() != null && duel.getId().equals(player.getDuel().getId())) {
+                player.setDuel(null);
+                freedPlayers.add(player.getId());
+              }
+            }
+          }
+        }
+      }
+      duelPlayerRepository.saveAll(history);
+      leaderboard.recordPoints(earned, names, finishedAt);
+      // Gesamtpunkte nur als Zuwachs, nie als geladener und überschriebener Wert
+      scoreAccumulator.addAfterCommit(earned);
+      return freedPlayers;
+    });
+    // erst nach dem Commit, damit /available die Spieler schon als frei sieht
+    freed.forEach(presenceRegistry::becameFree);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flush();
+  }
+}
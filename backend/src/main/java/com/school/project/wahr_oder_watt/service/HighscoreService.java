@@ -1,8 +1,10 @@
 package com.school.project.wahr_oder_watt.service;
 
-import com.school.project.wahr_oder_watt.dto.HighscoreDto;
+import com.school.project.wahr_oder_watt.dto.HighscorePage;
+import com.school.project.wahr_oder_watt.dto.HighscoreReadDto;
+import com.school.project.wahr_oder_watt.dto.RankedHighscoreDto;
 import com.school.project.wahr_oder_watt.model.Highscore;
-import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
 import com.school.project.wahr_oder_watt.repository.HighscoreRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -15,16 +17,64 @@ import java.util.List;
 public class HighscoreService {
 
   private final HighscoreRepository highscoreRepository;
+  private final Leaderboard leaderboard;
+  private final ScoreAccumulator scoreAccumulator;
+  private final CursorPagination pagination;
 
-  @Transactional(readOnly = true)
-  public List<HighscoreDto> findAllDtosSortedByScoreDesc() {
-    return highscoreRepository.findAllDtoOrderByScoreDesc();
+  /**
+   * Gibt eine Seite der Rangliste aus dem Speicher zurück.
+   *
+   * @param window Zeitfenster der Rangliste.
+   * @param offset Position des ersten Eintrags, beginnend bei 0; null für den Anfang.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   */
+  public HighscorePage findPage(ScoreWindow window, Integer offset, Integer limit) {
+    int from = offset == null ? 0 : Math.max(0, offset);
+    return leaderboard.page(window, from, pagination.pageSize(limit));
+  }
+
+  /**
+   * @param window Zeitfenster der Rangliste.
+   * @return ETag des aktuellen Stands der Rangliste.
+   */
+  public String etag(ScoreWindow window) {
+    return leaderboard.etag(window);
+  }
+
+  /**
+   * @param window Zeitfenster der Rangliste.
+   * @param page eine zuvor geladene Seite.
+   * @return ETag des Stands, aus dem die Seite gebaut wurde.
+   */
+  public String etagOf(ScoreWindow window, HighscorePage page) {
+    return Leaderboard.etag(window, page.version());
+  }
+
+  /**
+   * Gibt die besten Einträge zurück.
+   *
+   * @param limit gewünschte Anzahl, wird auf das konfigurierte Maximum begrenzt.
+   */
+  public List<RankedHighscoreDto> findTop(ScoreWindow window, Integer limit) {
+    return leaderboard.top(window, pagination.pageSize(limit));
   }
 
-  private String resolveUsername(User u) {
-    if (u == null) return "Unbekannt";
-    if (u.getUsername() != null && !u.getUsername().isBlank()) return u.getUsername();
-    return u.getId() != null ? "User#" + u.getId() : "Unbekannt";
+  /**
+   * Gibt den Eintrag eines Benutzers mit Rang zurück.
+   */
+  public RankedHighscoreDto findRankedByPlayer(ScoreWindow window, Long userId) {
+    return leaderboard.findByUser(window, userId);
+  }
+
+  /**
+   * Gibt den Eintrag eines Benutzers und bis zu {@code radius} Nachbarn auf jeder Seite zurück.
+   *
+   * @param radius gewünschte Anzahl je Seite; die ganze Antwort bleibt in der maximalen
+   *     Seitengröße.
+   */
+  public List<RankedHighscoreDto> findAround(ScoreWindow window, Long userId, int radius) {
+    int size = pagination.pageSize(2 * Math.max(0, radius) + 1);
+    return leaderboard.around(window, userId, (size - 1) / 2);
   }
 
   @Transactional(readOnly = true)
@@ -33,21 +83,57 @@ public class HighscoreService {
         .orElseThrow(() -> new IllegalArgumentException("Highscore nicht gefunden: " + id));
   }
 
+  /**
+   * Gibt einen Eintrag mit Rang aus dem Speicher zurück.
+   */
+  public RankedHighscoreDto findRankedById(Long id) {
+    return leaderboard.findById(id);
+  }
+
   @Transactional
   public Highscore save(Highscore highscore) {
-    return highscoreRepository.save(highscore);
+    Highscore saved = highscoreRepository.save(highscore);
+    publish(saved.getId());
+    return saved;
   }
 
+  /**
+   * Aktualisiert einen Highscore. Eine geänderte Punktzahl wird als Zuwachs gegenüber dem
+   * geladenen Stand sofort geschrieben; gehört der Highscore einem Benutzer, über
+   * {@link ScoreAccumulator#addNow}, damit die Punkte des Benutzers mitziehen. Die Antwort zeigt
+   * die Punkte, wie sie in der Datenbank stehen.
+   */
   @Transactional
   public Highscore update(Long id, Highscore updated) {
     Highscore existing = findById(id);
-    existing.setScore(updated.getScore());
+    int delta = updated.getScore() - existing.getScore();
     existing.setPlayer(updated.getPlayer());
-    return highscoreRepository.save(existing);
+    // ein neuer Besitzer muss in der Datenbank stehen, bevor sein Zuwachs die Zeile sucht
+    Highscore saved = highscoreRepository.saveAndFlush(existing);
+    if (delta != 0) {
+      if (saved.getPlayer() != null) {
+        scoreAccumulator.addNow(saved.getPlayer().getId(), delta);
+      } else {
+        highscoreRepository.addScore(id, delta);
+      }
+    }
+    HighscoreReadDto current = highscoreRepository.findReadDtoById(id)
+        .orElseThrow(() -> new IllegalArgumentException("Highscore nicht gefunden: " + id));
+    if (delta != 0) {
+      // der Zuwachs hält die Zeile bis zum Commit gesperrt, der gelesene Stand bleibt also gültig
+      saved.setScore(current.score());
+    }
+    leaderboard.refreshAfterCommit(id);
+    return saved;
   }
 
   @Transactional
   public void delete(Long id) {
     highscoreRepository.deleteById(id);
+    leaderboard.removeAfterCommit(id);
+  }
+
+  private void publish(Long id) {
+    leaderboard.refreshAfterCommit(id);
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,118 @@
+package com.school.project.wahr_oder_watt.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Merkt sich die Ergebnisse von Schreibanfragen, die der Client mit einem Idempotenzschlüssel
+ * (Header {@code Idempotency-Key}) geschickt hat.
+ *
+ * <p>Schickt ein Client dieselbe Anfrage erneut, etwa nach einem Timeout, bekommt er das Ergebnis
+ * der ersten Ausführung, ohne dass sie ein zweites Mal läuft. Trifft die Wiederholung ein, während
+ * die erste Ausführung noch läuft, wartet sie auf deren Ergebnis. Schlägt die Ausführung fehl, wird
+ * der Schlüssel wieder freigegeben, damit der Client es erneut versuchen kann.
+ *
+ * <p>Schlüssel gelten je Benutzer und Vorgang und verfallen nach {@code ttl}. Die Tabelle liegt nur
+ * im Speicher; ein Neustart vergisst sie, was bei der kurzen Gültigkeit hingenommen wird. Erreicht
+ * sie {@code maxSize}, werden vor dem nächsten Eintrag die verfallenen Schlüssel entfernt.
+ */
+@Component
+public class IdempotencyCache {
+
+  private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+  private final long ttlMs;
+  private final int maxSize;
+
+  public IdempotencyCache(@Value("${app.idempotency.ttl:600000}") long ttlMs,
+      @Value("${app.idempotency.max-size:100000}") int maxSize) {
+    this.ttlMs = ttlMs;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Führt den Vorgang höchstens einmal je Schlüssel aus.
+   *
+   * @param userId ID des anfragenden Benutzers, darf null sein.
+   * @param scope der Vorgang, z.B. {@code "answer:42:3"}; derselbe Schlüssel für einen anderen
+   *     Vorgang gilt als neue Anfrage.
+   * @param key der Idempotenzschlüssel des Clients; ohne Schlüssel wird der Vorgang immer ausgeführt.
+   * @param action der Vorgang.
+   * @return das Ergebnis der ersten erfolgreichen Ausführung.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(Long userId, String scope, String key, Supplier<T> action) {
+    if (key == null || key.isBlank()) {
+      return action.get();
+    }
+    Key id = new Key(userId, scope, key);
+    while (true) {
+      long now = System.currentTimeMillis();
+      Entry existing = entries.get(id);
+      if (existing != null && existing.expiresAt >= now) {
+        return (T) await(existing.result);
+      }
+      if (entries.size() >= maxSize) {
+        sweep();
+      }
+      Entry created = new Entry(new CompletableFuture<>(), now + ttlMs);
+      boolean claimed = existing == null
+          ? entries.putIfAbsent(id, created) == null
+          : entries.replace(id, existing, created);
+      if (claimed) {
+        return run(id, created, action);
+      }
+      // ein paralleler Aufruf mit demselben Schlüssel war schneller
+    }
+  }
+
+  /**
+   * @return Anzahl der gemerkten Schlüssel.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Entfernt verfallene Schlüssel.
+   */
+  @Scheduled(fixedDelayString = "${app.idempotency.sweep-interval:60000}")
+  public void sweep() {
+    long now = System.currentTimeMillis();
+    entries.entrySet().removeIf(e -> e.getValue().expiresAt < now);
+  }
+
+  private <T> T run(Key id, Entry entry, Supplier<T> action) {
+    try {
+      T result = action.get();
+      entry.result.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      entries.remove(id, entry);
+      entry.result.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private record Key(Long userId, String scope, String key) {
+  }
+
+  private record Entry(CompletableFuture<Object> result, long expiresAt) {
+  }
+}
@@ -1,23 +1,47 @@
 package com.school.project.wahr_oder_watt.service;
 
+import com.school.project.wahr_oder_watt.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+  private final VerifiedTokenCache tokenCache;
+
   @Value("${app.jwt.secret}")
   private String secret;
 
   @Value("${app.jwt.expiration}")
   private long expirationMs;
 
+  public static final String CLAIM_USER_ID = "uid";
+  public static final String CLAIM_ROLE = "role";
+  public static final String CLAIM_ENABLED = "enabled";
+
+  // Schlüssel und Parser werden einmalig aus dem Secret erzeugt
+  private Key signingKey;
+  private JwtParser parser;
+
+  @PostConstruct
+  void init() {
+    signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8),
+        SignatureAlgorithm.HS512.getJcaName());
+    parser = Jwts.parser().setSigningKey(signingKey);
+  }
+
   // Token erzeugen
   public String generateToken(String username) {
     Date now = new Date();
@@ -26,35 +50,66 @@ public class JwtService {
         .setSubject(username)
         .setIssuedAt(now)
         .setExpiration(exp)
-        .signWith(SignatureAlgorithm.HS512, secret.getBytes(StandardCharsets.UTF_8))
+        .signWith(SignatureAlgorithm.HS512, signingKey)
+        .compact();
+  }
+
+  // Token mit Benutzer-ID, Rolle und Aktivierungsstatus erzeugen
+  public String generateToken(String subject, Long userId, boolean admin, boolean enabled) {
+    Date now = new Date();
+    Date exp = new Date(now.getTime() + expirationMs);
+    return Jwts.builder()
+        .setSubject(subject)
+        .claim(CLAIM_USER_ID, userId)
+        .claim(CLAIM_ROLE, admin ? "ADMIN" : "USER")
+        .claim(CLAIM_ENABLED, enabled)
+        .setIssuedAt(now)
+        .setExpiration(exp)
+        .signWith(SignatureAlgorithm.HS512, signingKey)
         .compact();
   }
 
   public String extractUsername(String token) {
-    return extractAllClaims(token).getSubject();
+    Claims claims = parseValidClaims(token);
+    return claims != null ? claims.getSubject() : null;
   }
 
   public boolean isValid(String token) {
-    try {
-      return !isExpired(token);
-    } catch (Exception e) {
-      return false;
-    }
+    return parseValidClaims(token) != null;
   }
 
   public boolean isTokenValid(String token, UserDetails user) {
-    return extractUsername(token).equals(user.getUsername()) && isValid(token);
-  }
-
-  private boolean isExpired(String token) {
-    Date exp = extractAllClaims(token).getExpiration();
-    return exp != null && exp.before(new Date());
+    Claims claims = parseValidClaims(token);
+    return claims != null && user.getUsername().equals(claims.getSubject());
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts.parser()
-        .setSigningKey(secret.getBytes(StandardCharsets.UTF_8))
-        .parseClaimsJws(token)
-        .getBody();
+  /**
+   * Verifies the token and returns its claims. Each token is verified at most once while it is
+   * held in the {@link VerifiedTokenCache}.
+   *
+   * @param token the compact JWT.
+   * @return the claims or null if the signature is invalid or the token is expired.
+   */
+  public Claims parseValidClaims(String token) {
+    long now = System.currentTimeMillis();
+    Claims cached = tokenCache.get(token, now);
+    if (cached != null) {
+      return cached;
+    }
+    Claims claims;
+    try {
+      claims = parser.parseClaimsJws(token).getBody();
+    } catch (Exception e) {
+      return null;
+    }
+    Date exp = claims.getExpiration();
+    if (exp == null) {
+      return claims;
+    }
+    if (exp.getTime() <= now) {
+      return null;
+    }
+    tokenCache.put(token, claims, exp.getTime(), now);
+    return claims;
   }
-}
\ No newline at end of file
+}
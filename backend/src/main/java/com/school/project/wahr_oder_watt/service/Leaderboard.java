@@ -0,0 +1,466 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.HighscorePage;
+import com.school.project.wahr_oder_watt.dto.HighscoreReadDto;
+import com.school.project.wahr_oder_watt.dto.RankedHighscoreDto;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
+import com.school.project.wahr_oder_watt.repository.HighscoreRepository;
+import com.school.project.wahr_oder_watt.repository.ScoreBucketRepository;
+import com.school.project.wahr_oder_watt.repository.ScoreBucketRepository.Increment;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hält die Ranglisten im Speicher: die Gesamtwertung aus den Highscores und je eine Rangliste für
+ * die laufende Woche und den laufenden Tag.
+ *
+ * <p>Beim Start wird jede Rangliste einmal aus der Datenbank gebaut, danach nur noch
+ * fortgeschrieben: Änderungen an Highscores und Benutzernamen werden nach dem Commit eingetragen,
+ * die Punkte beendeter Duelle landen über {@link #recordPoints} in den Zeitfenstern. Die
+ * Highscore-Endpunkte lesen ausschließlich von hier; Top-Liste, Rang eines Benutzers und seine
+ * Nachbarn kosten in jedem Zeitfenster O(log n) plus die Länge der Antwort.
+ *
+ * <p>Die Zeitfenster stehen in der Datenbank als Punkte je Spieler und Zeitraum
+ * ({@code score_bucket}), nie als Auswertung der Duelle. Beginnt ein neuer Zeitraum, startet die
+ * Rangliste leer; ein regelmäßiger Lauf löscht die Einträge vergangener Zeiträume.
+ *
+ * <p>Geänderte Highscores werden nach dem Commit neu gelesen, nicht aus dem Stand vor dem Commit
+ * übernommen. Lesen und Eintragen geschehen unter einer gemeinsamen Sperre; wer sie später bekommt,
+ * hat also auch den neueren Stand gelesen, und parallele Änderungen können sich nicht mehr in
+ * falscher Reihenfolge überschreiben.
+ *
+ * <p>Jede Änderung erhöht die Version der betroffenen Rangliste; sie beginnt bei der Startzeit,
+ * damit ein ETag nach einem Neustart nicht zufällig wieder passt.
+ */
+@Slf4j
+@Component
+public class Leaderboard {
+
+  private static final String UNKNOWN = "Unbekannt";
+  private static final List<ScoreWindow> PERIODS = List.of(ScoreWindow.WEEK, ScoreWindow.DAY);
+
+  private final HighscoreRepository highscoreRepository;
+  private final ScoreBucketRepository bucketRepository;
+  private final Clock clock;
+  private final Map<ScoreWindow, RankedBoard> boards = new ConcurrentHashMap<>();
+  private final Map<ScoreWindow, LocalDate> cleanedBefore = new ConcurrentHashMap<>();
+  /** Reiht das Lesen und Eintragen von Highscores in die Gesamtwertung hintereinander. */
+  private final Object refreshLock = new Object();
+  private volatile boolean loaded;
+
+  @Autowired
+  public Leaderboard(HighscoreRepository highscoreRepository,
+      ScoreBucketRepository bucketRepository,
+      @Value("${app.leaderboard.zone:Europe/Berlin}") String zone) {
+    this(highscoreRepository, bucketRepository, Clock.system(ZoneId.of(zone)));
+  }
+
+  /**
+   * @param clock liefert den heutigen Tag in der Zeitzone der Ranglisten.
+   */
+  Leaderboard(HighscoreRepository highscoreRepository, ScoreBucketRepository bucketRepository,
+      Clock clock) {
+    this.highscoreRepository = highscoreRepository;
+    this.bucketRepository = bucketRepository;
+    this.clock = clock;
+    long version = System.currentTimeMillis();
+    LocalDate today = today();
+    for (ScoreWindow window : ScoreWindow.values()) {
+      boards.put(window, new RankedBoard(window.periodStart(today), new RankIndex(), version));
+    }
+  }
+
+  /**
+   * Baut die Ranglisten beim Start der Anwendung auf.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    try {
+      rebuild();
+    } catch (RuntimeException e) {
+      log.warn("Rangliste konnte nicht geladen werden: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Lädt alle Highscores und die Punkte der laufenden Zeiträume und ersetzt die Ranglisten.
+   *
+   * @return Anzahl der Einträge der Gesamtwertung.
+   */
+  public synchronized int rebuild() {
+    RankIndex allTime = new RankIndex();
+    synchronized (refreshLock) {
+      highscoreRepository.findAllReadDtos().forEach(row -> allTime.put(entry(row)));
+      install(ScoreWindow.ALL_TIME, null, allTime);
+    }
+    LocalDate today = today();
+    for (ScoreWindow window : PERIODS) {
+      LocalDate start = window.periodStart(today);
+      RankIndex period = new RankIndex();
+      bucketRepository.findByPeriod(window, start).forEach(row -> period.put(
+          new RankIndex.Entry(row.userId(), row.userId(), nameOf(row.username()), row.score())));
+      install(window, start, period);
+    }
+    loaded = true;
+    log.info("Rangliste mit {} Einträgen geladen", allTime.size());
+    return allTime.size();
+  }
+
+  /**
+   * @param window das Zeitfenster.
+   * @return Versionsnummer der Rangliste, steigt mit jeder Änderung.
+   */
+  public long version(ScoreWindow window) {
+    return current(window).version();
+  }
+
+  /**
+   * @param window das Zeitfenster.
+   * @return ETag-Wert für den aktuellen Stand der Rangliste.
+   */
+  public String etag(ScoreWindow window) {
+    return etag(window, version(window));
+  }
+
+  /**
+   * @param window das Zeitfenster.
+   * @param version eine Versionsnummer der Rangliste.
+   * @return ETag-Wert für Antworten, die aus diesem Stand gebaut wurden.
+   */
+  public static String etag(ScoreWindow window, long version) {
+    return "\"leaderboard-" + window.name().toLowerCase() + "-" + version + "\"";
+  }
+
+  /**
+   * Liefert einen Ausschnitt einer Rangliste.
+   *
+   * @param window das Zeitfenster.
+   * @param offset Position des ersten Eintrags, beginnend bei 0.
+   * @param limit höchstens so viele Einträge.
+   * @return die Einträge mit Rang.
+   */
+  public List<RankedHighscoreDto> range(ScoreWindow window, int offset, int limit) {
+    ensureLoaded();
+    return current(window).read(index -> toDtos(window, index.range(offset, limit)));
+  }
+
+  /**
+   * Liefert eine Seite einer Rangliste. Einträge, Gesamtzahl und Version stammen aus demselben
+   * Stand.
+   *
+   * @param window das Zeitfenster.
+   * @param offset Position des ersten Eintrags, beginnend bei 0.
+   * @param limit Seitengröße.
+   * @return die Seite.
+   */
+  public HighscorePage page(ScoreWindow window, int offset, int limit) {
+    ensureLoaded();
+    RankedBoard board = current(window);
+    return board.read(index -> {
+      int total = index.size();
+      int end = offset + limit;
+      return new HighscorePage(toDtos(window, index.range(offset, limit)), offset, total,
+          end < total ? end : null, board.version());
+    });
+  }
+
+  /**
+   * @param window das Zeitfenster.
+   * @param limit Anzahl der Einträge.
+   * @return die besten Einträge.
+   */
+  public List<RankedHighscoreDto> top(ScoreWindow window, int limit) {
+    return range(window, 0, limit);
+  }
+
+  /**
+   * @param id ID des Highscore-Eintrags.
+   * @return der Eintrag mit Rang in der Gesamtwertung.
+   * @throws IllegalArgumentException falls es den Eintrag nicht gibt.
+   */
+  public RankedHighscoreDto findById(Long id) {
+    ensureLoaded();
+    return current(ScoreWindow.ALL_TIME).read(index -> ranked(ScoreWindow.ALL_TIME, index,
+        index.get(id), "Highscore nicht gefunden: " + id));
+  }
+
+  /**
+   * @param window das Zeitfenster.
+   * @param userId ID des Benutzers.
+   * @return der Eintrag des Benutzers mit Rang.
+   * @throws IllegalArgumentException falls der Benutzer in diesem Zeitfenster keine Punkte hat.
+   */
+  public RankedHighscoreDto findByUser(ScoreWindow window, Long userId) {
+    ensureLoaded();
+    return current(window).read(index -> ranked(window, index, index.getByUser(userId),
+        "Highscore nicht gefunden für Benutzer: " + userId));
+  }
+
+  /**
+   * Liefert den Eintrag eines Benutzers mit bis zu {@code radius} Einträgen davor und danach.
+   *
+   * @param window das Zeitfenster.
+   * @param userId ID des Benutzers.
+   * @param radius Anzahl der Nachbarn auf jeder Seite.
+   * @return die Einträge mit Rang.
+   * @throws IllegalArgumentException falls der Benutzer in diesem Zeitfenster keine Punkte hat.
+   */
+  public List<RankedHighscoreDto> around(ScoreWindow window, Long userId, int radius) {
+    ensureLoaded();
+    return current(window).read(index -> {
+      RankIndex.Entry entry = index.getByUser(userId);
+      if (entry == null) {
+        throw new IllegalArgumentException("Highscore nicht gefunden für Benutzer: " + userId);
+      }
+      int position = index.positionOf(entry);
+      int from = Math.max(0, position - radius);
+      return toDtos(window, index.range(from, position - from + radius + 1));
+    });
+  }
+
+  /**
+   * Liest einen neuen oder geänderten Highscore nach dem Commit der laufenden Transaktion neu und
+   * trägt ihn ein; gibt es ihn nicht mehr, wird er entfernt.
+   *
+   * @param id ID des Highscore-Eintrags.
+   */
+  public void refreshAfterCommit(Long id) {
+    afterCommit(() -> refresh(() -> highscoreRepository.findReadDtoById(id).stream().toList(),
+        List.of(id)));
+  }
+
+  /**
+   * Liest die Highscores der Benutzer nach dem Commit der laufenden Transaktion neu und trägt sie
+   * ein.
+   *
+   * @param userIds IDs der Benutzer.
+   */
+  public void refreshPlayersAfterCommit(Collection<Long> userIds) {
+    List<Long> ids = List.copyOf(userIds);
+    afterCommit(() -> refresh(() -> highscoreRepository.findReadDtosByPlayerIds(ids), List.of()));
+  }
+
+  /**
+   * Entfernt einen Highscore nach dem Commit der laufenden Transaktion.
+   *
+   * @param id ID des Highscore-Eintrags.
+   */
+  public void removeAfterCommit(Long id) {
+    afterCommit(() -> {
+      synchronized (refreshLock) {
+        current(ScoreWindow.ALL_TIME).write(index -> index.remove(id) != null);
+      }
+    });
+  }
+
+  /**
+   * Liest Highscores und trägt sie ein, beides unter {@link #refreshLock}.
+   *
+   * @param reader liest die aktuellen Zeilen.
+   * @param expected IDs, die entfernt werden, wenn der Leser sie nicht mehr findet.
+   */
+  private void refresh(Supplier<List<HighscoreReadDto>> reader, List<Long> expected) {
+    synchronized (refreshLock) {
+      List<HighscoreReadDto> rows = reader.get();
+      current(ScoreWindow.ALL_TIME).write(index -> {
+        rows.forEach(row -> index.put(entry(row)));
+        expected.stream()
+            .filter(id -> rows.stream().noneMatch(row -> row.id().equals(id)))
+            .forEach(index::remove);
+        return true;
+      });
+    }
+  }
+
+  /**
+   * Übernimmt einen geänderten Benutzernamen nach dem Commit der laufenden Transaktion.
+   *
+   * @param userId ID des Benutzers.
+   * @param username neuer Benutzername.
+   */
+  public void renameAfterCommit(Long userId, String username) {
+    String name = nameOf(username);
+    afterCommit(() -> {
+      for (ScoreWindow window : ScoreWindow.values()) {
+        current(window).write(index -> {
+          RankIndex.Entry entry = index.getByUser(userId);
+          if (entry == null || entry.username().equals(name)) {
+            return false;
+          }
+          index.put(new RankIndex.Entry(entry.highscoreId(), userId, name, entry.score()));
+          return true;
+        });
+      }
+    });
+  }
+
+  /**
+   * Schreibt Punkte aus beendeten Duellen den Zeiträumen gut, in die {@code at} fällt: in der
+   * laufenden Transaktion der Datenbank, nach dem Commit den Ranglisten im Speicher.
+   *
+   * @param points Punkte je Benutzer-ID.
+   * @param names Benutzernamen je Benutzer-ID, für Spieler, die noch keinen Eintrag haben.
+   * @param at Zeitpunkt, an dem die Duelle endeten.
+   */
+  public void recordPoints(Map<Long, Integer> points, Map<Long, String> names, Instant at) {
+    if (points.isEmpty()) {
+      return;
+    }
+    LocalDate day = LocalDate.ofInstant(at, clock.getZone());
+    List<Increment> increments = new ArrayList<>(points.size() * PERIODS.size());
+    for (ScoreWindow window : PERIODS) {
+      LocalDate start = window.periodStart(day);
+      points.forEach((userId, p) -> increments.add(new Increment(window, start, userId, p)));
+    }
+    // feste Reihenfolge, damit parallele Stapel die Zeilen in derselben Reihenfolge sperren
+    increments.sort(Comparator.comparing(Increment::window).thenComparing(Increment::userId));
+    bucketRepository.addAll(increments);
+
+    afterCommit(() -> {
+      for (ScoreWindow window : PERIODS) {
+        RankedBoard board = current(window);
+        // Punkte aus einem schon vergangenen Zeitraum zählen nur noch in der Datenbank
+        if (!window.periodStart(day).equals(board.periodStart())) {
+          continue;
+        }
+        board.write(index -> {
+          points.forEach((userId, p) -> {
+            RankIndex.Entry entry = index.getByUser(userId);
+            String name = entry != null ? entry.username() : nameOf(names.get(userId));
+            int score = (entry != null ? entry.score() : 0) + p;
+            index.put(new RankIndex.Entry(userId, userId, name, score));
+          });
+          return true;
+        });
+      }
+    });
+  }
+
+  /**
+   * Wechselt abgelaufene Zeitfenster auf den neuen Zeitraum und löscht die Punkte vergangener
+   * Zeiträume aus der Datenbank, einmal je Zeitraum.
+   */
+  @Scheduled(fixedDelayString = "${app.leaderboard.rollover-interval:60000}")
+  public void rollOver() {
+    for (ScoreWindow window : PERIODS) {
+      LocalDate start = current(window).periodStart();
+      if (start.equals(cleanedBefore.get(window))) {
+        continue;
+      }
+      try {
+        int deleted = bucketRepository.deleteBefore(window, start);
+        cleanedBefore.put(window, start);
+        if (deleted > 0) {
+          log.info("Rangliste {}: {} Einträge vergangener Zeiträume gelöscht", window, deleted);
+        }
+      } catch (RuntimeException e) {
+        log.warn("Rangliste {} konnte nicht aufgeräumt werden: {}", window, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Liefert die Rangliste eines Zeitfensters und beginnt einen neuen Zeitraum, sobald der alte
+   * abgelaufen ist.
+   */
+  private RankedBoard current(ScoreWindow window) {
+    RankedBoard board = boards.get(window);
+    if (window == ScoreWindow.ALL_TIME) {
+      return board;
+    }
+    LocalDate start = window.periodStart(today());
+    if (!board.periodStart().isBefore(start)) {
+      return board;
+    }
+    synchronized (this) {
+      board = boards.get(window);
+      if (board.periodStart().isBefore(start)) {
+        board = new RankedBoard(start, new RankIndex(), board.version() + 1);
+        boards.put(window, board);
+      }
+      return board;
+    }
+  }
+
+  private synchronized void install(ScoreWindow window, LocalDate start, RankIndex index) {
+    RankedBoard board = boards.get(window);
+    if (window == ScoreWindow.ALL_TIME || board.periodStart().equals(start)) {
+      board.replace(index);
+    } else {
+      boards.put(window, new RankedBoard(start, index, board.version() + 1));
+    }
+  }
+
+  private static RankedHighscoreDto ranked(ScoreWindow window, RankIndex index,
+      RankIndex.Entry entry, String notFound) {
+    if (entry == null) {
+      throw new IllegalArgumentException(notFound);
+    }
+    return toDto(window, new RankIndex.Ranked(index.rankOf(entry.score()), entry));
+  }
+
+  private LocalDate today() {
+    return LocalDate.now(clock);
+  }
+
+  private void ensureLoaded() {
+    if (!loaded) {
+      synchronized (this) {
+        if (!loaded) {
+          rebuild();
+        }
+      }
+    }
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private static List<RankedHighscoreDto> toDtos(ScoreWindow window,
+      List<RankIndex.Ranked> ranked) {
+    return ranked.stream().map(r -> toDto(window, r)).toList();
+  }
+
+  private static RankedHighscoreDto toDto(ScoreWindow window, RankIndex.Ranked ranked) {
+    RankIndex.Entry e = ranked.entry();
+    // in den Zeitfenstern ist der Schlüssel die Benutzer-ID, es gibt keinen Highscore-Eintrag
+    Long id = window == ScoreWindow.ALL_TIME ? e.highscoreId() : null;
+    return new RankedHighscoreDto(ranked.rank(), id, e.userId(), e.username(), e.score());
+  }
+
+  private static RankIndex.Entry entry(HighscoreReadDto row) {
+    return new RankIndex.Entry(row.id(), row.playerId(), nameOf(row.username()), row.score());
+  }
+
+  private static String nameOf(String username) {
+    return username != null && !username.isBlank() ? username : UNKNOWN;
+  }
+}
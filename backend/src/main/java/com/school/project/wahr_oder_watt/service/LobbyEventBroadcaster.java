@@ -0,0 +1,228 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Verteilt Lobby-Ereignisse per Server-Sent Events an alle verbundenen Clients.
+ *
+ * <p>Jedes Ereignis wird genau einmal zu einem SSE-Frame serialisiert und derselbe Frame an alle
+ * Abonnenten geschrieben. Jeder Abonnent hat eine begrenzte Warteschlange; läuft sie voll, weil
+ * der Client zu langsam liest, wird die Verbindung geschlossen. Der Client verbindet sich neu und
+ * lädt die Lobby einmal komplett.
+ *
+ * <p>Geschrieben wird blockierend, daher wie bei {@link DuelSpectators} auf einem eigenen Pool mit
+ * bis zu {@code maxSenders} Threads, von denen jeder Abonnent höchstens einen belegt. Ein Client
+ * mit vollem TCP-Fenster hält so nur seinen eigenen Thread auf. Wer einen Frame länger als
+ * {@code stallTimeout} nicht abnimmt, wird getrennt; ist der Pool voll, ebenfalls.
+ */
+@Slf4j
+@Component
+public class LobbyEventBroadcaster {
+
+  /**
+   * Art eines Lobby-Ereignisses.
+   */
+  public enum Type {
+    PLAYER_JOINED, PLAYER_LEFT, PLAYER_IN_DUEL, PLAYER_FREE
+  }
+
+  /**
+   * Ein Lobby-Ereignis, wie es an die Clients geht.
+   *
+   * @param seq fortlaufende Nummer des Ereignisses
+   * @param type Art des Ereignisses
+   * @param userId ID des betroffenen Benutzers
+   * @param username Benutzername, falls bekannt
+   * @param duelId ID des Duells bei PLAYER_IN_DUEL, sonst null
+   */
+  public record LobbyEvent(long seq, Type type, Long userId, String username, Long duelId) {
+  }
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final AtomicLong sequence = new AtomicLong();
+  private final ObjectMapper objectMapper;
+  private final ExecutorService senders;
+  private final int queueCapacity;
+  private final long emitterTimeoutMs;
+  private final long stallTimeoutMs;
+
+  public LobbyEventBroadcaster(ObjectMapper objectMapper,
+      @Value("${app.lobby.events.queue-capacity:256}") int queueCapacity,
+      @Value("${app.lobby.events.timeout:1800000}") long emitterTimeoutMs,
+      @Value("${app.lobby.events.stall-timeout:10000}") long stallTimeoutMs,
+      @Value("${app.lobby.events.max-senders:256}") int maxSenders) {
+    this.objectMapper = objectMapper;
+    this.queueCapacity = queueCapacity;
+    this.emitterTimeoutMs = emitterTimeoutMs;
+    this.stallTimeoutMs = stallTimeoutMs;
+    // keine Warteschlange: Jeder Abonnent, der gerade schreibt, hat seinen eigenen Thread
+    this.senders = new ThreadPoolExecutor(0, maxSenders, 60, TimeUnit.SECONDS,
+        new SynchronousQueue<>(), r -> {
+          Thread t = new Thread(r, "lobby-events-send");
+          t.setDaemon(true);
+          return t;
+        });
+  }
+
+  /**
+   * Registriert einen neuen Client.
+   *
+   * @return der Emitter, den der Controller zurückgibt.
+   */
+  public SseEmitter subscribe() {
+    SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+    Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(queueCapacity));
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onTimeout(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    subscribers.add(subscriber);
+    return emitter;
+  }
+
+  /**
+   * Serialisiert ein Ereignis einmal und stellt es allen Abonnenten zu.
+   *
+   * @param type Art des Ereignisses.
+   * @param userId ID des betroffenen Benutzers.
+   * @param username Benutzername, darf null sein.
+   * @param duelId ID des Duells, darf null sein.
+   */
+  public void publish(Type type, Long userId, String username, Long duelId) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    LobbyEvent event = new LobbyEvent(sequence.incrementAndGet(), type, userId, username, duelId);
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(event);
+    } catch (JsonProcessingException e) {
+      log.warn("Lobby-Ereignis konnte nicht serialisiert werden", e);
+      return;
+    }
+    fanOut(SseEmitter.event()
+        .id(Long.toString(event.seq()))
+        .name(type.name())
+        .data(json, MediaType.APPLICATION_JSON)
+        .build());
+  }
+
+  /**
+   * Hält die Verbindungen mit einem SSE-Kommentar offen, damit Proxys sie nicht schließen.
+   */
+  @Scheduled(fixedDelayString = "${app.lobby.events.keep-alive:15000}")
+  public void keepAlive() {
+    if (!subscribers.isEmpty()) {
+      fanOut(SseEmitter.event().comment("keep-alive").build());
+    }
+  }
+
+  /**
+   * Trennt Abonnenten, die seit {@code stallTimeout} an einem Frame hängen.
+   */
+  @Scheduled(fixedDelayString = "${app.lobby.events.stall-check:1000}")
+  public void dropStalled() {
+    long now = System.currentTimeMillis();
+    for (Subscriber subscriber : subscribers) {
+      long since = subscriber.sendingSince.get();
+      if (since > 0 && now - since > stallTimeoutMs) {
+        log.debug("Lobby-Client hängt seit {} ms, wird getrennt", now - since);
+        drop(subscriber);
+      }
+    }
+  }
+
+  /**
+   * @return Anzahl der verbundenen Clients.
+   */
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  private void fanOut(Set<DataWithMediaType> frame) {
+    for (Subscriber subscriber : subscribers) {
+      if (!subscriber.queue.offer(frame)) {
+        // Client liest zu langsam: trennen statt unbegrenzt zu puffern
+        drop(subscriber);
+        continue;
+      }
+      schedule(subscriber);
+    }
+  }
+
+  private void schedule(Subscriber subscriber) {
+    if (subscriber.scheduled.compareAndSet(false, true)) {
+      try {
+        senders.execute(() -> drain(subscriber));
+      } catch (RejectedExecutionException e) {
+        subscriber.scheduled.set(false);
+        drop(subscriber);
+      }
+    }
+  }
+
+  private void drain(Subscriber subscriber) {
+    try {
+      Set<DataWithMediaType> frame;
+      while ((frame = subscriber.queue.poll()) != null) {
+        subscriber.sendingSince.set(System.currentTimeMillis());
+        subscriber.emitter.send(frame);
+        subscriber.sendingSince.set(0);
+      }
+    } catch (IOException | IllegalStateException e) {
+      drop(subscriber);
+      return;
+    } finally {
+      subscriber.scheduled.set(false);
+    }
+    if (!subscriber.queue.isEmpty()) {
+      schedule(subscriber);
+    }
+  }
+
+  private void drop(Subscriber subscriber) {
+    if (subscribers.remove(subscriber)) {
+      subscriber.queue.clear();
+      // complete() wartet auf ein laufendes send(); das soll nur einen Sende-Thread aufhalten
+      try {
+        senders.execute(subscriber.emitter::complete);
+      } catch (RejectedExecutionException e) {
+        log.debug("Lobby-Client wird ohne Abschluss getrennt");
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    subscribers.forEach(this::drop);
+    senders.shutdown();
+  }
+
+  private record Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue,
+      AtomicBoolean scheduled, AtomicLong sendingSince) {
+
+    Subscriber(SseEmitter emitter, BlockingQueue<Set<DataWithMediaType>> queue) {
+      this(emitter, queue, new AtomicBoolean(), new AtomicLong());
+    }
+  }
+}
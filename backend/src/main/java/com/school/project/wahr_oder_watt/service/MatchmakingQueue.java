@@ -0,0 +1,261 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Warteschlange für die Gegnersuche, getrennt nach {@link DuelMode} und Punkte-Klassen.
+ *
+ * <p>Ein Spieler landet in der Klasse {@code score / bracketWidth}. Beim Einreihen wird zuerst in
+ * der eigenen Klasse nach einem wartenden Gegner gesucht, danach in den Nachbarklassen, sofern der
+ * dortige Gegner schon lange genug wartet: Alle {@code widenStepMs} Millisekunden Wartezeit
+ * akzeptiert ein Spieler eine Klasse mehr Abstand, höchstens {@code maxWidenBrackets}.
+ *
+ * <p>Die Strukturen sind sperrfrei: Jede Klasse ist eine {@link ConcurrentLinkedQueue}, und ein
+ * Ticket wird per CAS auf seinem Zustand vergeben. Zwei Spieler, die sich beim gleichzeitigen
+ * Einreihen verpassen, paart {@link #matchWaiting()}.
+ */
+public class MatchmakingQueue {
+
+  /**
+   * Ein gefundenes Paar.
+   *
+   * @param mode Modus des Duells
+   * @param firstUserId der länger wartende Spieler
+   * @param secondUserId der zweite Spieler
+   */
+  public record Match(DuelMode mode, Long firstUserId, Long secondUserId) {
+  }
+
+  private static final int WAITING = 0;
+  private static final int RESERVED = 1;
+  private static final int MATCHED = 2;
+  private static final int CANCELLED = 3;
+
+  private final Map<DuelMode, Map<Integer, ConcurrentLinkedQueue<Ticket>>> brackets =
+      new EnumMap<>(DuelMode.class);
+  private final Map<Long, Ticket> byUser = new ConcurrentHashMap<>();
+  private final int bracketWidth;
+  private final long widenStepMs;
+  private final int maxWidenBrackets;
+  private final LongSupplier clock;
+
+  public MatchmakingQueue(int bracketWidth, long widenStepMs, int maxWidenBrackets,
+      LongSupplier clock) {
+    if (bracketWidth <= 0) {
+      throw new IllegalArgumentException("bracketWidth muss positiv sein");
+    }
+    this.bracketWidth = bracketWidth;
+    this.widenStepMs = widenStepMs;
+    this.maxWidenBrackets = maxWidenBrackets;
+    this.clock = clock;
+    for (DuelMode mode : DuelMode.values()) {
+      brackets.put(mode, new ConcurrentHashMap<>());
+    }
+  }
+
+  /**
+   * Reiht einen Spieler ein oder paart ihn sofort mit einem wartenden Gegner.
+   *
+   * @param userId ID des Spielers.
+   * @param score Punktzahl des Spielers.
+   * @param mode gewünschter Modus.
+   * @return das Paar, falls sofort ein Gegner gefunden wurde; leer, wenn der Spieler wartet oder
+   *     währenddessen abgebrochen hat.
+   * @throws IllegalStateException falls der Spieler bereits wartet.
+   */
+  public Optional<Match> enqueue(Long userId, int score, DuelMode mode) {
+    long now = clock.getAsLong();
+    Ticket ticket = new Ticket(userId, mode, bracketOf(score), now);
+    if (byUser.putIfAbsent(userId, ticket) != null) {
+      throw new IllegalStateException("Spieler wartet bereits: " + userId);
+    }
+    Map<Integer, ConcurrentLinkedQueue<Ticket>> byBracket = brackets.get(mode);
+    for (int distance = 0; distance <= maxWidenBrackets; distance++) {
+      Ticket partner = claimNear(byBracket, ticket, distance, now);
+      if (partner == null) {
+        continue;
+      }
+      if (!ticket.state.compareAndSet(WAITING, MATCHED)) {
+        // der Spieler hat inzwischen abgebrochen; der Gegner wartet weiter
+        partner.state.set(WAITING);
+        byBracket.computeIfAbsent(partner.bracket, b -> new ConcurrentLinkedQueue<>())
+            .offer(partner);
+        return Optional.empty();
+      }
+      byUser.remove(userId, ticket);
+      byUser.remove(partner.userId, partner);
+      return Optional.of(new Match(mode, partner.userId, userId));
+    }
+    byBracket.computeIfAbsent(ticket.bracket, b -> new ConcurrentLinkedQueue<>()).offer(ticket);
+    return Optional.empty();
+  }
+
+  /**
+   * Nimmt einen wartenden Spieler aus der Warteschlange.
+   *
+   * @param userId ID des Spielers.
+   * @return true, wenn der Spieler gewartet hat und noch nicht gepaart war.
+   */
+  public boolean cancel(Long userId) {
+    Ticket ticket = byUser.get(userId);
+    if (ticket == null) {
+      return false;
+    }
+    for (;;) {
+      int state = ticket.state.get();
+      if (state == WAITING && ticket.state.compareAndSet(WAITING, CANCELLED)) {
+        byUser.remove(userId, ticket);
+        return true;
+      }
+      if (state != WAITING && state != RESERVED) {
+        return false;
+      }
+      // RESERVED wird von matchWaiting() nach kurzer Suche wieder freigegeben
+      Thread.onSpinWait();
+    }
+  }
+
+  /**
+   * @param userId ID des Spielers.
+   * @return der Modus, in dem der Spieler wartet.
+   */
+  public Optional<DuelMode> waitingMode(Long userId) {
+    Ticket ticket = byUser.get(userId);
+    return ticket == null ? Optional.empty() : Optional.of(ticket.mode);
+  }
+
+  /**
+   * @return Anzahl der wartenden Spieler.
+   */
+  public int waitingCount() {
+    return byUser.size();
+  }
+
+  /**
+   * Paart wartende Spieler, die sich beim Einreihen verpasst haben oder deren Suchradius durch die
+   * Wartezeit gewachsen ist. Länger wartende Spieler kommen zuerst dran.
+   *
+   * @return die gefundenen Paare.
+   */
+  public List<Match> matchWaiting() {
+    long now = clock.getAsLong();
+    List<Match> matches = new ArrayList<>();
+    for (Map.Entry<DuelMode, Map<Integer, ConcurrentLinkedQueue<Ticket>>> entry
+        : brackets.entrySet()) {
+      Map<Integer, ConcurrentLinkedQueue<Ticket>> byBracket = entry.getValue();
+      for (ConcurrentLinkedQueue<Ticket> queue : new TreeMap<>(byBracket).values()) {
+        Iterator<Ticket> it = queue.iterator();
+        while (it.hasNext()) {
+          Ticket ticket = it.next();
+          if (!ticket.state.compareAndSet(WAITING, RESERVED)) {
+            if (ticket.isDone()) {
+              it.remove();
+            }
+            continue;
+          }
+          Ticket partner = null;
+          for (int distance = 0; distance <= maxWidenBrackets && partner == null; distance++) {
+            partner = claimNear(byBracket, ticket, distance, now);
+          }
+          if (partner == null) {
+            ticket.state.set(WAITING);
+            continue;
+          }
+          ticket.state.set(MATCHED);
+          it.remove();
+          byUser.remove(ticket.userId, ticket);
+          byUser.remove(partner.userId, partner);
+          Match match = ticket.enqueuedAt <= partner.enqueuedAt
+              ? new Match(entry.getKey(), ticket.userId, partner.userId)
+              : new Match(entry.getKey(), partner.userId, ticket.userId);
+          matches.add(match);
+        }
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Sucht in den Klassen mit genau {@code distance} Abstand einen wartenden Gegner und vergibt ihn
+   * per CAS. Ein Gegner passt, wenn einer der beiden Radien den Abstand abdeckt.
+   */
+  private Ticket claimNear(Map<Integer, ConcurrentLinkedQueue<Ticket>> byBracket, Ticket seeker,
+      int distance, long now) {
+    int seekerRadius = seeker.radius(now);
+    Ticket partner = claimIn(byBracket.get(seeker.bracket - distance), seeker, distance,
+        seekerRadius, now);
+    if (partner == null && distance > 0) {
+      partner = claimIn(byBracket.get(seeker.bracket + distance), seeker, distance, seekerRadius,
+          now);
+    }
+    return partner;
+  }
+
+  private Ticket claimIn(ConcurrentLinkedQueue<Ticket> queue, Ticket seeker, int distance,
+      int seekerRadius, long now) {
+    if (queue == null) {
+      return null;
+    }
+    Iterator<Ticket> it = queue.iterator();
+    while (it.hasNext()) {
+      Ticket candidate = it.next();
+      if (candidate == seeker) {
+        continue;
+      }
+      if (candidate.isDone()) {
+        it.remove();
+        continue;
+      }
+      if (Math.max(seekerRadius, candidate.radius(now)) < distance) {
+        continue;
+      }
+      if (candidate.state.compareAndSet(WAITING, MATCHED)) {
+        it.remove();
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private int bracketOf(int score) {
+    return Math.floorDiv(score, bracketWidth);
+  }
+
+  private final class Ticket {
+    final Long userId;
+    final DuelMode mode;
+    final int bracket;
+    final long enqueuedAt;
+    final AtomicInteger state = new AtomicInteger(WAITING);
+
+    Ticket(Long userId, DuelMode mode, int bracket, long enqueuedAt) {
+      this.userId = userId;
+      this.mode = mode;
+      this.bracket = bracket;
+      this.enqueuedAt = enqueuedAt;
+    }
+
+    int radius(long now) {
+      if (widenStepMs <= 0) {
+        return maxWidenBrackets;
+      }
+      return (int) Math.min(maxWidenBrackets, (now - enqueuedAt) / widenStepMs);
+    }
+
+    boolean isDone() {
+      int s = state.get();
+      return s == MATCHED || s == CANCELLED;
+    }
+  }
+}
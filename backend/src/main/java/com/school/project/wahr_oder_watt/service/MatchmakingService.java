@@ -0,0 +1,151 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.MatchmakingStatus;
+import com.school.project.wahr_oder_watt.dto.UserReadDto;
+import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.service.MatchmakingQueue.Match;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service für die Gegnersuche. Spieler reihen sich pro Modus in die {@link MatchmakingQueue} ein;
+ * für jedes gefundene Paar wird über {@link DuelService#instantiateDuel} ein Duell angelegt und an
+ * die {@link DuelEngine} übergeben.
+ */
+@Slf4j
+@Service
+public class MatchmakingService {
+
+  private final MatchmakingQueue queue;
+  private final DuelService duelService;
+  private final DuelEngine duelEngine;
+  private final UserService userService;
+  private final PresenceRegistry presenceRegistry;
+
+  public MatchmakingService(DuelService duelService, DuelEngine duelEngine,
+      UserService userService,
+      PresenceRegistry presenceRegistry,
+      @Value("${app.matchmaking.bracket-width:100}") int bracketWidth,
+      @Value("${app.matchmaking.widen-step:5000}") long widenStepMs,
+      @Value("${app.matchmaking.max-widen:3}") int maxWidenBrackets) {
+    this.duelService = duelService;
+    this.duelEngine = duelEngine;
+    this.userService = userService;
+    this.presenceRegistry = presenceRegistry;
+    this.queue = new MatchmakingQueue(bracketWidth, widenStepMs, maxWidenBrackets,
+        System::currentTimeMillis);
+  }
+
+  /**
+   * Reiht einen Spieler für den gewünschten Modus ein. Wartet bereits ein passender Gegner, startet
+   * das Duell sofort.
+   *
+   * @param userId ID des Spielers.
+   * @param mode gewünschter Modus.
+   * @return der neue Stand der Gegnersuche.
+   * @throws RuntimeException falls der Benutzer nicht gefunden wird.
+   * @throws IllegalStateException falls der Spieler bereits wartet.
+   */
+  public MatchmakingStatus enqueue(Long userId, DuelMode mode) {
+    UserReadDto user = userService.findReadDtoById(userId);
+    if (user.duelId() != null) {
+      return MatchmakingStatus.matched(user.duelId());
+    }
+    Optional<Match> match = queue.enqueue(userId, user.score(), mode);
+    if (match.isEmpty()) {
+      return MatchmakingStatus.waiting(mode);
+    }
+    Duel duel = start(match.get());
+    return duel != null ? MatchmakingStatus.matched(duel.getId()) : MatchmakingStatus.idle();
+  }
+
+  /**
+   * Bricht die Gegnersuche eines Spielers ab.
+   *
+   * @param userId ID des Spielers.
+   * @return true, wenn der Spieler gewartet hat.
+   */
+  public boolean cancel(Long userId) {
+    return queue.cancel(userId);
+  }
+
+  /**
+   * Gibt den Stand der Gegnersuche eines Spielers zurück.
+   *
+   * @param userId ID des Spielers.
+   * @return WAITING, solange der Spieler wartet, MATCHED mit Duell-ID, sobald er im Duell ist.
+   */
+  public MatchmakingStatus status(Long userId) {
+    Optional<DuelMode> waiting = queue.waitingMode(userId);
+    if (waiting.isPresent()) {
+      return MatchmakingStatus.waiting(waiting.get());
+    }
+    Long duelId = userService.findReadDtoById(userId).duelId();
+    return duelId != null ? MatchmakingStatus.matched(duelId) : MatchmakingStatus.idle();
+  }
+
+  /**
+   * Paart regelmäßig Spieler, deren Suchradius gewachsen ist oder die sich verpasst haben.
+   */
+  @Scheduled(fixedDelayString = "${app.matchmaking.sweep-interval:500}")
+  public void sweep() {
+    for (Match match : queue.matchWaiting()) {
+      try {
+        start(match);
+      } catch (RuntimeException e) {
+        // die übrigen Paare sind schon aus der Warteschlange genommen und müssen trotzdem starten
+        log.error("Gepaarte Spieler {} konnten nicht übernommen werden", match, e);
+      }
+    }
+  }
+
+  private Duel start(Match match) {
+    try {
+      Duel duel = duelService.instantiateDuel(match.mode(), match.firstUserId(),
+          match.secondUserId());
+      duelEngine.start(duel);
+      presenceRegistry.enteredDuel(match.firstUserId(), duel.getId());
+      presenceRegistry.enteredDuel(match.secondUserId(), duel.getId());
+      return duel;
+    } catch (RuntimeException e) {
+      // z.B. ein Spieler wurde inzwischen über die API einem Duell zugeordnet
+      log.warn("Duell für {} konnte nicht gestartet werden: {}", match, e.getMessage());
+      requeuePartner(match);
+      return null;
+    }
+  }
+
+  /**
+   * Reiht nach einem gescheiterten Start den Spieler wieder ein, der nichts dafür kann: Ist genau
+   * einer der beiden nicht mehr frei, sucht der andere weiter. Sind beide frei, lag es nicht an
+   * ihnen; dann bleiben beide draußen, damit derselbe Fehler nicht sofort wieder auftritt.
+   */
+  private void requeuePartner(Match match) {
+    UserReadDto first = findFree(match.firstUserId());
+    UserReadDto second = findFree(match.secondUserId());
+    UserReadDto partner = first == null ? second : second == null ? first : null;
+    // hat sich der Spieler inzwischen selbst wieder eingereiht, bleibt es dabei
+    if (partner == null || queue.waitingMode(partner.id()).isPresent()) {
+      return;
+    }
+    try {
+      queue.enqueue(partner.id(), partner.score(), match.mode()).ifPresent(this::start);
+    } catch (IllegalStateException e) {
+      // zwischen Prüfung und Einreihen über die API eingereiht
+      log.debug("Spieler {} wartet bereits", partner.id());
+    }
+  }
+
+  private UserReadDto findFree(Long userId) {
+    try {
+      UserReadDto user = userService.findReadDtoById(userId);
+      return user.duelId() == null ? user : null;
+    } catch (RuntimeException e) {
+      return null;
+    }
+  }
+}
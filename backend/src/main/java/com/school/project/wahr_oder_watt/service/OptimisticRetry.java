@@ -0,0 +1,70 @@
+package com.school.project.wahr_oder_watt.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Führt Lese-Ändere-Schreibe-Vorgänge auf versionierten Entities aus.
+ *
+ * <p>Jeder Versuch läuft in einer eigenen Transaktion und liest den aktuellen Stand neu. Scheitert
+ * das Schreiben an der Versionsprüfung, weil ein anderer Thread dieselbe Zeile geändert hat, wird
+ * der Vorgang nach einer kurzen, zufällig gestreuten Pause bis zu {@code maxAttempts} Mal
+ * wiederholt. Es werden keine Zeilensperren gehalten; der Vorgang muss daher ohne Seiteneffekte
+ * außerhalb der Transaktion auskommen, damit eine Wiederholung sicher ist.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+  private final TransactionTemplate transactionTemplate;
+  private final int maxAttempts;
+  private final long backoffMs;
+
+  public OptimisticRetry(TransactionTemplate transactionTemplate,
+      @Value("${app.duel.retry.max-attempts:3}") int maxAttempts,
+      @Value("${app.duel.retry.backoff:20}") long backoffMs) {
+    this.transactionTemplate = transactionTemplate;
+    this.maxAttempts = Math.max(1, maxAttempts);
+    this.backoffMs = backoffMs;
+  }
+
+  /**
+   * Führt den Vorgang aus und wiederholt ihn bei Versionskonflikten.
+   *
+   * @param action der Vorgang, läuft je Versuch in einer neuen Transaktion.
+   * @return das Ergebnis des erfolgreichen Versuchs.
+   * @throws OptimisticLockingFailureException wenn auch der letzte Versuch scheitert.
+   */
+  public <T> T execute(TransactionCallback<T> action) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return transactionTemplate.execute(action);
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxAttempts) {
+          throw e;
+        }
+        log.debug("Versionskonflikt, Versuch {} von {}: {}", attempt, maxAttempts, e.getMessage());
+        pause(attempt);
+      }
+    }
+  }
+
+  private void pause(int attempt) {
+    if (backoffMs <= 0) {
+      return;
+    }
+    // Streuung verhindert, dass zwei Verlierer im selben Takt erneut kollidieren
+    long delay = ThreadLocalRandom.current().nextLong(backoffMs * attempt + 1);
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Wiederholung unterbrochen", e);
+    }
+  }
+}
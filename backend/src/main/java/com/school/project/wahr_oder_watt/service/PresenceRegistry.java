@@ -0,0 +1,240 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.service.LobbyEventBroadcaster.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry der Benutzer, die gerade online sind.
+ *
+ * <p>Clients melden sich per Heartbeat; wer länger als {@code app.presence.timeout} keinen
+ * Heartbeat sendet, gilt als offline. Neben der Map nach Benutzer-ID gibt es einen sortierten Index
+ * über die kleingeschriebenen Benutzernamen, über den die Lobby per Präfix sucht. Beide Strukturen
+ * sind nebenläufig und ohne Sperren lesbar. Der Index wird nur innerhalb von {@code compute} auf der
+ * Map nach Benutzer-ID geändert, damit er bei gleichzeitigen Heartbeats, Umbenennungen und
+ * Abmeldungen zum gespeicherten Eintrag passt. Kommt ein Benutzer hinzu oder fällt er weg, geht ein
+ * Ereignis an den {@link LobbyEventBroadcaster}.
+ */
+@Component
+public class PresenceRegistry {
+
+  private static final char KEY_SEPARATOR = '\u0000';
+
+  private final Map<Long, Presence> online = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<String, Long> byName = new ConcurrentSkipListMap<>();
+  private final long timeoutMs;
+  private final LobbyEventBroadcaster lobbyEvents;
+
+  public PresenceRegistry(@Value("${app.presence.timeout:30000}") long timeoutMs,
+      LobbyEventBroadcaster lobbyEvents) {
+    this.timeoutMs = timeoutMs;
+    this.lobbyEvents = lobbyEvents;
+  }
+
+  /**
+   * Ein Benutzer, der online ist.
+   *
+   * @param userId ID des Benutzers
+   * @param username Benutzername
+   * @param indexKey Schlüssel im Namensindex
+   * @param lastSeen Zeitpunkt des letzten Heartbeats in Millisekunden
+   */
+  public record Presence(Long userId, String username, String indexKey, long lastSeen) {
+  }
+
+  /**
+   * Verarbeitet einen Heartbeat. Der Benutzername wird nur beim ersten Heartbeat geladen.
+   *
+   * @param userId ID des Benutzers.
+   * @param usernameLoader lädt den Benutzernamen, falls der Benutzer noch nicht online ist.
+   * @return true, wenn der Benutzer vorher offline war.
+   */
+  public boolean heartbeat(Long userId, Supplier<String> usernameLoader) {
+    long now = System.currentTimeMillis();
+    Presence refreshed = online.computeIfPresent(userId,
+        (id, p) -> new Presence(id, p.username(), p.indexKey(), now));
+    if (refreshed != null) {
+      return false;
+    }
+    String username = usernameLoader.get();
+    if (username == null) {
+      return false;
+    }
+    Presence presence = new Presence(userId, username, indexKey(username, userId), now);
+    Presence stored = online.compute(userId, (id, p) -> {
+      if (p != null) {
+        return new Presence(id, p.username(), p.indexKey(), now);
+      }
+      byName.put(presence.indexKey(), id);
+      return presence;
+    });
+    if (stored != presence) {
+      return false;
+    }
+    lobbyEvents.publish(Type.PLAYER_JOINED, userId, username, null);
+    return true;
+  }
+
+  /**
+   * Meldet einen Benutzer ab.
+   *
+   * @param userId ID des Benutzers.
+   * @return true, wenn der Benutzer online war.
+   */
+  public boolean leave(Long userId) {
+    Presence[] removed = new Presence[1];
+    online.computeIfPresent(userId, (id, p) -> {
+      byName.remove(p.indexKey(), id);
+      removed[0] = p;
+      return null;
+    });
+    if (removed[0] == null) {
+      return false;
+    }
+    lobbyEvents.publish(Type.PLAYER_LEFT, userId, removed[0].username(), null);
+    return true;
+  }
+
+  /**
+   * Meldet der Lobby, dass ein Benutzer ein Duell begonnen hat.
+   *
+   * @param userId ID des Benutzers.
+   * @param duelId ID des Duells.
+   */
+  public void enteredDuel(Long userId, Long duelId) {
+    Presence p = online.get(userId);
+    if (p != null) {
+      lobbyEvents.publish(Type.PLAYER_IN_DUEL, userId, p.username(), duelId);
+    }
+  }
+
+  /**
+   * Meldet der Lobby, dass ein Benutzer wieder herausgefordert werden kann.
+   *
+   * @param userId ID des Benutzers.
+   */
+  public void becameFree(Long userId) {
+    Presence p = online.get(userId);
+    if (p != null) {
+      lobbyEvents.publish(Type.PLAYER_FREE, userId, p.username(), null);
+    }
+  }
+
+  /**
+   * Aktualisiert den Benutzernamen im Index, falls der Benutzer online ist.
+   *
+   * @param userId ID des Benutzers.
+   * @param username neuer Benutzername.
+   */
+  public void rename(Long userId, String username) {
+    online.computeIfPresent(userId, (id, p) -> {
+      if (p.username().equals(username)) {
+        return p;
+      }
+      Presence renamed = new Presence(id, username, indexKey(username, id), p.lastSeen());
+      byName.remove(p.indexKey(), id);
+      byName.put(renamed.indexKey(), id);
+      return renamed;
+    });
+  }
+
+  /**
+   * @param userId ID des Benutzers.
+   * @return true, wenn der Benutzer online ist.
+   */
+  public boolean isOnline(Long userId) {
+    Presence p = online.get(userId);
+    return p != null && !isExpired(p, System.currentTimeMillis());
+  }
+
+  /**
+   * Sucht Benutzer, die online sind, alphabetisch nach Benutzername.
+   *
+   * @param prefix Präfix des Benutzernamens, null oder leer für alle.
+   * @param afterKey Index-Schlüssel, nach dem die Suche fortgesetzt wird, oder null.
+   * @param max maximale Anzahl an Treffern.
+   * @return die gefundenen Benutzer in Indexreihenfolge.
+   */
+  public List<Presence> search(String prefix, String afterKey, int max) {
+    String from = prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+    NavigableMap<String, Long> range = from.isEmpty()
+        ? byName
+        : byName.subMap(from, true, from + Character.MAX_VALUE, false);
+    if (afterKey != null) {
+      range = range.tailMap(afterKey, false);
+    }
+    long now = System.currentTimeMillis();
+    List<Presence> result = new ArrayList<>(Math.min(max, 64));
+    for (Long userId : range.values()) {
+      Presence p = online.get(userId);
+      if (p != null && !isExpired(p, now)) {
+        result.add(p);
+        if (result.size() >= max) {
+          break;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Anzahl der Benutzer, die online sind.
+   */
+  public int onlineCount() {
+    return online.size();
+  }
+
+  /**
+   * Entfernt regelmäßig Benutzer ohne aktuellen Heartbeat.
+   */
+  @Scheduled(fixedDelayString = "${app.presence.sweep-interval:10000}")
+  public void sweep() {
+    expire();
+  }
+
+  /**
+   * Entfernt Benutzer ohne aktuellen Heartbeat.
+   *
+   * @return die IDs der entfernten Benutzer.
+   */
+  public List<Long> expire() {
+    long now = System.currentTimeMillis();
+    List<Long> expired = new ArrayList<>();
+    for (Presence candidate : online.values()) {
+      if (!isExpired(candidate, now)) {
+        continue;
+      }
+      Presence[] removed = new Presence[1];
+      online.computeIfPresent(candidate.userId(), (id, p) -> {
+        if (!isExpired(p, now)) {
+          return p;
+        }
+        byName.remove(p.indexKey(), id);
+        removed[0] = p;
+        return null;
+      });
+      if (removed[0] != null) {
+        expired.add(removed[0].userId());
+        lobbyEvents.publish(Type.PLAYER_LEFT, removed[0].userId(), removed[0].username(), null);
+      }
+    }
+    return expired;
+  }
+
+  private boolean isExpired(Presence p, long now) {
+    return now - p.lastSeen() > timeoutMs;
+  }
+
+  private static String indexKey(String username, Long userId) {
+    return username.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + userId;
+  }
+}
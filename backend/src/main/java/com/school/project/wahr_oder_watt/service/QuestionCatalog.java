@@ -0,0 +1,80 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import com.school.project.wahr_oder_watt.dto.DeviceAttributeRow;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unveränderlicher Ausschnitt des Katalogs, aus dem {@link QuestionGenerator} Fragen zieht: die
+ * aktiven Geräte mit ihren richtigen Attributen und alle Attribute als mögliche Ablenker.
+ */
+public final class QuestionCatalog {
+
+  private final long[] deviceIds;
+  private final Map<Long, long[]> correctByDevice;
+  private final List<AttributeReadDto> attributes;
+  private final Map<Long, AttributeReadDto> attributesById;
+
+  private QuestionCatalog(long[] deviceIds, Map<Long, long[]> correctByDevice,
+      List<AttributeReadDto> attributes) {
+    this.deviceIds = deviceIds;
+    this.correctByDevice = correctByDevice;
+    this.attributes = attributes;
+    Map<Long, AttributeReadDto> byId = new HashMap<>(attributes.size() * 2);
+    for (AttributeReadDto attribute : attributes) {
+      byId.put(attribute.id(), attribute);
+    }
+    this.attributesById = Map.copyOf(byId);
+  }
+
+  /**
+   * Baut den Katalog aus den Datenbankzeilen.
+   *
+   * @param activeDeviceIds IDs der aktiven Geräte, aufsteigend.
+   * @param rows Attribute der aktiven Geräte aus device_attributes.
+   * @param attributes alle Attribute, aufsteigend nach ID.
+   * @return der Katalog.
+   */
+  public static QuestionCatalog of(Collection<Long> activeDeviceIds,
+      Collection<DeviceAttributeRow> rows, List<AttributeReadDto> attributes) {
+    Map<Long, List<Long>> correct = new HashMap<>();
+    for (DeviceAttributeRow row : rows) {
+      correct.computeIfAbsent(row.deviceId(), id -> new ArrayList<>()).add(row.attribute().id());
+    }
+    Map<Long, long[]> correctByDevice = new HashMap<>(correct.size() * 2);
+    correct.forEach((deviceId, ids) ->
+        correctByDevice.put(deviceId, ids.stream().mapToLong(Long::longValue).sorted().toArray()));
+    return new QuestionCatalog(
+        activeDeviceIds.stream().mapToLong(Long::longValue).toArray(),
+        Map.copyOf(correctByDevice),
+        List.copyOf(attributes));
+  }
+
+  int deviceCount() {
+    return deviceIds.length;
+  }
+
+  long deviceId(int index) {
+    return deviceIds[index];
+  }
+
+  long[] correct(long deviceId) {
+    return correctByDevice.getOrDefault(deviceId, new long[0]);
+  }
+
+  int attributeCount() {
+    return attributes.size();
+  }
+
+  AttributeReadDto attribute(int index) {
+    return attributes.get(index);
+  }
+
+  AttributeReadDto attributeById(long id) {
+    return attributesById.get(id);
+  }
+}
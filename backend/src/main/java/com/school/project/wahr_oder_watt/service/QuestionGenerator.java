@@ -0,0 +1,98 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Erzeugt die Fragen eines Duells aus einem {@link QuestionCatalog}.
+ *
+ * <p>Jede Frage zeigt ein Gerät mit seinen richtigen Attributen und zufälligen Ablenkern in
+ * gemischter Reihenfolge. Innerhalb eines Duells kommt kein Gerät zweimal vor. Gleicher Katalog und
+ * gleicher Seed ergeben immer dieselben Fragen.
+ */
+public final class QuestionGenerator {
+
+  /**
+   * Mindestanzahl an Ablenkern pro Frage, auch wenn das Gerät viele richtige Attribute hat.
+   */
+  static final int MIN_DISTRACTORS = 2;
+
+  /**
+   * Eine Frage.
+   *
+   * @param deviceId gezeigtes Gerät
+   * @param correct IDs der richtigen Attribute
+   * @param options Antwortmöglichkeiten in Anzeigereihenfolge
+   */
+  public record Question(Long deviceId, Set<Long> correct, List<AttributeReadDto> options) {
+  }
+
+  private QuestionGenerator() {
+  }
+
+  /**
+   * Zieht Fragen ohne Wiederholung.
+   *
+   * @param catalog Katalog, aus dem gezogen wird.
+   * @param rounds gewünschte Anzahl an Fragen; höchstens so viele, wie es aktive Geräte gibt.
+   * @param options gewünschte Anzahl an Antwortmöglichkeiten pro Frage.
+   * @param seed Seed des Zufallsgenerators.
+   * @return die Fragen in Rundenreihenfolge.
+   */
+  public static List<Question> generate(QuestionCatalog catalog, int rounds, int options,
+      long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int devices = catalog.deviceCount();
+    int count = Math.min(rounds, devices);
+    int[] order = new int[devices];
+    for (int i = 0; i < devices; i++) {
+      order[i] = i;
+    }
+    List<Question> questions = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      // Fisher-Yates nur für die ersten count Plätze
+      int pick = i + random.nextInt(devices - i);
+      int tmp = order[i];
+      order[i] = order[pick];
+      order[pick] = tmp;
+      questions.add(question(catalog, catalog.deviceId(order[i]), options, random));
+    }
+    return questions;
+  }
+
+  private static Question question(QuestionCatalog catalog, long deviceId, int options,
+      SplittableRandom random) {
+    long[] correctIds = catalog.correct(deviceId);
+    List<AttributeReadDto> shown = new ArrayList<>(Math.max(options, correctIds.length + 2));
+    Set<Long> correct = new HashSet<>();
+    for (long id : correctIds) {
+      AttributeReadDto attribute = catalog.attributeById(id);
+      if (attribute != null) {
+        shown.add(attribute);
+        correct.add(id);
+      }
+    }
+    int candidates = catalog.attributeCount() - correct.size();
+    int distractors = Math.min(candidates,
+        Math.max(MIN_DISTRACTORS, options - correct.size()));
+    Set<Integer> taken = new HashSet<>();
+    while (distractors > 0) {
+      int index = random.nextInt(catalog.attributeCount());
+      AttributeReadDto attribute = catalog.attribute(index);
+      if (Arrays.binarySearch(correctIds, attribute.id()) < 0 && taken.add(index)) {
+        shown.add(attribute);
+        distractors--;
+      }
+    }
+    for (int i = shown.size() - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      shown.set(j, shown.set(i, shown.get(j)));
+    }
+    return new Question(deviceId, Set.copyOf(correct), List.copyOf(shown));
+  }
+}
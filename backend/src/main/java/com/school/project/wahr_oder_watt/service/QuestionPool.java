@@ -0,0 +1,62 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.dto.DeviceReadDto;
+import com.school.project.wahr_oder_watt.dto.SpeedrunCard;
+import com.school.project.wahr_oder_watt.service.QuestionGenerator.Question;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Zieht die Fragen eines neuen Duells ohne Datenbankzugriff aus dem aktuellen
+ * {@link CatalogSnapshot}.
+ *
+ * <p>Der {@link QuestionCatalog} wird einmal pro Katalogstand gebaut; nach Änderungen an Geräten
+ * oder Attributen tauscht der {@link CatalogStore} den Stand aus, laufende Duelle behalten ihre
+ * bereits gezogenen Fragen.
+ */
+@Component
+public class QuestionPool {
+
+  private final CatalogStore catalogStore;
+  private final int options;
+
+  public QuestionPool(CatalogStore catalogStore,
+      @Value("${app.questions.options:6}") int options) {
+    this.catalogStore = catalogStore;
+    this.options = options;
+  }
+
+  /**
+   * Zieht die Fragen für ein Duell aus dem aktuellen Katalogstand.
+   *
+   * @param rounds gewünschte Anzahl an Fragen.
+   * @param seed Seed; derselbe Seed ergibt bei gleichem Katalog dieselben Fragen.
+   * @return die Fragen ohne Wiederholung.
+   */
+  public List<Question> draw(int rounds, long seed) {
+    return QuestionGenerator.generate(catalogStore.snapshot().questionCatalog(), rounds, options,
+        seed);
+  }
+
+  /**
+   * Macht aus gezogenen Fragen die Karten eines Speedrun-Decks, mit Bild und Beschreibung der
+   * Geräte aus dem aktuellen Katalogstand.
+   *
+   * @param questions die Fragen in Rundenreihenfolge.
+   * @return die Karten, nummeriert ab 1.
+   */
+  public List<SpeedrunCard> cards(List<Question> questions) {
+    CatalogSnapshot catalog = catalogStore.snapshot();
+    List<SpeedrunCard> cards = new ArrayList<>(questions.size());
+    for (Question question : questions) {
+      DeviceReadDto device = catalog.device(question.deviceId()).orElse(null);
+      cards.add(new SpeedrunCard(cards.size() + 1, question.deviceId(),
+          device != null ? device.imageUrl() : null,
+          device != null ? device.description() : null,
+          question.options()));
+    }
+    return List.copyOf(cards);
+  }
+}
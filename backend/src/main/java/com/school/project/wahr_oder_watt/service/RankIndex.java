@@ -0,0 +1,302 @@
+package com.school.project.wahr_oder_watt.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rangliste als Order-Statistics-Baum: ein Treap, sortiert nach Punkten absteigend und bei
+ * Gleichstand nach Highscore-ID aufsteigend, in dem jeder Knoten die Größe seines Teilbaums kennt.
+ *
+ * <p>Einfügen, Entfernen, Rang eines Eintrags und Sprung an Position k kosten damit erwartet
+ * O(log n), eine Seite von k Einträgen O(log n + k). Die Priorität eines Knotens wird aus der
+ * Highscore-ID gemischt, der Baum ist also für dieselben Einträge immer gleich aufgebaut.
+ *
+ * <p>Ränge werden wie bei Wettkämpfen vergeben: Gleich viele Punkte ergeben denselben Rang, der
+ * nächste Rang zählt die Gleichplatzierten mit (1, 2, 2, 4).
+ *
+ * <p>Nicht threadsicher; {@link Leaderboard} regelt den Zugriff.
+ */
+final class RankIndex {
+
+  /**
+   * Ein Eintrag der Rangliste.
+   *
+   * @param highscoreId ID des Highscore-Eintrags
+   * @param userId ID des Benutzers oder null
+   * @param username Benutzername oder "Unbekannt"
+   * @param score Punktzahl
+   */
+  record Entry(Long highscoreId, Long userId, String username, int score) {
+  }
+
+  /**
+   * Ein Eintrag mit seinem Rang.
+   */
+  record Ranked(int rank, Entry entry) {
+  }
+
+  private static final class Node {
+    final Entry entry;
+    final long priority;
+    int size = 1;
+    Node left;
+    Node right;
+
+    Node(Entry entry) {
+      this.entry = entry;
+      this.priority = mix(entry.highscoreId());
+    }
+  }
+
+  private final Map<Long, Node> byId = new HashMap<>();
+  private final Map<Long, Node> byUser = new HashMap<>();
+  private Node root;
+
+  /**
+   * @return Anzahl der Einträge.
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Fügt einen Eintrag ein oder ersetzt den Eintrag mit derselben Highscore-ID. Hatte der Benutzer
+   * bisher einen anderen Eintrag, fällt dieser weg.
+   *
+   * @param entry der neue Eintrag.
+   */
+  void put(Entry entry) {
+    remove(entry.highscoreId());
+    if (entry.userId() != null) {
+      Node previous = byUser.get(entry.userId());
+      if (previous != null) {
+        remove(previous.entry.highscoreId());
+      }
+    }
+    Node node = new Node(entry);
+    root = insert(root, node);
+    byId.put(entry.highscoreId(), node);
+    if (entry.userId() != null) {
+      byUser.put(entry.userId(), node);
+    }
+  }
+
+  /**
+   * Entfernt einen Eintrag.
+   *
+   * @param highscoreId ID des Highscore-Eintrags.
+   * @return der entfernte Eintrag oder null.
+   */
+  Entry remove(Long highscoreId) {
+    Node node = byId.remove(highscoreId);
+    if (node == null) {
+      return null;
+    }
+    if (node.entry.userId() != null) {
+      byUser.remove(node.entry.userId(), node);
+    }
+    root = delete(root, node.entry);
+    return node.entry;
+  }
+
+  /**
+   * @param highscoreId ID des Highscore-Eintrags.
+   * @return der Eintrag oder null.
+   */
+  Entry get(Long highscoreId) {
+    Node node = byId.get(highscoreId);
+    return node != null ? node.entry : null;
+  }
+
+  /**
+   * @param userId ID des Benutzers.
+   * @return der Eintrag des Benutzers oder null.
+   */
+  Entry getByUser(Long userId) {
+    Node node = byUser.get(userId);
+    return node != null ? node.entry : null;
+  }
+
+  /**
+   * @param entry ein enthaltener Eintrag.
+   * @return Position des Eintrags, beginnend bei 0.
+   */
+  int positionOf(Entry entry) {
+    int before = 0;
+    Node n = root;
+    while (n != null) {
+      int c = compare(entry.score(), entry.highscoreId(), n.entry);
+      if (c < 0) {
+        n = n.left;
+      } else {
+        before += size(n.left);
+        if (c == 0) {
+          break;
+        }
+        before++;
+        n = n.right;
+      }
+    }
+    return before;
+  }
+
+  /**
+   * @param score eine Punktzahl.
+   * @return Rang, den diese Punktzahl hätte: eins mehr als die Anzahl besserer Einträge.
+   */
+  int rankOf(int score) {
+    int better = 0;
+    Node n = root;
+    while (n != null) {
+      if (n.entry.score() > score) {
+        better += size(n.left) + 1;
+        n = n.right;
+      } else {
+        n = n.left;
+      }
+    }
+    return better + 1;
+  }
+
+  /**
+   * Liefert die Einträge ab einer Position in Ranglistenreihenfolge.
+   *
+   * @param offset Position des ersten Eintrags, beginnend bei 0.
+   * @param limit höchstens so viele Einträge.
+   * @return die Einträge mit Rang.
+   */
+  List<Ranked> range(int offset, int limit) {
+    int count = Math.max(0, Math.min(limit, size(root) - offset));
+    List<Ranked> result = new ArrayList<>(count);
+    if (count == 0 || offset < 0) {
+      return result;
+    }
+    // Pfad bis zur Position offset; auf dem Stapel liegen genau die Knoten, die danach folgen
+    Deque<Node> stack = new ArrayDeque<>();
+    Node n = root;
+    int skip = offset;
+    while (n != null) {
+      int leftSize = size(n.left);
+      if (skip < leftSize) {
+        stack.push(n);
+        n = n.left;
+      } else if (skip == leftSize) {
+        stack.push(n);
+        break;
+      } else {
+        skip -= leftSize + 1;
+        n = n.right;
+      }
+    }
+    int rank = 0;
+    int previousScore = 0;
+    while (!stack.isEmpty() && result.size() < count) {
+      Node current = stack.pop();
+      int score = current.entry.score();
+      if (result.isEmpty()) {
+        rank = rankOf(score);
+      } else if (score != previousScore) {
+        rank = offset + result.size() + 1;
+      }
+      previousScore = score;
+      result.add(new Ranked(rank, current.entry));
+      for (Node r = current.right; r != null; r = r.left) {
+        stack.push(r);
+      }
+    }
+    return result;
+  }
+
+  private static Node insert(Node n, Node node) {
+    if (n == null) {
+      return node;
+    }
+    if (compare(node.entry.score(), node.entry.highscoreId(), n.entry) < 0) {
+      n.left = insert(n.left, node);
+      if (n.left.priority > n.priority) {
+        n = rotateRight(n);
+      }
+    } else {
+      n.right = insert(n.right, node);
+      if (n.right.priority > n.priority) {
+        n = rotateLeft(n);
+      }
+    }
+    update(n);
+    return n;
+  }
+
+  private static Node delete(Node n, Entry entry) {
+    if (n == null) {
+      return null;
+    }
+    int c = compare(entry.score(), entry.highscoreId(), n.entry);
+    if (c < 0) {
+      n.left = delete(n.left, entry);
+    } else if (c > 0) {
+      n.right = delete(n.right, entry);
+    } else {
+      return merge(n.left, n.right);
+    }
+    update(n);
+    return n;
+  }
+
+  private static Node merge(Node a, Node b) {
+    if (a == null) {
+      return b;
+    }
+    if (b == null) {
+      return a;
+    }
+    if (a.priority > b.priority) {
+      a.right = merge(a.right, b);
+      update(a);
+      return a;
+    }
+    b.left = merge(a, b.left);
+    update(b);
+    return b;
+  }
+
+  private static Node rotateRight(Node n) {
+    Node l = n.left;
+    n.left = l.right;
+    l.right = n;
+    update(n);
+    update(l);
+    return l;
+  }
+
+  private static Node rotateLeft(Node n) {
+    Node r = n.right;
+    n.right = r.left;
+    r.left = n;
+    update(n);
+    update(r);
+    return r;
+  }
+
+  private static void update(Node n) {
+    n.size = 1 + size(n.left) + size(n.right);
+  }
+
+  private static int size(Node n) {
+    return n == null ? 0 : n.size;
+  }
+
+  private static int compare(int score, Long highscoreId, Entry other) {
+    int c = Integer.compare(other.score(), score);
+    return c != 0 ? c : Long.compare(highscoreId, other.highscoreId());
+  }
+
+  private static long mix(long x) {
+    x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+    x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return x ^ (x >>> 33);
+  }
+}
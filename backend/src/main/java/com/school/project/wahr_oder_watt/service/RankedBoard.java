@@ -0,0 +1,90 @@
+package com.school.project.wahr_oder_watt.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Eine Rangliste im Speicher: ein {@link RankIndex} mit Lese-/Schreibsperre und Versionsnummer.
+ *
+ * <p>Leser teilen sich die Lesesperre, Änderungen nehmen die Schreibsperre nur für die
+ * Baumoperation. Jede wirksame Änderung erhöht die Version.
+ */
+final class RankedBoard {
+
+  private final LocalDate periodStart;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private RankIndex index;
+  private volatile long version;
+
+  /**
+   * @param periodStart erster Tag des Zeitraums oder null für die Gesamtwertung.
+   * @param index Anfangsbestand.
+   * @param version Anfangsversion.
+   */
+  RankedBoard(LocalDate periodStart, RankIndex index, long version) {
+    this.periodStart = periodStart;
+    this.index = index;
+    this.version = version;
+  }
+
+  /**
+   * @return erster Tag des Zeitraums oder null für die Gesamtwertung.
+   */
+  LocalDate periodStart() {
+    return periodStart;
+  }
+
+  /**
+   * @return Versionsnummer, steigt mit jeder Änderung.
+   */
+  long version() {
+    return version;
+  }
+
+  /**
+   * Liest unter der Lesesperre. Solange sie gehalten wird, passt {@link #version()} zum gelesenen
+   * Stand.
+   *
+   * @param query Abfrage auf dem Index.
+   */
+  <T> T read(Function<RankIndex, T> query) {
+    lock.readLock().lock();
+    try {
+      return query.apply(index);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Ändert unter der Schreibsperre.
+   *
+   * @param change Änderung am Index; liefert true, wenn sich etwas geändert hat.
+   */
+  void write(Predicate<RankIndex> change) {
+    lock.writeLock().lock();
+    try {
+      if (change.test(index)) {
+        version++;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Ersetzt den ganzen Bestand.
+   *
+   * @param rebuilt der neue Index.
+   */
+  void replace(RankIndex rebuilt) {
+    write(current -> {
+      index = rebuilt;
+      return true;
+    });
+  }
+}
@@ -0,0 +1,191 @@
+package com.school.project.wahr_oder_watt.service;
+
+import com.school.project.wahr_oder_watt.repository.ScoreIncrementRepository;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sammelt Punkteänderungen je Benutzer und schreibt sie gebündelt als Zuwachs fort.
+ *
+ * <p>Statt einen Benutzer zu laden, die Punkte zu überschreiben und zurückzuspeichern, werden
+ * Änderungen im Speicher aufaddiert, verteilt auf {@code stripes} Teilbereiche mit eigener Sperre,
+ * damit parallele Duelle sich kaum behindern. Ein regelmäßiger Flush schreibt je Benutzer ein
+ * {@code score = score + ?} in {@code user} und in seinen Highscore, als JDBC-Batch in einer
+ * Transaktion; die Datenbank rechnet selbst, es geht also auch mit mehreren Knoten kein Punkt
+ * verloren. Hat ein Benutzer noch keinen Highscore, bekommt er beim ersten Flush einen mit seinen
+ * bisherigen Punkten, sodass beide Werte gleich bleiben.
+ *
+ * <p>Schlägt ein Flush fehl, kommen die Änderungen zurück in den Puffer. Beim Herunterfahren wird
+ * alles Ausstehende geschrieben; {@link #flush()} lässt sich auch direkt aufrufen, etwa in Tests.
+ * Einzelne Änderungen, deren Ergebnis eine Antwort zeigen soll, schreibt {@link #addNow} sofort und
+ * nur für diesen einen Benutzer.
+ */
+@Slf4j
+@Component
+public class ScoreAccumulator {
+
+  private static final class Stripe {
+    Map<Long, Integer> deltas = new HashMap<>();
+  }
+
+  private final Stripe[] stripes;
+  private final ScoreIncrementRepository incrementRepository;
+  private final Leaderboard leaderboard;
+  private final TransactionTemplate transactionTemplate;
+  private final int batchSize;
+
+  public ScoreAccumulator(ScoreIncrementRepository incrementRepository, Leaderboard leaderboard,
+      TransactionTemplate transactionTemplate,
+      @Value("${app.scores.stripes:16}") int stripes,
+      @Value("${app.scores.batch-size:500}") int batchSize) {
+    this.incrementRepository = incrementRepository;
+    this.leaderboard = leaderboard;
+    this.transactionTemplate = transactionTemplate;
+    this.batchSize = batchSize;
+    // Zweierpotenz, damit der Teilbereich per Maske bestimmt werden kann
+    int count = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new Stripe[count];
+    for (int i = 0; i < count; i++) {
+      this.stripes[i] = new Stripe();
+    }
+  }
+
+  /**
+   * Merkt eine Punkteänderung vor.
+   *
+   * @param userId ID des Benutzers.
+   * @param delta Punkte, die hinzukommen; negativ zum Abziehen.
+   */
+  public void add(Long userId, int delta) {
+    if (delta == 0) {
+      return;
+    }
+    Stripe stripe = stripeOf(userId);
+    synchronized (stripe) {
+      stripe.deltas.merge(userId, delta, Integer::sum);
+    }
+  }
+
+  /**
+   * Merkt Punkteänderungen erst nach dem Commit der laufenden Transaktion vor. Eine
+   * zurückgerollte oder wiederholte Transaktion zählt dadurch nichts doppelt.
+   *
+   * @param deltas Punkte je Benutzer-ID.
+   */
+  public void addAfterCommit(Map<Long, Integer> deltas) {
+    if (deltas.isEmpty()) {
+      return;
+    }
+    Map<Long, Integer> copy = Map.copyOf(deltas);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          copy.forEach(ScoreAccumulator.this::add);
+        }
+      });
+    } else {
+      copy.forEach(this::add);
+    }
+  }
+
+  /**
+   * Schreibt eine einzelne Punkteänderung sofort, am Puffer vorbei, etwa wenn ein Administrator
+   * Punkte setzt. Läuft in der Transaktion des Aufrufers, falls es eine gibt; ein Fehler geht an
+   * ihn zurück, statt im Puffer zu landen.
+   *
+   * @param userId ID des Benutzers.
+   * @param delta Punkte, die hinzukommen; negativ zum Abziehen.
+   * @return Punkte des Benutzers laut Datenbank nach der Änderung.
+   */
+  public int addNow(Long userId, int delta) {
+    return transactionTemplate.execute(tx -> {
+      write(List.of(Map.entry(userId, delta)));
+      return incrementRepository.scoreOf(userId);
+    });
+  }
+
+  /**
+   * @return Anzahl der Benutzer mit noch nicht geschriebenen Punkten.
+   */
+  public int pendingCount() {
+    int count = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        count += stripe.deltas.size();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Schreibt alle ausstehenden Punkte in die Datenbank und trägt die geänderten Highscores in die
+   * Gesamtwertung ein. Nicht innerhalb einer Transaktion aufrufen: Die Punkte anderer Benutzer
+   * würden sonst mit ihr zurückgerollt.
+   *
+   * @return Anzahl der Benutzer, deren Punkte geschrieben wurden.
+   */
+  @Scheduled(fixedDelayString = "${app.scores.flush-interval:1000}")
+  public synchronized int flush() {
+    // sortiert, damit parallele Knoten die Zeilen in derselben Reihenfolge sperren
+    List<Map.Entry<Long, Integer>> drained = new ArrayList<>(drain().entrySet());
+    int written = 0;
+    for (int from = 0; from < drained.size(); from += batchSize) {
+      List<Map.Entry<Long, Integer>> batch =
+          drained.subList(from, Math.min(drained.size(), from + batchSize));
+      try {
+        transactionTemplate.executeWithoutResult(tx -> write(batch));
+        written += batch.size();
+      } catch (RuntimeException e) {
+        log.error("Punkte für {} Benutzer konnten nicht geschrieben werden", batch.size(), e);
+        batch.forEach(delta -> add(delta.getKey(), delta.getValue()));
+      }
+    }
+    return written;
+  }
+
+  private void write(List<Map.Entry<Long, Integer>> batch) {
+    List<Long> userIds = batch.stream().map(Map.Entry::getKey).toList();
+    incrementRepository.createMissingHighscores(userIds);
+    incrementRepository.addAll(batch);
+    leaderboard.refreshPlayersAfterCommit(userIds);
+  }
+
+  private Map<Long, Integer> drain() {
+    Map<Long, Integer> drained = new TreeMap<>();
+    for (Stripe stripe : stripes) {
+      Map<Long, Integer> deltas;
+      synchronized (stripe) {
+        deltas = stripe.deltas;
+        stripe.deltas = new HashMap<>();
+      }
+      deltas.forEach((userId, delta) -> {
+        if (delta != 0) {
+          drained.put(userId, delta);
+        }
+      });
+    }
+    return drained;
+  }
+
+  private Stripe stripeOf(Long userId) {
+    long h = userId * 0x9e3779b97f4a7c15L;
+    return stripes[(int) (h ^ (h >>> 32)) & (stripes.length - 1)];
+  }
+
+  @PreDestroy
+  void shutdown() {
+    flush();
+  }
+}
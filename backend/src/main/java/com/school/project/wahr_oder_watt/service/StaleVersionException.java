@@ -0,0 +1,13 @@
+package com.school.project.wahr_oder_watt.service;
+
+/**
+ * Wird geworfen, wenn ein Client eine Änderung auf Grundlage eines veralteten Stands schickt.
+ * Anders als ein Konflikt beim Schreiben wird diese Ausnahme nicht wiederholt: der Client muss den
+ * aktuellen Stand neu laden.
+ */
+public class StaleVersionException extends RuntimeException {
+
+  public StaleVersionException(String message) {
+    super(message);
+  }
+}
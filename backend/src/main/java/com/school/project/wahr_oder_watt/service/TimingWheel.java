@@ -0,0 +1,300 @@
+package com.school.project.wahr_oder_watt.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hierarchisches Zeitrad für viele kurze Fristen, z.B. Runden- und Duell-Timer.
+ *
+ * <p>Drei Räder mit je 256 Fächern decken {@code 2^24} Ticks ab; eine Frist landet in dem Rad, in
+ * dessen Umlauf sie fällt, und rutscht beim Überlauf des kleineren Rads eine Ebene tiefer. Ein
+ * einziger Ticker-Thread besitzt die Räder. Andere Threads legen neue und abgebrochene Fristen nur
+ * per CAS auf einen Stapel, den der Ticker beim nächsten Tick einsortiert; Einplanen und Abbrechen
+ * kosten damit O(1) und brauchen keine Sperre und kein {@code ScheduledFuture}.
+ *
+ * <p>Aufgaben laufen im Ticker-Thread und müssen daher kurz sein und dürfen nicht blockieren.
+ */
+@Slf4j
+public class TimingWheel {
+
+  private static final int WHEEL_BITS = 8;
+  private static final int SLOTS = 1 << WHEEL_BITS;
+  private static final int MASK = SLOTS - 1;
+  private static final int LEVELS = 3;
+  private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+
+  private static final int PENDING = 0;
+  private static final int CANCELLED = 1;
+  private static final int EXPIRED = 2;
+
+  private final long tickMs;
+  private final LongSupplier clock;
+  private final long startMs;
+  private final Timeout[][] wheels = new Timeout[LEVELS][SLOTS];
+  private final AtomicReference<Timeout> added = new AtomicReference<>();
+  private final AtomicReference<Timeout> cancelled = new AtomicReference<>();
+  private final AtomicInteger pending = new AtomicInteger();
+
+  /** Zuletzt verarbeiteter Tick; gehört dem Ticker. */
+  private long currentTick;
+  private volatile Thread ticker;
+
+  /**
+   * @param tickMs Auflösung in Millisekunden.
+   * @param clock monotone Uhr in Millisekunden.
+   */
+  public TimingWheel(long tickMs, LongSupplier clock) {
+    if (tickMs <= 0) {
+      throw new IllegalArgumentException("tickMs muss positiv sein");
+    }
+    this.tickMs = tickMs;
+    this.clock = clock;
+    this.startMs = clock.getAsLong();
+  }
+
+  /**
+   * Plant eine Aufgabe ein. Kann von jedem Thread aufgerufen werden.
+   *
+   * @param delayMs Verzögerung in Millisekunden.
+   * @param task Aufgabe, die nach Ablauf im Ticker-Thread läuft.
+   * @return Griff zum Abbrechen.
+   */
+  public Timeout schedule(long delayMs, Runnable task) {
+    long elapsed = clock.getAsLong() - startMs + Math.max(0, delayMs);
+    Timeout timeout = new Timeout(this, (elapsed + tickMs - 1) / tickMs, task);
+    pending.incrementAndGet();
+    push(added, timeout, true);
+    return timeout;
+  }
+
+  /**
+   * @return Anzahl der eingeplanten, weder abgelaufenen noch abgebrochenen Aufgaben.
+   */
+  public int pendingCount() {
+    return pending.get();
+  }
+
+  /**
+   * Startet den Ticker-Thread.
+   */
+  public synchronized void start() {
+    if (ticker != null) {
+      return;
+    }
+    Thread thread = new Thread(this::run, "timing-wheel");
+    thread.setDaemon(true);
+    ticker = thread;
+    thread.start();
+  }
+
+  /**
+   * Hält den Ticker-Thread an; noch ausstehende Aufgaben verfallen.
+   */
+  public synchronized void stop() {
+    Thread thread = ticker;
+    ticker = null;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  private void run() {
+    Thread self = Thread.currentThread();
+    while (ticker == self) {
+      long now = clock.getAsLong();
+      long nextTickAt = startMs + (currentTick + 1) * tickMs;
+      if (now < nextTickAt) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(nextTickAt - now));
+        continue;
+      }
+      advance(now);
+    }
+  }
+
+  /**
+   * Sortiert neue und abgebrochene Fristen ein und arbeitet alle Ticks bis {@code now} ab. Nur vom
+   * Ticker-Thread aufrufen oder, in Tests, ohne laufenden Ticker.
+   *
+   * @param now aktuelle Zeit der Uhr in Millisekunden.
+   * @return Anzahl der ausgeführten Aufgaben.
+   */
+  int advance(long now) {
+    long target = (now - startMs) / tickMs;
+    int fired = 0;
+    drain();
+    while (currentTick < target) {
+      currentTick++;
+      cascade();
+      fired += expire(currentTick & MASK);
+      // Aufgaben können neue Fristen einplanen, die schon in diesem Durchlauf fällig sind
+      drain();
+    }
+    return fired;
+  }
+
+  private void drain() {
+    Timeout timeout = added.getAndSet(null);
+    while (timeout != null) {
+      Timeout next = timeout.nextAdded;
+      timeout.nextAdded = null;
+      if (timeout.state.get() == PENDING) {
+        timeout.deadlineTick = Math.max(timeout.deadlineTick, currentTick + 1);
+        place(timeout);
+      }
+      timeout = next;
+    }
+    timeout = cancelled.getAndSet(null);
+    while (timeout != null) {
+      Timeout next = timeout.nextCancelled;
+      timeout.nextCancelled = null;
+      unlink(timeout);
+      timeout = next;
+    }
+  }
+
+  /**
+   * Verschiebt beim Überlauf eines Rads das aktuelle Fach des nächstgrößeren Rads nach unten.
+   */
+  private void cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      int shift = WHEEL_BITS * level;
+      if ((currentTick & ((1L << shift) - 1)) != 0) {
+        return;
+      }
+      int slot = (int) ((currentTick >>> shift) & MASK);
+      Timeout timeout = wheels[level][slot];
+      wheels[level][slot] = null;
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.level = -1;
+        if (timeout.state.get() == PENDING) {
+          place(timeout);
+        }
+        timeout = next;
+      }
+    }
+  }
+
+  private int expire(long slot) {
+    Timeout timeout = wheels[0][(int) slot];
+    wheels[0][(int) slot] = null;
+    int fired = 0;
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.level = -1;
+      if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+        pending.decrementAndGet();
+        fired++;
+        try {
+          timeout.task.run();
+        } catch (RuntimeException e) {
+          log.error("Zeitgesteuerte Aufgabe fehlgeschlagen", e);
+        }
+      }
+      timeout = next;
+    }
+    return fired;
+  }
+
+  private void place(Timeout timeout) {
+    long delta = timeout.deadlineTick - currentTick;
+    if (delta > MAX_DELTA) {
+      timeout.deadlineTick = currentTick + MAX_DELTA;
+      delta = MAX_DELTA;
+    }
+    int level = 0;
+    while (level < LEVELS - 1 && delta >= 1L << (WHEEL_BITS * (level + 1))) {
+      level++;
+    }
+    int slot = (int) ((timeout.deadlineTick >>> (WHEEL_BITS * level)) & MASK);
+    Timeout head = wheels[level][slot];
+    timeout.next = head;
+    if (head != null) {
+      head.prev = timeout;
+    }
+    wheels[level][slot] = timeout;
+    timeout.level = level;
+    timeout.slot = slot;
+  }
+
+  private void unlink(Timeout timeout) {
+    if (timeout.level < 0) {
+      return;
+    }
+    if (timeout.prev != null) {
+      timeout.prev.next = timeout.next;
+    } else {
+      wheels[timeout.level][timeout.slot] = timeout.next;
+    }
+    if (timeout.next != null) {
+      timeout.next.prev = timeout.prev;
+    }
+    timeout.prev = null;
+    timeout.next = null;
+    timeout.level = -1;
+  }
+
+  private static void push(AtomicReference<Timeout> stack, Timeout timeout, boolean add) {
+    Timeout head;
+    do {
+      head = stack.get();
+      if (add) {
+        timeout.nextAdded = head;
+      } else {
+        timeout.nextCancelled = head;
+      }
+    } while (!stack.compareAndSet(head, timeout));
+  }
+
+  /**
+   * Eine eingeplante Frist. Die Verkettungsfelder gehören dem Ticker-Thread.
+   */
+  public static final class Timeout {
+
+    private final TimingWheel wheel;
+    private final Runnable task;
+    private final AtomicInteger state = new AtomicInteger(PENDING);
+    private long deadlineTick;
+    private Timeout nextAdded;
+    private Timeout nextCancelled;
+    private Timeout prev;
+    private Timeout next;
+    private int level = -1;
+    private int slot;
+
+    private Timeout(TimingWheel wheel, long deadlineTick, Runnable task) {
+      this.wheel = wheel;
+      this.deadlineTick = deadlineTick;
+      this.task = task;
+    }
+
+    /**
+     * Bricht die Frist ab. Kann von jedem Thread aufgerufen werden.
+     *
+     * @return true, wenn die Aufgabe dadurch nicht mehr ausgeführt wird.
+     */
+    public boolean cancel() {
+      if (!state.compareAndSet(PENDING, CANCELLED)) {
+        return false;
+      }
+      wheel.pending.decrementAndGet();
+      push(wheel.cancelled, this, false);
+      return true;
+    }
+
+    /**
+     * @return true, wenn die Aufgabe bereits ausgeführt wurde.
+     */
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+  }
+}
@@ -2,12 +2,21 @@ package com.school.project.wahr_oder_watt.service;
 
 import com.school.project.wahr_oder_watt.model.User;
 import com.school.project.wahr_oder_watt.dto.RegisterRequest;
+import com.school.project.wahr_oder_watt.dto.CursorPage;
+import com.school.project.wahr_oder_watt.dto.UserDto;
+import com.school.project.wahr_oder_watt.dto.UserReadDto;
 import com.school.project.wahr_oder_watt.repository.UserRepository;
+import com.school.project.wahr_oder_watt.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service zur Verwaltung von Benutzern.
@@ -17,6 +26,11 @@ import java.util.List;
 public class UserService {
 
   private final UserRepository userRepository;
+  private final PrincipalCache principalCache;
+  private final CursorPagination pagination;
+  private final PresenceRegistry presenceRegistry;
+  private final Leaderboard leaderboard;
+  private final ScoreAccumulator scoreAccumulator;
 
   /**
    * Gibt alle Benutzer zurück.
@@ -27,6 +41,96 @@ public class UserService {
     return userRepository.findAll();
   }
 
+  /**
+   * Gibt eine Seite von Benutzern zurück, aufsteigend nach ID.
+   *
+   * @param after ID, nach der die Seite beginnt, oder null für die erste Seite.
+   * @param limit gewünschte Seitengröße, wird auf das konfigurierte Maximum begrenzt.
+   * @param enabled optionaler Filter auf den Aktivierungsstatus.
+   * @return Seite mit Cursor auf die nächste Seite.
+   */
+  public CursorPage<UserReadDto> findPage(Long after, Integer limit, Boolean enabled) {
+    int size = pagination.pageSize(limit);
+    long from = pagination.after(after);
+    List<UserReadDto> rows = enabled == null
+        ? userRepository.findPageAfter(from, pagination.fetchLimit(size))
+        : userRepository.findPageAfterByEnabled(from, enabled, pagination.fetchLimit(size));
+    return CursorPage.of(rows, size, UserReadDto::id);
+  }
+
+  /**
+   * Sucht Benutzer für die Lobby: online, aktiviert, in keinem Duell und mit passendem
+   * Namenspräfix. Die Kandidaten kommen aus der {@link PresenceRegistry}, die Datenbank prüft nur
+   * diese IDs. Der Aufwand hängt daher von der Anzahl der Online-Benutzer ab.
+   *
+   * @param prefix Präfix des Benutzernamens, darf null sein.
+   * @param limit gewünschte Anzahl, wird auf das konfigurierte Maximum begrenzt.
+   * @param excludeId ID des anfragenden Benutzers, der nicht in der Liste erscheint.
+   * @return verfügbare Benutzer, alphabetisch nach Benutzername.
+   */
+  public List<UserDto> findAvailable(String prefix, Integer limit, Long excludeId) {
+    int size = pagination.pageSize(limit);
+    List<UserDto> result = new ArrayList<>(size);
+    String afterKey = null;
+    while (result.size() < size) {
+      List<PresenceRegistry.Presence> candidates =
+          presenceRegistry.search(prefix, afterKey, size * 2);
+      if (candidates.isEmpty()) {
+        break;
+      }
+      afterKey = candidates.get(candidates.size() - 1).indexKey();
+      List<Long> ids = candidates.stream()
+          .map(PresenceRegistry.Presence::userId)
+          .filter(id -> !id.equals(excludeId))
+          .toList();
+      if (ids.isEmpty()) {
+        continue;
+      }
+      Map<Long, UserDto> available = userRepository.findAvailableAmong(ids).stream()
+          .collect(Collectors.toMap(UserDto::getId, Function.identity()));
+      for (Long id : ids) {
+        UserDto user = available.get(id);
+        if (user != null && result.size() < size) {
+          result.add(user);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Sucht einen Benutzer anhand der ID und liefert das Lesemodell.
+   *
+   * @param id ID des gesuchten Benutzers.
+   * @return Lesemodell des Benutzers.
+   * @throws RuntimeException falls der Benutzer nicht gefunden wird.
+   */
+  public UserReadDto findReadDtoById(Long id) {
+    return userRepository.findReadDtoById(id)
+        .orElseThrow(() -> new RuntimeException("Benutzer nicht gefunden mit ID: " + id));
+  }
+
+  /**
+   * Meldet einen Benutzer als online. Nur beim ersten Heartbeat wird der Name geladen.
+   *
+   * @param id ID des Benutzers.
+   */
+  public void heartbeat(Long id) {
+    presenceRegistry.heartbeat(id, () -> {
+      UserDto summary = findSummaryById(id);
+      return summary != null ? summary.getName() : null;
+    });
+  }
+
+  /**
+   * Meldet einen Benutzer als offline.
+   *
+   * @param id ID des Benutzers.
+   */
+  public void leave(Long id) {
+    presenceRegistry.leave(id);
+  }
+
   /**
    * Sucht einen Benutzer anhand der E-Mail-Adresse.
    *
@@ -45,6 +149,26 @@ public class UserService {
   public User findByUsername(String username) {
     return userRepository.findByUsername(username).orElse(null);
   }
+  /**
+   * Liefert nur ID und Benutzernamen eines Benutzers, ohne die Entity zu laden.
+   *
+   * @param id ID des gesuchten Benutzers.
+   * @return ID und Benutzername oder null, falls nicht gefunden.
+   */
+  public UserDto findSummaryById(Long id) {
+    return userRepository.findSummaryById(id).orElse(null);
+  }
+
+  /**
+   * Liefert nur ID und Benutzernamen eines Benutzers anhand der E-Mail-Adresse.
+   *
+   * @param email E-Mail-Adresse des gesuchten Benutzers.
+   * @return ID und Benutzername oder null, falls nicht gefunden.
+   */
+  public UserDto findSummaryByEmail(String email) {
+    return userRepository.findSummaryByEmail(email).orElse(null);
+  }
+
   /**
    * Sucht einen Benutzer anhand der ID.
    *
@@ -68,21 +192,33 @@ public class UserService {
   }
 
   /**
-   * Aktualisiert einen bestehenden Benutzer.
+   * Aktualisiert einen bestehenden Benutzer. Eine geänderte Punktzahl wird als Zuwachs
+   * gegenüber dem geladenen Stand sofort geschrieben, zusammen mit dem Highscore des Benutzers;
+   * Punkte aus parallel beendeten Duellen bleiben so erhalten. Die Antwort zeigt die Punkte, wie
+   * sie in der Datenbank stehen.
    *
    * @param id   ID des zu aktualisierenden Benutzers.
    * @param user Neue Benutzerdaten.
    * @return Der aktualisierte Benutzer.
    * @throws RuntimeException falls der Benutzer nicht gefunden wird.
    */
+  @Transactional
   public User update(Long id, User user) {
     User existingUser = findById(id);
     existingUser.setUsername(user.getUsername());
     existingUser.setPassword(user.getPassword());
     existingUser.setAdmin(user.isAdmin());
     existingUser.setEnabled(user.isEnabled());
-    existingUser.setScore(user.getScore());
-    return userRepository.save(existingUser);
+    int delta = user.getScore() - existingUser.getScore();
+    User saved = userRepository.save(existingUser);
+    principalCache.invalidate(id);
+    presenceRegistry.rename(id, saved.getUsername());
+    leaderboard.renameAfterCommit(id, saved.getUsername());
+    if (delta != 0) {
+      // der Zuwachs hält die Zeile bis zum Commit gesperrt, der gelesene Stand bleibt also gültig
+      saved.setScore(scoreAccumulator.addNow(id, delta));
+    }
+    return saved;
   }
 
   /**
@@ -92,14 +228,17 @@ public class UserService {
    */
   public void delete(Long id) {
     userRepository.deleteById(id);
+    principalCache.invalidate(id);
+    presenceRegistry.leave(id);
   }
 
   /**
    * Registriert einen neuen Benutzer basierend auf den Angaben im RegisterRequest.
    *
    * @param request Das RegisterRequest-Objekt, das die Benutzerdaten enthält.
+   * @return Der gespeicherte Benutzer.
    */
-  public void registerNewUser(RegisterRequest request) {
+  public User registerNewUser(RegisterRequest request) {
     // User-Objekt aus Request erstellen und speichern
     User user = new User();
     user.setUsername(request.getUsername());
@@ -108,7 +247,7 @@ public class UserService {
     user.setAdmin(true); // Standardmäßig kein Admin
     user.setEnabled(true); // Standardmäßig aktiviert
     user.setScore(0); // Anfangspunktzahl
-    userRepository.save(user);
+    return userRepository.save(user);
   }
 
   /**
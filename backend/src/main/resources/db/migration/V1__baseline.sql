@@ -0,0 +1,115 @@
+-- Schema, wie es bisher von ddl-auto=update angelegt wurde. Bestehende Datenbanken
+-- überspringen diese Version (spring.flyway.baseline-version=1).
+
+create table "user" (
+    id bigint not null,
+    username varchar(255) not null unique,
+    password varchar(255) not null,
+    email varchar(255) not null unique,
+    is_admin boolean,
+    is_enabled boolean,
+    duel_id bigint,
+    score integer not null,
+    primary key (id)
+);
+
+create table attribute (
+    id bigint not null,
+    image_url varchar(255),
+    description varchar(255),
+    user_id bigint,
+    primary key (id)
+);
+
+create table device (
+    id bigint not null,
+    image_url varchar(255),
+    is_active boolean not null,
+    description varchar(255),
+    primary key (id)
+);
+
+create table device_attributes (
+    device_id bigint not null,
+    attribute_id bigint not null
+);
+
+create table duel (
+    id bigint not null,
+    mode varchar(255),
+    status varchar(255),
+    playtime timestamp(6),
+    created_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table duel_round (
+    id bigint not null,
+    device_id bigint,
+    round_number integer not null,
+    primary key (id)
+);
+
+create table duel_rounds (
+    duel_id bigint not null,
+    rounds_id bigint not null unique
+);
+
+create table highscore (
+    id bigint not null,
+    user_id bigint unique,
+    score integer not null,
+    primary key (id)
+);
+
+create table duel_event (
+    id bigint generated by default as identity,
+    duel_id bigint not null,
+    seq integer not null,
+    type varchar(32) not null,
+    user_id bigint,
+    round_number integer,
+    device_id bigint,
+    points integer,
+    payload varchar(1024),
+    created_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint ux_duel_event_duel_seq unique (duel_id, seq)
+);
+
+create table duel_archive (
+    id bigint not null,
+    mode varchar(255),
+    status varchar(255),
+    created_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    round_count integer not null,
+    device_ids varchar(2048),
+    archived_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table maintenance_lease (
+    name varchar(64) not null,
+    owner varchar(64) not null,
+    expires_at timestamp(6) with time zone not null,
+    primary key (name)
+);
+
+alter table attribute add constraint fk_attribute_user
+    foreign key (user_id) references "user";
+alter table device_attributes add constraint fk_device_attributes_device
+    foreign key (device_id) references device;
+alter table device_attributes add constraint fk_device_attributes_attribute
+    foreign key (attribute_id) references attribute;
+alter table duel_round add constraint fk_duel_round_device
+    foreign key (device_id) references device;
+alter table duel_rounds add constraint fk_duel_rounds_duel
+    foreign key (duel_id) references duel;
+alter table duel_rounds add constraint fk_duel_rounds_round
+    foreign key (rounds_id) references duel_round;
+alter table highscore add constraint fk_highscore_user
+    foreign key (user_id) references "user";
+alter table "user" add constraint fk_user_duel
+    foreign key (duel_id) references duel;
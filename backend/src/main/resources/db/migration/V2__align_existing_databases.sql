@@ -0,0 +1,42 @@
+-- Holt Datenbanken, die bisher per ddl-auto=update gepflegt wurden, auf den Stand von V1.
+-- Auf frisch angelegten Datenbanken ändert diese Version nichts.
+
+alter table duel add column if not exists created_at timestamp(6) with time zone;
+alter table duel add column if not exists finished_at timestamp(6) with time zone;
+
+-- ddl-auto=update hat die Enum-Prüfung ohne EXPIRED angelegt und passt sie nie an
+alter table duel drop constraint if exists duel_status_check;
+
+create table if not exists duel_event (
+    id bigint generated by default as identity,
+    duel_id bigint not null,
+    seq integer not null,
+    type varchar(32) not null,
+    user_id bigint,
+    round_number integer,
+    device_id bigint,
+    points integer,
+    payload varchar(1024),
+    created_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint ux_duel_event_duel_seq unique (duel_id, seq)
+);
+
+create table if not exists duel_archive (
+    id bigint not null,
+    mode varchar(255),
+    status varchar(255),
+    created_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    round_count integer not null,
+    device_ids varchar(2048),
+    archived_at timestamp(6) with time zone,
+    primary key (id)
+);
+
+create table if not exists maintenance_lease (
+    name varchar(64) not null,
+    owner varchar(64) not null,
+    expires_at timestamp(6) with time zone not null,
+    primary key (name)
+);
@@ -0,0 +1,18 @@
+-- Ein Eintrag pro Spieler und beendetem Duell. Ohne Fremdschlüssel, damit die Historie das
+-- Archivieren der Duelle überdauert.
+create table duel_player (
+    id bigint not null,
+    duel_id bigint not null,
+    user_id bigint not null,
+    opponent_id bigint,
+    mode varchar(32) not null,
+    status varchar(32) not null,
+    score integer not null,
+    finished_at timestamp(6) with time zone not null,
+    primary key (id),
+    constraint ux_duel_player_duel_user unique (duel_id, user_id)
+);
+
+-- Deckt GET /api/users/{id}/duels vollständig ab: ein Bereichsscan je Seite, ohne Tabellenzugriff
+create index ix_duel_player_user_finished
+    on duel_player (user_id, finished_at desc, id desc, duel_id, mode, status, score, opponent_id);
@@ -0,0 +1,3 @@
+-- Versionsspalten für optimistisches Sperren von Duellen und Runden
+alter table duel add column version bigint not null default 0;
+alter table duel_round add column version bigint not null default 0;
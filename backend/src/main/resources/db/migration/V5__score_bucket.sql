@@ -0,0 +1,9 @@
+-- Punkte je Spieler und Zeitraum (Tag, Woche) für die Ranglisten mit Zeitfenster. Wird beim
+-- Beenden eines Duells hochgezählt; abgelaufene Zeiträume löscht der Wechsel zum nächsten Zeitraum.
+create table score_bucket (
+    period varchar(8) not null,
+    period_start date not null,
+    user_id bigint not null,
+    score integer not null,
+    primary key (period, period_start, user_id)
+);
@@ -0,0 +1,113 @@
+package com.school.project.wahr_oder_watt.benchmark;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.service.AnswerScoring;
+import com.school.project.wahr_oder_watt.service.AttributeMasks;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Misst die Auswertung einer Antwort: Set-Vergleich pro Attribut gegen die Bitmasken aus
+ * {@link AttributeMasks} mit {@link AnswerScoring}.
+ *
+ * <p>Start wie {@link JwtServiceBenchmark}; mit {@code -prof gc} zeigt {@code gc.alloc.rate.norm},
+ * dass die Bitmasken-Varianten pro Aufruf nichts allokieren.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnswerScoringBenchmark {
+
+  private static final int ROUNDS = 5;
+  private static final int ATTRIBUTES_PER_DEVICE = 6;
+
+  private Set<Long> correctSet;
+  private List<Long> answer;
+  private AttributeMasks masks;
+  private long[] correctMask;
+  private long[] answerMask;
+  private long[] scratch;
+
+  @Setup
+  public void setup() {
+    List<Long> deviceIds = new ArrayList<>();
+    Map<Long, Set<Long>> correctByDevice = new HashMap<>();
+    for (long device = 1; device <= ROUNDS; device++) {
+      Set<Long> correct = new HashSet<>();
+      for (long a = 0; a < ATTRIBUTES_PER_DEVICE; a++) {
+        correct.add(device * 100 + a);
+      }
+      deviceIds.add(device);
+      correctByDevice.put(device, correct);
+    }
+    correctSet = correctByDevice.get(3L);
+    // vier richtige, ein falsches Attribut eines anderen Geräts und ein Ablenker
+    answer = List.of(300L, 301L, 302L, 303L, 105L, 9_999L);
+    masks = AttributeMasks.of(deviceIds, correctByDevice);
+    correctMask = masks.correct(3);
+    answerMask = new long[masks.words()];
+    scratch = new long[masks.words()];
+    masks.fill(answer, answerMask);
+  }
+
+  /**
+   * Auswertung wie vor den Bitmasken: ein Set-Lookup pro gewähltem Attribut.
+   */
+  @Benchmark
+  public int setLookup() {
+    int hits = 0;
+    int wrong = 0;
+    for (Long attributeId : answer) {
+      if (correctSet.contains(attributeId)) {
+        hits++;
+      } else {
+        wrong++;
+      }
+    }
+    return Math.max(0, hits - wrong);
+  }
+
+  /**
+   * Reine Bitarithmetik auf einer bereits übersetzten Antwort.
+   */
+  @Benchmark
+  public int bitsetPoints() {
+    return AnswerScoring.points(DuelMode.RUNDENDUELL, correctMask, answerMask, 1);
+  }
+
+  /**
+   * Weg einer Antwort in der Engine: IDs in die Maske übersetzen, dann auswerten.
+   */
+  @Benchmark
+  public int fillAndScore() {
+    int unknown = masks.fill(answer, scratch);
+    return AnswerScoring.points(DuelMode.RUNDENDUELL, correctMask, scratch, unknown);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(AnswerScoringBenchmark.class.getSimpleName())
+        .build()).run();
+  }
+}
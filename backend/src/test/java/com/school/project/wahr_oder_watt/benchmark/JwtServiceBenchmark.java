@@ -0,0 +1,102 @@
+package com.school.project.wahr_oder_watt.benchmark;
+
+import com.school.project.wahr_oder_watt.security.VerifiedTokenCache;
+import com.school.project.wahr_oder_watt.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Vergleicht die Token-Prüfung pro Request: der alte Ablauf (dreimal parsen, Schlüssel jedes Mal
+ * neu aus dem Secret) gegen den neuen Ablauf mit einmaligem Parsen und Token-Cache.
+ *
+ * <p>Start: {@code mvn test-compile exec:java -Dexec.mainClass=...JwtServiceBenchmark
+ * -Dexec.classpathScope=test} oder direkt aus der IDE. Allokationen pro Aufruf liefert der
+ * GC-Profiler ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+  private static final String SECRET = "REPLACE_WITH_LONG_RANDOM_SECRET_32+CHARS";
+
+  private JwtService uncached;
+  private JwtService cached;
+  private String token;
+
+  @Setup
+  public void setup() {
+    uncached = createService(0);
+    cached = createService(4096);
+    token = cached.generateToken("spieler@schule.de", 42L, false, true);
+    cached.parseValidClaims(token);
+  }
+
+  /**
+   * Bisheriger Filter-Ablauf: extractUsername, dann isTokenValid mit zwei weiteren Parse-Vorgängen.
+   */
+  @Benchmark
+  public boolean legacyFilterPath() {
+    String username = legacyParse(token).getSubject();
+    Date exp = legacyParse(token).getExpiration();
+    return legacyParse(token).getSubject().equals(username) && !exp.before(new Date());
+  }
+
+  /**
+   * Einmal parsen mit vorberechnetem Schlüssel, ohne Cache.
+   */
+  @Benchmark
+  public Claims singleParse() {
+    return uncached.parseValidClaims(token);
+  }
+
+  /**
+   * Einmal parsen mit vorberechnetem Schlüssel, Treffer im Token-Cache.
+   */
+  @Benchmark
+  public Claims cachedFastPath() {
+    return cached.parseValidClaims(token);
+  }
+
+  private static Claims legacyParse(String token) {
+    return Jwts.parser()
+        .setSigningKey(SECRET.getBytes(StandardCharsets.UTF_8))
+        .parseClaimsJws(token)
+        .getBody();
+  }
+
+  private static JwtService createService(int cacheSize) {
+    JwtService service = new JwtService(new VerifiedTokenCache(cacheSize));
+    ReflectionTestUtils.setField(service, "secret", SECRET);
+    ReflectionTestUtils.setField(service, "expirationMs", 86_400_000L);
+    ReflectionTestUtils.invokeMethod(service, "init");
+    return service;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(JwtServiceBenchmark.class.getSimpleName())
+        .addProfiler("gc")
+        .build()).run();
+  }
+}
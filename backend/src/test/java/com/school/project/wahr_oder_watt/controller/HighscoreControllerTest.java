@@ -0,0 +1,71 @@
+package com.school.project.wahr_oder_watt.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.school.project.wahr_oder_watt.model.Highscore;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.repository.UserRepository;
+import com.school.project.wahr_oder_watt.service.HighscoreService;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+class HighscoreControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private HighscoreService highscoreService;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void aKnownEtagGets304WithoutBodyUntilTheLeaderboardChanges() throws Exception {
+    String etag = mockMvc.perform(get("/api/highscores"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotNull(etag);
+
+    mockMvc.perform(get("/api/highscores").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+
+    highscoreService.save(new Highscore(null, user(), 42));
+
+    String changed = mockMvc
+        .perform(get("/api/highscores").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    assertNotNull(changed);
+    assertNotEquals(etag, changed);
+
+    mockMvc.perform(get("/api/highscores").header(HttpHeaders.IF_NONE_MATCH, changed))
+        .andExpect(status().isNotModified());
+  }
+
+  private User user() {
+    String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+    return userRepository.save(User.builder()
+        .username(name)
+        .password("x")
+        .email(name + "@example.org")
+        .isEnabled(true)
+        .build());
+  }
+}
@@ -0,0 +1,61 @@
+package com.school.project.wahr_oder_watt.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdGeneratorTest {
+
+  // eigener Stand, damit die IDs der übrigen Tests in dieser JVM nicht in die Zukunft rücken
+  private final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+
+  @Test
+  void twoNodesInTheSameMillisecondNeverShareAnId() {
+    long now = System.currentTimeMillis() + 60_000;
+    Set<Long> first = new HashSet<>();
+    Set<Long> second = new HashSet<>();
+    // mehr IDs als der Zähler fasst, damit er in die nächste Millisekunde überläuft
+    for (int i = 0; i < 1_000; i++) {
+      first.add(generator.next(now, 1));
+      second.add(generator.next(now, 2));
+    }
+
+    assertEquals(1_000, first.size());
+    assertEquals(1_000, second.size());
+    first.forEach(id -> assertEquals(1, node(id)));
+    second.forEach(id -> assertEquals(2, node(id)));
+  }
+
+  @Test
+  void idsOfOneNodeRiseStrictlyAndStayJavaScriptSafe() {
+    long now = System.currentTimeMillis() + 120_000;
+    long previous = generator.next(now, TimeOrderedIdGenerator.MAX_NODE);
+    for (int i = 0; i < 1_000; i++) {
+      // die Uhr springt zurück
+      long id = generator.next(now - i, TimeOrderedIdGenerator.MAX_NODE);
+      assertTrue(id > previous);
+      assertEquals(TimeOrderedIdGenerator.MAX_NODE, node(id));
+      previous = id;
+    }
+    long lastMillisecond = Instant.parse("2094-01-01T00:00:00Z").toEpochMilli();
+    assertTrue(generator.next(lastMillisecond, TimeOrderedIdGenerator.MAX_NODE)
+        < 1L << 53);
+  }
+
+  @Test
+  void aNodeOutsideTheRangeIsRejected() {
+    assertThrows(IllegalArgumentException.class,
+        () -> TimeOrderedIdGenerator.useNode(TimeOrderedIdGenerator.MAX_NODE + 1));
+    assertThrows(IllegalArgumentException.class, () -> TimeOrderedIdGenerator.useNode(-1));
+  }
+
+  private static long node(long id) {
+    return id >>> TimeOrderedIdGenerator.COUNTER_BITS
+        & (1 << TimeOrderedIdGenerator.NODE_BITS) - 1;
+  }
+}
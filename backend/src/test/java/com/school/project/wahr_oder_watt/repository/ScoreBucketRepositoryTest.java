@@ -0,0 +1,78 @@
+package com.school.project.wahr_oder_watt.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.school.project.wahr_oder_watt.dto.ScoreBucketRow;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.repository.ScoreBucketRepository.Increment;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScoreBucketRepositoryTest {
+
+  private static final LocalDate MONDAY = LocalDate.of(2031, 3, 3);
+  private static final LocalDate TUESDAY = MONDAY.plusDays(1);
+
+  @Autowired
+  private ScoreBucketRepository bucketRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Test
+  void theFirstIncrementCreatesTheBucketAndLaterOnesAddToIt() {
+    User user = user();
+    bucketRepository.addAll(List.of(new Increment(ScoreWindow.DAY, TUESDAY, user.getId(), 4)));
+    bucketRepository.addAll(List.of(
+        new Increment(ScoreWindow.WEEK, MONDAY, user.getId(), 1),
+        new Increment(ScoreWindow.DAY, TUESDAY, user.getId(), 6)));
+    bucketRepository.addAll(List.of(new Increment(ScoreWindow.DAY, TUESDAY, user.getId(), -3)));
+
+    ScoreBucketRow day = row(ScoreWindow.DAY, TUESDAY, user.getId());
+    assertEquals(7, day.score());
+    assertEquals(user.getUsername(), day.username());
+    assertEquals(1, row(ScoreWindow.WEEK, MONDAY, user.getId()).score());
+  }
+
+  @Test
+  void deleteBeforeOnlyTouchesOlderPeriodsOfTheSameWindow() {
+    User user = user();
+    bucketRepository.addAll(List.of(
+        new Increment(ScoreWindow.DAY, MONDAY, user.getId(), 2),
+        new Increment(ScoreWindow.DAY, TUESDAY, user.getId(), 3),
+        new Increment(ScoreWindow.WEEK, MONDAY, user.getId(), 5)));
+
+    assertTrue(bucketRepository.deleteBefore(ScoreWindow.DAY, TUESDAY) >= 1);
+
+    assertTrue(bucketRepository.findByPeriod(ScoreWindow.DAY, MONDAY).stream()
+        .noneMatch(row -> row.userId().equals(user.getId())));
+    assertEquals(3, row(ScoreWindow.DAY, TUESDAY, user.getId()).score());
+    assertEquals(5, row(ScoreWindow.WEEK, MONDAY, user.getId()).score());
+  }
+
+  private ScoreBucketRow row(ScoreWindow window, LocalDate periodStart, Long userId) {
+    return bucketRepository.findByPeriod(window, periodStart).stream()
+        .filter(row -> row.userId().equals(userId))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private User user() {
+    String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+    return userRepository.save(User.builder()
+        .username(name)
+        .password("x")
+        .email(name + "@example.org")
+        .isEnabled(true)
+        .build());
+  }
+}
@@ -0,0 +1,92 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.school.project.wahr_oder_watt.dto.DuelReplayDto;
+import com.school.project.wahr_oder_watt.dto.DuelStateDto;
+import com.school.project.wahr_oder_watt.model.DuelEvent;
+import com.school.project.wahr_oder_watt.model.DuelEventType;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.repository.DuelEventRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DuelEventLogTest {
+
+  private static final long DUEL = 7L;
+
+  @Test
+  void foldRestoresModeRoundsScoresAndStatus() {
+    List<DuelEvent> events = List.of(
+        event(1, DuelEventType.DUEL_CREATED, null, null, null, null, "RUNDENDUELL"),
+        event(2, DuelEventType.PLAYER_JOINED, 1L, null, null, null, null),
+        event(3, DuelEventType.PLAYER_JOINED, 2L, null, null, null, null),
+        event(4, DuelEventType.ROUND_STARTED, null, 1, 10L, null, null),
+        event(5, DuelEventType.ANSWER_SUBMITTED, 1L, 1, null, 3, "4,5"),
+        event(6, DuelEventType.ANSWER_SUBMITTED, 2L, 1, null, 1, "4"),
+        event(7, DuelEventType.ROUND_SCORED, null, 1, 10L, null, null),
+        event(8, DuelEventType.ROUND_STARTED, null, 2, 11L, null, null),
+        event(9, DuelEventType.ANSWER_SUBMITTED, 2L, 2, null, 2, "6"));
+
+    DuelReplayDto running = DuelEventLog.fold(DUEL, events);
+    assertEquals(DuelMode.RUNDENDUELL, running.mode());
+    assertEquals(DuelStatus.RUNNING, running.status());
+    assertEquals(2, running.roundNumber());
+    assertEquals(List.of(new DuelReplayDto.Round(1, 10L)), running.rounds());
+    // "answered" gilt nur für die laufende Runde
+    assertEquals(List.of(new DuelStateDto.PlayerState(1L, 3, false),
+        new DuelStateDto.PlayerState(2L, 3, true)), running.players());
+    assertEquals(9, running.events());
+
+    List<DuelEvent> finished = new ArrayList<>(events);
+    finished.add(event(10, DuelEventType.DUEL_FINISHED, null, null, null, null, null));
+    assertEquals(DuelStatus.FINISHED, DuelEventLog.fold(DUEL, finished).status());
+  }
+
+  @Test
+  void aFailedEventStaysPendingUntilItIsWritten() {
+    FlakyRepository repository = new FlakyRepository(2);
+    DuelEventLog log = new DuelEventLog(repository, 500, 3);
+    log.append(event(1, DuelEventType.DUEL_CREATED, null, null, null, null, "SPEEDRUN"));
+
+    // erst der Stapel, dann das einzelne Ereignis schlagen fehl
+    assertEquals(0, log.flush());
+    assertFalse(log.isWritten(DUEL));
+    assertEquals(1, log.pendingCount());
+
+    assertEquals(1, log.flush());
+    assertTrue(log.isWritten(DUEL));
+    assertEquals(1, repository.stored.size());
+  }
+
+  private static DuelEvent event(int seq, DuelEventType type, Long userId, Integer round,
+      Long deviceId, Integer points, String payload) {
+    return new DuelEvent(null, DUEL, seq, type, userId, round, deviceId, points, payload,
+        Instant.now());
+  }
+
+  private static final class FlakyRepository extends DuelEventRepository {
+
+    private final List<DuelEvent> stored = new ArrayList<>();
+    private int failuresLeft;
+
+    FlakyRepository(int failures) {
+      super(null);
+      this.failuresLeft = failures;
+    }
+
+    @Override
+    public void insertAll(List<DuelEvent> events) {
+      if (failuresLeft > 0) {
+        failuresLeft--;
+        throw new IllegalStateException("Datenbank nicht erreichbar");
+      }
+      stored.addAll(events);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.school.project.wahr_oder_watt.model.Device;
+import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelRound;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.repository.DeviceRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class DuelInsertBatchingTest {
+
+  @Autowired
+  private DuelService duelService;
+
+  @Autowired
+  private DeviceRepository deviceRepository;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private Statistics statistics;
+  private Device device;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    Device d = new Device();
+    d.setDescription("Testgerät");
+    d.setActive(true);
+    device = deviceRepository.save(d);
+  }
+
+  @Test
+  void creatingADuelTakesTheSameStatementsForAnyNumberOfRounds() {
+    long five = statementsToCreate(5);
+
+    // Duell, Runden, Zuordnungstabelle: je ein Batch
+    assertEquals(3, five);
+    assertEquals(five, statementsToCreate(1));
+    assertEquals(five, statementsToCreate(30));
+  }
+
+  private long statementsToCreate(int rounds) {
+    Duel duel = new Duel();
+    duel.setMode(DuelMode.RUNDENDUELL);
+    duel.setStatus(DuelStatus.RUNNING);
+    List<DuelRound> duelRounds = new ArrayList<>(rounds);
+    for (int i = 1; i <= rounds; i++) {
+      duelRounds.add(new DuelRound(null, device, i));
+    }
+    duel.setRounds(duelRounds);
+
+    statistics.clear();
+    Duel saved = duelService.save(duel);
+    long statements = statistics.getPrepareStatementCount();
+
+    assertNotNull(saved.getId());
+    saved.getRounds().forEach(r -> assertNotNull(r.getId()));
+    return statements;
+  }
+}
@@ -0,0 +1,115 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.school.project.wahr_oder_watt.model.Duel;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.model.DuelStatus;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.repository.DuelRepository;
+import com.school.project.wahr_oder_watt.repository.UserRepository;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "app.duel.write-behind.max-attempts=2",
+    "app.duel.write-behind.flush-interval=3600000",
+    "app.duel.maintenance.interval=3600000",
+    "app.duel.maintenance.stale-after=0"
+})
+@ActiveProfiles("test")
+class DuelWriteBehindTest {
+
+  @Autowired
+  private DuelWriteBehind writeBehind;
+
+  @Autowired
+  private DuelMaintenance maintenance;
+
+  @Autowired
+  private DuelRepository duelRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private TransactionTemplate transactionTemplate;
+
+  @Test
+  void aFailingWriteIsIsolatedRetriedAndDeadLettered() {
+    long[] players = {user(), user()};
+    Long good = runningDuel(players);
+    Long bad = runningDuel(user(), user());
+    int deadBefore = writeBehind.deadLetters().size();
+
+    // ein unbekanntes Gerät verletzt den Fremdschlüssel und lässt den ganzen Stapel scheitern
+    writeBehind.roundClosed(bad, 1, -1L);
+    writeBehind.duelFinished(good, players, new int[] {3, 4});
+
+    assertEquals(1, writeBehind.flush());
+    assertEquals(DuelStatus.FINISHED, duelRepository.findById(good).orElseThrow().getStatus());
+    assertEquals(1, writeBehind.pendingCount());
+
+    assertEquals(0, writeBehind.flush());
+    assertEquals(0, writeBehind.pendingCount());
+    assertEquals(deadBefore + 1, writeBehind.deadLetters().size());
+  }
+
+  @Test
+  void maintenanceLeavesAFinishWaitingInTheBufferAlone() throws InterruptedException {
+    long[] players = {user(), user()};
+    Long finished = runningDuel(players);
+    Long abandoned = runningDuel(user(), user());
+    writeBehind.duelFinished(finished, players, new int[] {5, 2});
+    Thread.sleep(5);
+
+    maintenance.expireStale();
+    assertEquals(DuelStatus.EXPIRED, duelRepository.findById(abandoned).orElseThrow().getStatus());
+    assertEquals(DuelStatus.RUNNING, duelRepository.findById(finished).orElseThrow().getStatus());
+
+    writeBehind.flush();
+    assertEquals(DuelStatus.FINISHED, duelRepository.findById(finished).orElseThrow().getStatus());
+  }
+
+  @Test
+  void aFinishForAnAlreadyExpiredDuelDoesNotWriteASecondHistory() throws InterruptedException {
+    long[] players = {user(), user()};
+    Long duelId = runningDuel(players);
+    Thread.sleep(5);
+    maintenance.expireStale();
+    int deadBefore = writeBehind.deadLetters().size();
+
+    writeBehind.duelFinished(duelId, players, new int[] {5, 2});
+
+    assertEquals(1, writeBehind.flush());
+    assertEquals(DuelStatus.EXPIRED, duelRepository.findById(duelId).orElseThrow().getStatus());
+    assertEquals(deadBefore, writeBehind.deadLetters().size());
+  }
+
+  private Long runningDuel(long... playerIds) {
+    return transactionTemplate.execute(tx -> {
+      Duel duel = new Duel();
+      duel.setMode(DuelMode.RUNDENDUELL);
+      duel.setStatus(DuelStatus.RUNNING);
+      Duel saved = duelRepository.save(duel);
+      for (long playerId : playerIds) {
+        userRepository.findById(playerId).orElseThrow().setDuel(saved);
+      }
+      return saved.getId();
+    });
+  }
+
+  private long user() {
+    String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+    return userRepository.save(User.builder()
+        .username(name)
+        .password("x")
+        .email(name + "@example.org")
+        .isEnabled(true)
+        .build()).getId();
+  }
+}
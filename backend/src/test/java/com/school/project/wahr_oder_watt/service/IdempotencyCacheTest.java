@@ -0,0 +1,77 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class IdempotencyCacheTest {
+
+  @Test
+  void concurrentRetriesWithTheSameKeyRunOnce() throws Exception {
+    IdempotencyCache cache = new IdempotencyCache(60_000, 1_000);
+    AtomicInteger runs = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    List<Future<Integer>> results = new ArrayList<>();
+    for (int i = 0; i < 32; i++) {
+      results.add(pool.submit(() -> {
+        start.await();
+        return cache.execute(1L, "answer:7:1", "k", () -> {
+          sleep(20);
+          return runs.incrementAndGet();
+        });
+      }));
+    }
+    start.countDown();
+    for (Future<Integer> result : results) {
+      assertEquals(1, result.get(5, TimeUnit.SECONDS));
+    }
+    pool.shutdown();
+    assertEquals(1, runs.get());
+
+    // anderer Benutzer oder anderer Vorgang: eigener Schlüssel
+    assertEquals(2, cache.execute(2L, "answer:7:1", "k", runs::incrementAndGet));
+    assertEquals(3, cache.execute(1L, "answer:7:2", "k", runs::incrementAndGet));
+    // ohne Schlüssel wird immer ausgeführt
+    assertEquals(4, cache.execute(1L, "answer:7:1", null, runs::incrementAndGet));
+  }
+
+  @Test
+  void failedRunReleasesTheKey() {
+    IdempotencyCache cache = new IdempotencyCache(60_000, 1_000);
+    assertThrows(IllegalStateException.class, () -> cache.execute(1L, "create-duel", "k", () -> {
+      throw new IllegalStateException("Datenbank nicht erreichbar");
+    }));
+    assertEquals("ok", cache.execute(1L, "create-duel", "k", () -> "ok"));
+    assertEquals("ok", cache.execute(1L, "create-duel", "k", () -> "zweimal"));
+  }
+
+  @Test
+  void expiredKeysRunAgain() throws Exception {
+    IdempotencyCache cache = new IdempotencyCache(1, 1_000);
+    AtomicInteger runs = new AtomicInteger();
+    cache.execute(1L, "create-duel", "k", runs::incrementAndGet);
+    Thread.sleep(5);
+    assertEquals(2, cache.execute(1L, "create-duel", "k", runs::incrementAndGet));
+    Thread.sleep(5);
+    cache.sweep();
+    assertEquals(0, cache.size());
+  }
+
+  private static void sleep(long ms) {
+    try {
+      Thread.sleep(ms);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
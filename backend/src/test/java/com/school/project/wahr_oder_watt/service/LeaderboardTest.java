@@ -0,0 +1,188 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.school.project.wahr_oder_watt.dto.ScoreBucketRow;
+import com.school.project.wahr_oder_watt.model.Highscore;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
+import com.school.project.wahr_oder_watt.repository.HighscoreRepository;
+import com.school.project.wahr_oder_watt.repository.ScoreBucketRepository;
+import com.school.project.wahr_oder_watt.repository.ScoreBucketRepository.Increment;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LeaderboardTest {
+
+  private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+  @Autowired
+  private HighscoreRepository highscoreRepository;
+
+  @Autowired
+  private ScoreBucketRepository bucketRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void periodsStartOnMondayAndAtMidnightInTheLeaderboardZone() {
+    // 2030-01-01 ist ein Dienstag, die Woche beginnt also im Vorjahr
+    LocalDate monday = LocalDate.of(2029, 12, 31);
+    assertEquals(monday, ScoreWindow.WEEK.periodStart(LocalDate.of(2030, 1, 2)));
+    assertEquals(monday, ScoreWindow.WEEK.periodStart(LocalDate.of(2030, 1, 6)));
+    assertEquals(monday.plusDays(7), ScoreWindow.WEEK.periodStart(monday.plusDays(7)));
+    assertEquals(monday.plusDays(6), ScoreWindow.DAY.periodStart(monday.plusDays(6)));
+
+    MutableClock clock = new MutableClock(Instant.parse("2030-01-07T08:00:00Z"));
+    Leaderboard leaderboard = leaderboard(clock);
+    long userId = userId();
+    // Sonntag 23:30 UTC ist in Berlin schon Montag
+    leaderboard.recordPoints(Map.of(userId, 4), Map.of(), Instant.parse("2030-01-06T23:30:00Z"));
+
+    assertEquals(4, score(ScoreWindow.WEEK, LocalDate.of(2030, 1, 7), userId));
+    assertEquals(4, score(ScoreWindow.DAY, LocalDate.of(2030, 1, 7), userId));
+    assertEquals(4, leaderboard.findByUser(ScoreWindow.WEEK, userId).score());
+    assertEquals(4, leaderboard.findByUser(ScoreWindow.DAY, userId).score());
+  }
+
+  @Test
+  void aNewDayStartsEmptyAndLatePointsOnlyReachTheDatabase() {
+    // Mittwoch, 23:00 in Berlin
+    MutableClock clock = new MutableClock(Instant.parse("2030-01-16T22:00:00Z"));
+    Leaderboard leaderboard = leaderboard(clock);
+    long userId = userId();
+    Instant wednesday = clock.instant();
+    leaderboard.recordPoints(Map.of(userId, 5), Map.of(), wednesday);
+    assertEquals(5, leaderboard.findByUser(ScoreWindow.DAY, userId).score());
+    long dayVersion = leaderboard.version(ScoreWindow.DAY);
+
+    clock.advance(Duration.ofHours(2));
+    assertThrows(IllegalArgumentException.class,
+        () -> leaderboard.findByUser(ScoreWindow.DAY, userId));
+    assertTrue(leaderboard.version(ScoreWindow.DAY) > dayVersion);
+    assertEquals(5, leaderboard.findByUser(ScoreWindow.WEEK, userId).score());
+
+    // ein Duell, das noch am Mittwoch endete, wird erst jetzt geschrieben
+    leaderboard.recordPoints(Map.of(userId, 3), Map.of(),
+        wednesday.plusSeconds(1800));
+    assertEquals(8, score(ScoreWindow.DAY, LocalDate.of(2030, 1, 16), userId));
+    assertThrows(IllegalArgumentException.class,
+        () -> leaderboard.findByUser(ScoreWindow.DAY, userId));
+    assertEquals(8, leaderboard.findByUser(ScoreWindow.WEEK, userId).score());
+  }
+
+  @Test
+  void rollOverDeletesPastPeriodsOncePerPeriod() {
+    MutableClock clock = new MutableClock(Instant.parse("2030-02-06T12:00:00Z"));
+    Leaderboard leaderboard = leaderboard(clock);
+    long userId = userId();
+    LocalDate yesterday = LocalDate.of(2030, 2, 5);
+    LocalDate today = LocalDate.of(2030, 2, 6);
+    bucketRepository.addAll(List.of(
+        new Increment(ScoreWindow.DAY, yesterday, userId, 2),
+        new Increment(ScoreWindow.DAY, today, userId, 3)));
+
+    leaderboard.rollOver();
+    assertEquals(0, score(ScoreWindow.DAY, yesterday, userId));
+    assertEquals(3, score(ScoreWindow.DAY, today, userId));
+
+    // im selben Zeitraum wird nicht noch einmal gelöscht
+    bucketRepository.addAll(List.of(new Increment(ScoreWindow.DAY, yesterday, userId, 1)));
+    leaderboard.rollOver();
+    assertEquals(1, score(ScoreWindow.DAY, yesterday, userId));
+
+    clock.advance(Duration.ofDays(1));
+    leaderboard.rollOver();
+    assertEquals(0, score(ScoreWindow.DAY, yesterday, userId));
+    assertEquals(0, score(ScoreWindow.DAY, today, userId));
+  }
+
+  @Test
+  void anEarlierCommitThatIsAppliedLastDoesNotWinWithAnOlderScore() {
+    Long id = highscoreRepository.save(new Highscore(null, null, 10)).getId();
+    Leaderboard leaderboard = leaderboard(new MutableClock(Instant.parse("2030-03-06T12:00:00Z")));
+    leaderboard.rebuild();
+    TransactionTemplate later = new TransactionTemplate(transactionManager);
+    later.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+      highscoreRepository.addScore(id, 5);
+      // die zweite Änderung committet nach der ersten und wird vor ihr eingetragen
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          later.executeWithoutResult(inner -> {
+            highscoreRepository.addScore(id, 7);
+            leaderboard.refreshAfterCommit(id);
+          });
+        }
+      });
+      leaderboard.refreshAfterCommit(id);
+    });
+
+    assertEquals(22, leaderboard.findById(id).score());
+  }
+
+  private Leaderboard leaderboard(Clock clock) {
+    return new Leaderboard(highscoreRepository, bucketRepository, clock);
+  }
+
+  private int score(ScoreWindow window, LocalDate periodStart, long userId) {
+    return bucketRepository.findByPeriod(window, periodStart).stream()
+        .filter(row -> row.userId() == userId)
+        .mapToInt(ScoreBucketRow::score)
+        .sum();
+  }
+
+  private static long userId() {
+    // score_bucket hat keinen Fremdschlüssel, eigene IDs halten die Tests auseinander
+    return ThreadLocalRandom.current().nextLong(1L << 40, 1L << 50);
+  }
+
+  private static final class MutableClock extends Clock {
+
+    private Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return BERLIN;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
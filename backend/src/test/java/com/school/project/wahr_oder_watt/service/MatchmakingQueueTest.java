@@ -0,0 +1,161 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.service.MatchmakingQueue.Match;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class MatchmakingQueueTest {
+
+  private static final int THREADS = 16;
+
+  @Test
+  void concurrentEnqueuesPairEveryPlayerExactlyOnce() throws Exception {
+    int players = 8_000;
+    MatchmakingQueue queue = new MatchmakingQueue(100, 5_000, 3, System::currentTimeMillis);
+    Map<Long, Integer> scores = new HashMap<>();
+    for (long id = 1; id <= players; id++) {
+      // vier Klassen mit je gerader Spielerzahl pro Modus
+      scores.put(id, (int) (id % 4) * 100 + 50);
+    }
+
+    ConcurrentLinkedQueue<Match> matches = new ConcurrentLinkedQueue<>();
+    runConcurrently(players, id -> {
+      DuelMode mode = id % 8 < 4 ? DuelMode.SPEEDRUN : DuelMode.RUNDENDUELL;
+      queue.enqueue(id, scores.get(id), mode).ifPresent(matches::add);
+    });
+    matches.addAll(queue.matchWaiting());
+
+    assertEquals(players / 2, matches.size());
+    assertEquals(0, queue.waitingCount());
+    Set<Long> seen = ConcurrentHashMap.newKeySet();
+    for (Match match : matches) {
+      assertNotEquals(match.firstUserId(), match.secondUserId());
+      assertTrue(seen.add(match.firstUserId()), "doppelt gepaart: " + match.firstUserId());
+      assertTrue(seen.add(match.secondUserId()), "doppelt gepaart: " + match.secondUserId());
+      // ohne Wartezeit nur innerhalb derselben Klasse
+      assertEquals(scores.get(match.firstUserId()) / 100, scores.get(match.secondUserId()) / 100);
+    }
+    assertEquals(players, seen.size());
+  }
+
+  @Test
+  void concurrentCancelAndSweepNeverLoseOrDuplicatePlayers() throws Exception {
+    int players = 4_000;
+    MatchmakingQueue queue = new MatchmakingQueue(100, 0, 5, System::currentTimeMillis);
+    ConcurrentLinkedQueue<Match> matches = new ConcurrentLinkedQueue<>();
+    Set<Long> cancelled = ConcurrentHashMap.newKeySet();
+
+    ExecutorService sweeper = Executors.newFixedThreadPool(2);
+    CountDownLatch done = new CountDownLatch(1);
+    sweeper.execute(() -> {
+      while (done.getCount() > 0) {
+        matches.addAll(queue.matchWaiting());
+      }
+    });
+    // bricht auch ab, während der Spieler selbst noch beim Einreihen ist
+    sweeper.execute(() -> {
+      while (done.getCount() > 0) {
+        for (long id = 3; id <= players; id += 5) {
+          if (queue.cancel(id)) {
+            cancelled.add(id);
+          }
+        }
+      }
+    });
+    runConcurrently(players, id -> {
+      queue.enqueue(id, (int) (id * 7 % 500), DuelMode.SPEEDRUN).ifPresent(matches::add);
+      if (id % 5 == 0 && queue.cancel(id)) {
+        cancelled.add(id);
+      }
+    });
+    done.countDown();
+    sweeper.shutdown();
+    assertTrue(sweeper.awaitTermination(10, TimeUnit.SECONDS));
+    matches.addAll(queue.matchWaiting());
+
+    Set<Long> seen = new HashSet<>();
+    for (Match match : matches) {
+      assertTrue(seen.add(match.firstUserId()));
+      assertTrue(seen.add(match.secondUserId()));
+    }
+    for (Long id : cancelled) {
+      assertFalse(seen.contains(id), "abgebrochener Spieler gepaart: " + id);
+    }
+    // wer weder gepaart noch abgebrochen ist, wartet noch (höchstens einer bleibt übrig)
+    assertEquals(players, seen.size() + cancelled.size() + queue.waitingCount());
+    assertTrue(queue.waitingCount() <= 1);
+  }
+
+  @Test
+  void waitingPlayersWidenTheirBracketOverTime() {
+    AtomicLong now = new AtomicLong(0);
+    MatchmakingQueue queue = new MatchmakingQueue(100, 1_000, 2, now::get);
+
+    assertTrue(queue.enqueue(1L, 50, DuelMode.RUNDENDUELL).isEmpty());
+    // zwei Klassen Abstand, der erste Spieler wartet noch nicht lange genug
+    assertTrue(queue.enqueue(2L, 250, DuelMode.RUNDENDUELL).isEmpty());
+    // anderer Modus wird nie gepaart
+    assertTrue(queue.enqueue(3L, 50, DuelMode.SPEEDRUN).isEmpty());
+    assertTrue(queue.matchWaiting().isEmpty());
+
+    now.set(1_000);
+    assertTrue(queue.matchWaiting().isEmpty());
+
+    now.set(2_000);
+    List<Match> matches = queue.matchWaiting();
+    assertEquals(List.of(new Match(DuelMode.RUNDENDUELL, 1L, 2L)), matches);
+    assertEquals(Optional.of(DuelMode.SPEEDRUN), queue.waitingMode(3L));
+
+    // ein Neuankömmling wird sofort mit dem lange wartenden Spieler gepaart
+    Optional<Match> immediate = queue.enqueue(4L, 250, DuelMode.SPEEDRUN);
+    assertEquals(Optional.of(new Match(DuelMode.SPEEDRUN, 3L, 4L)), immediate);
+    assertEquals(0, queue.waitingCount());
+  }
+
+  private static void runConcurrently(int players, IdTask task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>(THREADS);
+    int perThread = players / THREADS;
+    for (int t = 0; t < THREADS; t++) {
+      long from = (long) t * perThread + 1;
+      futures.add(pool.submit(() -> {
+        start.await();
+        for (long id = from; id < from + perThread; id++) {
+          task.run(id);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+  }
+
+  @FunctionalInterface
+  private interface IdTask {
+    void run(long id);
+  }
+}
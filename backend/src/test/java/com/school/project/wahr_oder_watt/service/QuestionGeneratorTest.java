@@ -0,0 +1,79 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.school.project.wahr_oder_watt.dto.AttributeReadDto;
+import com.school.project.wahr_oder_watt.dto.DeviceAttributeRow;
+import com.school.project.wahr_oder_watt.model.DuelMode;
+import com.school.project.wahr_oder_watt.service.QuestionGenerator.Question;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class QuestionGeneratorTest {
+
+  private static final int DEVICES = 20;
+  private static final int ATTRIBUTES = 40;
+
+  private final QuestionCatalog catalog = catalog();
+
+  @Test
+  void sameSeedGivesSameQuestions() {
+    List<Question> first = QuestionGenerator.generate(catalog, DuelMode.RUNDENDUELL.maxRounds, 6,
+        42L);
+    List<Question> second = QuestionGenerator.generate(catalog, DuelMode.RUNDENDUELL.maxRounds, 6,
+        42L);
+    List<Question> other = QuestionGenerator.generate(catalog, DuelMode.RUNDENDUELL.maxRounds, 6,
+        43L);
+
+    assertEquals(first, second);
+    assertNotEquals(first, other);
+  }
+
+  @Test
+  void devicesDoNotRepeatWithinADuel() {
+    for (long seed = 0; seed < 200; seed++) {
+      List<Question> questions = QuestionGenerator.generate(catalog, DEVICES, 6, seed);
+      Set<Long> devices = new HashSet<>();
+      questions.forEach(q -> assertTrue(devices.add(q.deviceId()), "Gerät doppelt: " + q));
+      assertEquals(DEVICES, devices.size());
+    }
+    // mehr Runden als Geräte: es bleibt bei jedem Gerät einmal
+    assertEquals(DEVICES, QuestionGenerator.generate(catalog, 30, 6, 7L).size());
+  }
+
+  @Test
+  void optionsMixAllCorrectAttributesWithDistractors() {
+    for (Question question : QuestionGenerator.generate(catalog, DEVICES, 6, 99L)) {
+      Set<Long> shown = new HashSet<>();
+      question.options().forEach(a -> assertTrue(shown.add(a.id()), "Option doppelt: " + a));
+      assertTrue(shown.containsAll(question.correct()));
+      long distractors = shown.stream().filter(id -> !question.correct().contains(id)).count();
+      assertEquals(Math.max(QuestionGenerator.MIN_DISTRACTORS, 6 - question.correct().size()),
+          distractors);
+    }
+  }
+
+  /**
+   * Gerät d hat die Attribute d, d+1, ... (1 bis 4 Stück, je nach d).
+   */
+  private static QuestionCatalog catalog() {
+    List<Long> deviceIds = new ArrayList<>();
+    List<DeviceAttributeRow> rows = new ArrayList<>();
+    List<AttributeReadDto> attributes = new ArrayList<>();
+    for (long a = 1; a <= ATTRIBUTES; a++) {
+      attributes.add(new AttributeReadDto(a, "a" + a + ".png", "Attribut " + a, null));
+    }
+    for (long d = 1; d <= DEVICES; d++) {
+      deviceIds.add(d);
+      for (long a = d; a < d + 1 + d % 4; a++) {
+        rows.add(new DeviceAttributeRow(d, attributes.get((int) a - 1)));
+      }
+    }
+    return QuestionCatalog.of(deviceIds, rows, attributes);
+  }
+}
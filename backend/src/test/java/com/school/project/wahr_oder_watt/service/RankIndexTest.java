@@ -0,0 +1,90 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class RankIndexTest {
+
+  private static final Comparator<RankIndex.Entry> ORDER =
+      Comparator.comparingInt(RankIndex.Entry::score).reversed()
+          .thenComparing(RankIndex.Entry::highscoreId);
+
+  @Test
+  void matchesASortedListUnderRandomChanges() {
+    RankIndex index = new RankIndex();
+    Map<Long, RankIndex.Entry> expected = new HashMap<>();
+    SplittableRandom random = new SplittableRandom(42);
+
+    for (int step = 0; step < 20_000; step++) {
+      long id = random.nextLong(1, 2_000);
+      if (random.nextInt(5) == 0) {
+        index.remove(id);
+        expected.remove(id);
+      } else {
+        // wenige verschiedene Punktzahlen, damit es viele Gleichstände gibt
+        RankIndex.Entry entry = new RankIndex.Entry(id, id + 10_000, "u" + id,
+            random.nextInt(0, 300));
+        index.put(entry);
+        expected.put(id, entry);
+      }
+      if (step % 1_000 == 0) {
+        assertSameOrder(expected, index);
+      }
+    }
+    assertSameOrder(expected, index);
+  }
+
+  @Test
+  void tiesShareARankAndTheNextRankSkips() {
+    RankIndex index = new RankIndex();
+    index.put(new RankIndex.Entry(1L, 11L, "a", 50));
+    index.put(new RankIndex.Entry(2L, 12L, "b", 80));
+    index.put(new RankIndex.Entry(3L, 13L, "c", 80));
+    index.put(new RankIndex.Entry(4L, 14L, "d", 10));
+
+    List<Integer> ranks = index.range(0, 10).stream().map(RankIndex.Ranked::rank).toList();
+    assertEquals(List.of(1, 1, 3, 4), ranks);
+    // eine Seite, die mitten im Gleichstand beginnt
+    assertEquals(1, index.range(1, 1).get(0).rank());
+    assertEquals(3, index.rankOf(index.getByUser(11L).score()));
+  }
+
+  @Test
+  void aNewEntryOfAUserReplacesTheOldOne() {
+    RankIndex index = new RankIndex();
+    index.put(new RankIndex.Entry(1L, 7L, "a", 50));
+    index.put(new RankIndex.Entry(2L, 7L, "a", 60));
+
+    assertEquals(1, index.size());
+    assertNull(index.get(1L));
+    assertEquals(60, index.getByUser(7L).score());
+  }
+
+  private static void assertSameOrder(Map<Long, RankIndex.Entry> expected, RankIndex index) {
+    List<RankIndex.Entry> sorted = new ArrayList<>(expected.values());
+    sorted.sort(ORDER);
+    assertEquals(sorted.size(), index.size());
+
+    List<RankIndex.Ranked> all = index.range(0, sorted.size());
+    for (int i = 0; i < sorted.size(); i++) {
+      RankIndex.Entry entry = sorted.get(i);
+      assertEquals(entry, all.get(i).entry());
+      assertEquals(i, index.positionOf(entry));
+      int rank = i == 0 || sorted.get(i - 1).score() != entry.score() ? i + 1 : all.get(i - 1).rank();
+      assertEquals(rank, all.get(i).rank());
+    }
+    // Ausschnitte an beliebiger Stelle stimmen mit der vollen Liste überein
+    for (int offset = 0; offset < sorted.size(); offset += 97) {
+      List<RankIndex.Ranked> page = index.range(offset, 25);
+      assertEquals(all.subList(offset, Math.min(sorted.size(), offset + 25)), page);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.school.project.wahr_oder_watt.model.Highscore;
+import com.school.project.wahr_oder_watt.model.ScoreWindow;
+import com.school.project.wahr_oder_watt.model.User;
+import com.school.project.wahr_oder_watt.repository.HighscoreRepository;
+import com.school.project.wahr_oder_watt.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ScoreAccumulatorTest {
+
+  @Autowired
+  private ScoreAccumulator scoreAccumulator;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private HighscoreRepository highscoreRepository;
+
+  @Autowired
+  private Leaderboard leaderboard;
+
+  @Autowired
+  private UserService userService;
+
+  @Autowired
+  private HighscoreService highscoreService;
+
+  @Test
+  void concurrentChangesAreAllWrittenToUserAndHighscore() throws Exception {
+    List<User> users = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      users.add(user(10));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          for (int n = 0; n < 1_000; n++) {
+            for (User user : users) {
+              scoreAccumulator.add(user.getId(), 1);
+            }
+            if (n % 250 == 0) {
+              scoreAccumulator.flush();
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    scoreAccumulator.flush();
+
+    for (User user : users) {
+      assertEquals(8_010, userRepository.findById(user.getId()).orElseThrow().getScore());
+      assertEquals(8_010, highscoreRepository.findReadDtosByPlayerIds(List.of(user.getId()))
+          .get(0).score());
+      assertEquals(8_010, leaderboard.findByUser(ScoreWindow.ALL_TIME, user.getId()).score());
+    }
+  }
+
+  @Test
+  void anExistingHighscoreIsIncrementedNotOverwritten() {
+    User user = user(40);
+    Highscore highscore = new Highscore(null, user, 40);
+    highscore = highscoreRepository.save(highscore);
+
+    scoreAccumulator.add(user.getId(), 5);
+    scoreAccumulator.add(user.getId(), -2);
+    assertEquals(1, scoreAccumulator.flush());
+
+    assertEquals(43, highscoreRepository.findById(highscore.getId()).orElseThrow().getScore());
+    assertEquals(43, userRepository.findById(user.getId()).orElseThrow().getScore());
+    assertEquals(0, scoreAccumulator.pendingCount());
+  }
+
+  @Test
+  void anAdminChangeIsWrittenAtOnceWithoutFlushingOtherUsers() {
+    User user = user(10);
+    User other = user(10);
+    scoreAccumulator.add(user.getId(), 5);
+    scoreAccumulator.add(other.getId(), 7);
+
+    User changed = User.builder()
+        .username(user.getUsername())
+        .password(user.getPassword())
+        .email(user.getEmail())
+        .isEnabled(true)
+        .score(30)
+        .build();
+    // 20 Punkte mehr als geladen, zusätzlich zu den noch gepufferten 5
+    assertEquals(30, userService.update(user.getId(), changed).getScore());
+    assertEquals(30, userRepository.findById(user.getId()).orElseThrow().getScore());
+    assertEquals(10, userRepository.findById(other.getId()).orElseThrow().getScore());
+    assertEquals(2, scoreAccumulator.pendingCount());
+
+    Long highscoreId =
+        highscoreRepository.findReadDtosByPlayerIds(List.of(user.getId())).get(0).id();
+    Highscore lowered = new Highscore(null, user, 25);
+    assertEquals(25, highscoreService.update(highscoreId, lowered).getScore());
+    assertEquals(25, userRepository.findById(user.getId()).orElseThrow().getScore());
+
+    scoreAccumulator.flush();
+    assertEquals(30, userRepository.findById(user.getId()).orElseThrow().getScore());
+    assertEquals(30, leaderboard.findByUser(ScoreWindow.ALL_TIME, user.getId()).score());
+  }
+
+  private User user(int score) {
+    String name = "u" + UUID.randomUUID().toString().substring(0, 8);
+    return userRepository.save(User.builder()
+        .username(name)
+        .password("x")
+        .email(name + "@example.org")
+        .isEnabled(true)
+        .score(score)
+        .build());
+  }
+}
@@ -0,0 +1,130 @@
+package com.school.project.wahr_oder_watt.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+  private static final int THREADS = 8;
+
+  @Test
+  void everyTimerFiresOnceWithinOneTickOfItsDeadline() throws Exception {
+    int timers = 120_000;
+    AtomicLong now = new AtomicLong(1_000);
+    TimingWheel wheel = new TimingWheel(10, now::get);
+    long[] deadlines = new long[timers];
+    long[] firedAt = new long[timers];
+    AtomicIntegerArray fired = new AtomicIntegerArray(timers);
+
+    // Fristen bis 20 Minuten decken alle drei Räder ab
+    runConcurrently(timers, i -> {
+      long delay = new SplittableRandom(i).nextLong(1, 1_200_000);
+      deadlines[i] = now.get() + delay;
+      wheel.schedule(delay, () -> {
+        fired.incrementAndGet(i);
+        firedAt[i] = now.get();
+      });
+    });
+    assertEquals(timers, wheel.pendingCount());
+
+    for (long t = now.get(); t <= 1_000 + 1_200_000 + 10; t += 10) {
+      now.set(t);
+      wheel.advance(t);
+    }
+
+    assertEquals(0, wheel.pendingCount());
+    for (int i = 0; i < timers; i++) {
+      assertEquals(1, fired.get(i), "Frist " + i);
+      assertTrue(firedAt[i] >= deadlines[i], "zu früh: " + i);
+      assertTrue(firedAt[i] < deadlines[i] + 10, "zu spät: " + i);
+    }
+  }
+
+  @Test
+  void cancelledTimersNeverFire() throws Exception {
+    int timers = 100_000;
+    AtomicLong now = new AtomicLong(0);
+    TimingWheel wheel = new TimingWheel(10, now::get);
+    AtomicInteger fired = new AtomicInteger();
+    List<TimingWheel.Timeout> handles = new ArrayList<>(timers);
+    for (int i = 0; i < timers; i++) {
+      handles.add(wheel.schedule(10_000 + i % 50_000, fired::incrementAndGet));
+    }
+    // die Hälfte schon eingeordnet, die andere Hälfte noch auf dem Stapel abbrechen
+    wheel.advance(10);
+    for (int i = timers / 2; i < timers; i++) {
+      handles.add(wheel.schedule(10_000, fired::incrementAndGet));
+    }
+    runConcurrently(handles.size(), i -> {
+      if (i % 2 == 0) {
+        assertTrue(handles.get(i).cancel());
+      }
+    });
+    assertFalse(handles.get(0).cancel());
+
+    for (long t = 20; t <= 70_000; t += 10) {
+      now.set(t);
+      wheel.advance(t);
+    }
+    assertEquals(handles.size() / 2, fired.get());
+    assertEquals(0, wheel.pendingCount());
+  }
+
+  @Test
+  void tickerThreadFiresOnRealClock() throws Exception {
+    TimingWheel wheel = new TimingWheel(5, () -> System.nanoTime() / 1_000_000);
+    CountDownLatch latch = new CountDownLatch(3);
+    wheel.start();
+    try {
+      long begin = System.nanoTime();
+      wheel.schedule(50, latch::countDown);
+      wheel.schedule(0, latch::countDown);
+      // eine Aufgabe, die selbst eine Folgefrist einplant
+      wheel.schedule(20, () -> wheel.schedule(20, latch::countDown));
+      assertTrue(latch.await(5, TimeUnit.SECONDS));
+      assertTrue(System.nanoTime() - begin >= TimeUnit.MILLISECONDS.toNanos(40));
+    } finally {
+      wheel.stop();
+    }
+  }
+
+  private static void runConcurrently(int count, IndexTask task) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      int from = t;
+      futures.add(pool.submit(() -> {
+        start.await();
+        for (int i = from; i < count; i += THREADS) {
+          task.run(i);
+        }
+        return null;
+      }));
+    }
+    start.countDown();
+    for (Future<?> f : futures) {
+      f.get(30, TimeUnit.SECONDS);
+    }
+    pool.shutdown();
+  }
+
+  @FunctionalInterface
+  private interface IndexTask {
+    void run(int index);
+  }
+}